@@ -27,6 +27,7 @@ package org.edmcouncil.rdf_toolkit;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import org.edmcouncil.rdf_toolkit.runner.RdfToolkitRunner;
+import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitFormattingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,8 +45,7 @@ public class RdfFormatter {
    */
   public static void main(String[] args) {
     try {
-      run(args);
-      System.exit(0);
+      System.exit(new RdfToolkitRunner().run(args));
     } catch (Exception ex) {
       logger.error("{}: stopped by unexpected exception: ", RdfFormatter.class.getSimpleName());
       logger.error("{}: {}", ex.getClass().getSimpleName(), ex.getMessage());
@@ -58,9 +58,14 @@ public class RdfFormatter {
 
   /**
    * Main method, but throws exceptions for use from inside other Java code.
+   *
+   * @throws RdfToolkitFormattingException if the source file could not be formatted
    */
   public static void run(String[] args) throws Exception {
     var rdfToolkitRunner = new RdfToolkitRunner();
-    rdfToolkitRunner.run(args);
+    int status = rdfToolkitRunner.run(args);
+    if (status != 0) {
+      throw new RdfToolkitFormattingException(String.format("Formatting failed with exit status %d", status));
+    }
   }
 }
\ No newline at end of file
@@ -31,7 +31,6 @@ import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.Value;
 import org.edmcouncil.rdf_toolkit.model.SortedTurtlePredicateObjectMap;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
@@ -67,36 +66,41 @@ public class BNodeComparator implements Comparator<BNode> {
 
   @Override
   public int compare(BNode bnode1, BNode bnode2) {
-    return compare(bnode1, bnode2, new ArrayList<>());
+    return compare(bnode1, bnode2, new ComparisonGuard());
   }
 
-  public int compare(BNode bnode1, BNode bnode2, List<Object> excludedList) {
+  public int compare(BNode bnode1, BNode bnode2, ComparisonGuard guard) {
     if (bnode1 == bnode2) {
       return 0;
     }
 
-    if ((bnode1 == null) || excludedList.contains(bnode1) || !unsortedTripleMap.containsKey(bnode1)) {
-      if ((bnode2 == null) || excludedList.contains(bnode2) || !unsortedTripleMap.containsKey(bnode2)) {
+    if ((bnode1 == null) || guard.contains(bnode1) || !unsortedTripleMap.containsKey(bnode1)) {
+      if ((bnode2 == null) || guard.contains(bnode2) || !unsortedTripleMap.containsKey(bnode2)) {
         return 0; // two null/excluded blank nodes are equal
       } else {
         return -1; // null/excluded blank node comes before non-null/excluded blank node
       }
     } else {
-      if ((bnode2 == null) || excludedList.contains(bnode2) || !unsortedTripleMap.containsKey(bnode2)) {
+      if ((bnode2 == null) || guard.contains(bnode2) || !unsortedTripleMap.containsKey(bnode2)) {
         return 1; // non-null/excluded blank node comes after null/excluded blank node
       }
     }
 
+    BlankNodeSortKeys sortKeys = comparisonContext.getBlankNodeSortKeys(collectionClass);
+    if (sortKeys != null) {
+      return sortKeys.compare(bnode1, bnode2);
+    }
+
     if (inlineBlankNodes) {
-      return compareBlankNodesWithInlining(bnode1, bnode2, excludedList);
+      return compareBlankNodesWithInlining(bnode1, bnode2, guard);
     } else {
-      return compareBlankNodesWithoutInlining(bnode1, bnode2, excludedList);
+      return compareBlankNodesWithoutInlining(bnode1, bnode2, guard);
     }
   }
 
-  private int compareBlankNodesWithInlining(BNode bnode1, BNode bnode2, List<Object> excludedList) {
+  private int compareBlankNodesWithInlining(BNode bnode1, BNode bnode2, ComparisonGuard guard) {
     // We assume here that both blank nodes are non-null/excluded
-    assert bnode1 != null && bnode2 != null && !excludedList.contains(bnode1) && !excludedList.contains(bnode2);
+    assert bnode1 != null && bnode2 != null && !guard.contains(bnode1) && !guard.contains(bnode2);
 
     // deal with RDF collection blank nodes separately, when inlining blank nodes
     if (isCollection(comparisonContext, bnode1, collectionClass)) {
@@ -104,7 +108,7 @@ public class BNodeComparator implements Comparator<BNode> {
         List<Value> values1 = getCollectionMembers(unsortedTripleMap, bnode1, collectionClass, comparisonContext);
         List<Value> values2 = getCollectionMembers(unsortedTripleMap, bnode2, collectionClass, comparisonContext);
 
-        return objectListComparator.compare(values1, values2, excludedList);
+        return objectListComparator.compare(values1, values2, guard);
       } else {
         return -1; // an RDF collection comes before any other blank node
       }
@@ -115,17 +119,21 @@ public class BNodeComparator implements Comparator<BNode> {
         SortedTurtlePredicateObjectMap map1 = unsortedTripleMap.getSorted(bnode1, collectionClass, comparisonContext);
         SortedTurtlePredicateObjectMap map2 = unsortedTripleMap.getSorted(bnode2, collectionClass, comparisonContext);
 
-        excludedList.add(bnode1);
-        excludedList.add(bnode2);
-
-        return predicateObjectMapComparator.compare(map1, map2, excludedList);
+        int guardDepth = guard.getDepth();
+        guard.push(bnode1);
+        guard.push(bnode2);
+        try {
+          return predicateObjectMapComparator.compare(map1, map2, guard);
+        } finally {
+          guard.popTo(guardDepth);
+        }
       }
     }
   }
 
-  private int compareBlankNodesWithoutInlining(BNode bnode1, BNode bnode2, List<Object> excludedList) {
+  private int compareBlankNodesWithoutInlining(BNode bnode1, BNode bnode2, ComparisonGuard guard) {
     // We assume here that both blank nodes are non-null/excluded
-    if (bnode1 == null || bnode2 == null || excludedList.contains(bnode1) || excludedList.contains(bnode2)) {
+    if (bnode1 == null || bnode2 == null || guard.contains(bnode1) || guard.contains(bnode2)) {
       throw new IllegalStateException("value1 and value2 should not be null or in the excluded list.");
     }
 
@@ -135,7 +143,7 @@ public class BNodeComparator implements Comparator<BNode> {
         List<Value> values1 = getCollectionMembers(unsortedTripleMap, bnode1, collectionClass, comparisonContext);
         List<Value> values2 = getCollectionMembers(unsortedTripleMap, bnode2, collectionClass, comparisonContext);
 
-        int cmp = objectListComparator.compare(values1, values2, excludedList);
+        int cmp = objectListComparator.compare(values1, values2, guard);
         if (cmp != 0) { // cmp = 0 value is only reliable when inlining blank nodes
           return cmp;
         } else { // if all else fails, do a string comparison
@@ -151,10 +159,15 @@ public class BNodeComparator implements Comparator<BNode> {
         SortedTurtlePredicateObjectMap map1 = unsortedTripleMap.getSorted(bnode1, collectionClass, comparisonContext);
         SortedTurtlePredicateObjectMap map2 = unsortedTripleMap.getSorted(bnode2, collectionClass, comparisonContext);
 
-        excludedList.add(bnode1);
-        excludedList.add(bnode2);
-
-        int cmp = predicateObjectMapComparator.compare(map1, map2, excludedList);
+        int guardDepth = guard.getDepth();
+        guard.push(bnode1);
+        guard.push(bnode2);
+        int cmp;
+        try {
+          cmp = predicateObjectMapComparator.compare(map1, map2, guard);
+        } finally {
+          guard.popTo(guardDepth);
+        }
         if (cmp != 0) { // cmp = 0 value is only reliable when inlining blank nodes
           return cmp;
         } else { // if all else fails, do a string comparison
@@ -0,0 +1,475 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.comparator;
+
+import static org.edmcouncil.rdf_toolkit.comparator.ComparisonUtils.compareSimpleValue;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleObjectList;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtlePredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.util.Constants;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Precomputed sort keys for the blank nodes of a triple map.
+ *
+ * <p>The keys are computed once, bottom-up.  Every blank node gets a signature made of its own IRIs and literals and of
+ * the equivalence classes of the blank nodes it refers to.  The signatures of one level are sorted and merged into the
+ * equivalence classes found on the levels below, and the classes are then renumbered.  After that, comparing two blank
+ * nodes is a comparison of two class ranks, instead of a recursive walk through both blank nodes.</p>
+ *
+ * <p>The order of the keys is the order defined by {@link BNodeComparator}, so the output does not change.  Keys are
+ * not available when the blank nodes refer to each other in a cycle; {@link BNodeComparator} then falls back to
+ * recursive comparisons.</p>
+ */
+public class BlankNodeSortKeys {
+
+  private static final int ABSENT_RANK = -1;
+
+  private final UnsortedTurtleSubjectPredicateObjectMap unsortedTripleMap;
+  private final Class<Value> collectionClass;
+  private final ComparisonContext comparisonContext;
+  private final boolean inlineBlankNodes;
+  private final Map<BNode, Node> nodes = new HashMap<>();
+  private final Comparator<Value> valueOrder = this::compareValues;
+
+  private BlankNodeSortKeys(ComparisonContext comparisonContext, Class<Value> collectionClass) {
+    this.unsortedTripleMap = comparisonContext.getUnsortedTripleMap();
+    this.collectionClass = collectionClass;
+    this.comparisonContext = comparisonContext;
+    this.inlineBlankNodes = comparisonContext.getShouldInlineBlankNodes();
+  }
+
+  /**
+   * Computes the sort keys of all blank nodes which are subjects in the triple map of the comparison context.
+   *
+   * @param comparisonContext comparison context holding the triple map
+   * @param collectionClass   all RDF collection members must be instances of this class
+   * @return the sort keys, or null if the blank nodes refer to each other in a cycle
+   */
+  public static BlankNodeSortKeys compute(ComparisonContext comparisonContext, Class<Value> collectionClass) {
+    var sortKeys = new BlankNodeSortKeys(comparisonContext, collectionClass);
+    return sortKeys.computeKeys() ? sortKeys : null;
+  }
+
+  /**
+   * Compares two blank nodes the same way as {@link BNodeComparator} does.
+   */
+  public int compare(BNode bnode1, BNode bnode2) {
+    int rank1 = rank(bnode1);
+    int rank2 = rank(bnode2);
+    int cmp = Integer.compare(rank1, rank2);
+    if ((cmp == 0) && !inlineBlankNodes && (rank1 != ABSENT_RANK)) {
+      // same as BNodeComparator: content comparison is only reliable when inlining blank nodes
+      return bnode1.stringValue().compareTo(bnode2.stringValue());
+    }
+    return cmp;
+  }
+
+  /**
+   * Returns the rank of the given blank node among all blank nodes, or -1 if it is not a subject in the triple map.
+   * Blank nodes with the same rank have the same content.
+   */
+  public int getRank(BNode bnode) {
+    return rank(bnode);
+  }
+
+  /**
+   * Returns the number of distinct blank node signatures.
+   */
+  public int getEquivalenceClassCount() {
+    int maxRank = ABSENT_RANK;
+    for (Node node : nodes.values()) {
+      maxRank = Math.max(maxRank, node.equivalenceClass.rank);
+    }
+    return maxRank + 1;
+  }
+
+  private int rank(BNode bnode) {
+    Node node = bnode == null ? null : nodes.get(bnode);
+    return node == null ? ABSENT_RANK : node.equivalenceClass.rank;
+  }
+
+  private boolean computeKeys() {
+    for (Map.Entry<Resource, UnsortedTurtlePredicateObjectMap> entry : unsortedTripleMap.entrySet()) {
+      if (entry.getKey() instanceof BNode) {
+        nodes.put((BNode) entry.getKey(), new Node((BNode) entry.getKey(), entry.getValue()));
+      }
+    }
+    if (!markCollections() || !computeLevels()) {
+      return false;
+    }
+
+    TreeMap<Integer, List<Node>> nodesByLevel = new TreeMap<>();
+    for (Node node : nodes.values()) {
+      nodesByLevel.computeIfAbsent(node.level, level -> new ArrayList<>()).add(node);
+    }
+
+    List<EquivalenceClass> orderedClasses = new ArrayList<>();
+    for (List<Node> levelNodes : nodesByLevel.values()) {
+      for (Node node : levelNodes) {
+        node.prepareSignature();
+      }
+      levelNodes.sort(this::compareSignatures);
+      orderedClasses = merge(orderedClasses, levelNodes);
+      for (int rank = 0; rank < orderedClasses.size(); rank++) {
+        orderedClasses.get(rank).rank = rank;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Merges the sorted nodes of one level into the sorted equivalence classes of the levels below.
+   */
+  private List<EquivalenceClass> merge(List<EquivalenceClass> orderedClasses, List<Node> levelNodes) {
+    List<EquivalenceClass> merged = new ArrayList<>(orderedClasses.size() + levelNodes.size());
+    int classIndex = 0;
+    for (Node node : levelNodes) {
+      EquivalenceClass last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      while (classIndex < orderedClasses.size()
+          && compareSignatures(orderedClasses.get(classIndex).representative, node) < 0) {
+        last = orderedClasses.get(classIndex++);
+        merged.add(last);
+      }
+      if ((classIndex < orderedClasses.size())
+          && (compareSignatures(orderedClasses.get(classIndex).representative, node) == 0)) {
+        last = orderedClasses.get(classIndex++);
+        merged.add(last);
+        node.equivalenceClass = last;
+      } else if ((last != null) && (compareSignatures(last.representative, node) == 0)) {
+        node.equivalenceClass = last;
+      } else {
+        node.equivalenceClass = new EquivalenceClass(node);
+        merged.add(node.equivalenceClass);
+      }
+    }
+    while (classIndex < orderedClasses.size()) {
+      merged.add(orderedClasses.get(classIndex++));
+    }
+    return merged;
+  }
+
+  /**
+   * Decides which blank nodes are RDF collections, following the rules of
+   * {@link ComparisonUtils#isCollection(ComparisonContext, BNode, Class)}, but walking each rdf:rest chain only once.
+   */
+  private boolean markCollections() {
+    for (Node start : nodes.values()) {
+      Deque<Node> chain = new ArrayDeque<>();
+      Set<Node> chainNodes = new HashSet<>();
+      Node current = start;
+      Boolean isCollection = null;
+      while (isCollection == null) {
+        if (current.isCollection != null) {
+          isCollection = current.isCollection;
+        } else if (!chainNodes.add(current)) {
+          return false; // rdf:rest cycle
+        } else {
+          chain.push(current);
+          Object next = current.nextInCollection();
+          if (next instanceof Boolean) {
+            isCollection = (Boolean) next;
+          } else {
+            current = nodes.get((BNode) next);
+            if (current == null) {
+              isCollection = false;
+            }
+          }
+        }
+      }
+      for (Node node : chain) {
+        node.isCollection = isCollection;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Assigns levels so that every blank node comes after the blank nodes its signature depends on.
+   */
+  private boolean computeLevels() {
+    Map<Node, Boolean> onStack = new HashMap<>();
+    for (Node start : nodes.values()) {
+      if (start.level >= 0) {
+        continue;
+      }
+      Deque<Node> stack = new ArrayDeque<>();
+      Deque<Integer> childIndexes = new ArrayDeque<>();
+      stack.push(start);
+      childIndexes.push(0);
+      onStack.put(start, true);
+      while (!stack.isEmpty()) {
+        Node node = stack.peek();
+        int childIndex = childIndexes.pop();
+        List<Node> children = node.children();
+        if (childIndex < children.size()) {
+          childIndexes.push(childIndex + 1);
+          Node child = children.get(childIndex);
+          if (onStack.containsKey(child)) {
+            return false; // blank node cycle
+          }
+          if (child.level < 0) {
+            stack.push(child);
+            childIndexes.push(0);
+            onStack.put(child, true);
+          }
+        } else {
+          int level = 0;
+          for (Node child : children) {
+            // the rdf:rest of a collection is walked when comparing, so it does not need to be ranked first
+            level = Math.max(level, child == node.rest ? child.level : child.level + 1);
+          }
+          node.level = level;
+          stack.pop();
+          onStack.remove(node);
+        }
+      }
+    }
+    return true;
+  }
+
+  private int compareSignatures(Node node1, Node node2) {
+    if (node1.isCollection) {
+      if (!node2.isCollection) {
+        return -1; // an RDF collection comes before any other blank node
+      }
+      return compareCollectionMembers(node1, node2);
+    }
+    if (node2.isCollection) {
+      return 1; // an RDF collection comes before any other blank node
+    }
+    int predicateCount = Math.min(node1.predicates.length, node2.predicates.length);
+    for (int index = 0; index < predicateCount; index++) {
+      int cmp = node1.predicates[index].stringValue().compareTo(node2.predicates[index].stringValue());
+      if (cmp != 0) {
+        return cmp;
+      }
+      cmp = compareValueLists(node1.objects[index], node2.objects[index]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(node1.predicates.length, node2.predicates.length);
+  }
+
+  private int compareCollectionMembers(Node node1, Node node2) {
+    Node current1 = node1;
+    Node current2 = node2;
+    int index1 = 0;
+    int index2 = 0;
+    while (true) {
+      while ((current1 != null) && (index1 >= current1.objects[0].length)) {
+        current1 = current1.rest;
+        index1 = 0;
+      }
+      while ((current2 != null) && (index2 >= current2.objects[0].length)) {
+        current2 = current2.rest;
+        index2 = 0;
+      }
+      if ((current1 == null) || (current2 == null)) {
+        return (current1 == null) ? ((current2 == null) ? 0 : -1) : 1;
+      }
+      int cmp = compareValues(current1.objects[0][index1++], current2.objects[0][index2++]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+  }
+
+  private int compareValueLists(Value[] values1, Value[] values2) {
+    int valueCount = Math.min(values1.length, values2.length);
+    for (int index = 0; index < valueCount; index++) {
+      int cmp = compareValues(values1[index], values2[index]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(values1.length, values2.length);
+  }
+
+  /**
+   * Compares two values the same way as {@link ValueComparator} does, using the ranks of the blank nodes.
+   */
+  private int compareValues(Value value1, Value value2) {
+    if (value1 == value2) {
+      return 0;
+    }
+    if (value1 instanceof BNode) {
+      if (value2 instanceof BNode) {
+        int cmp = Integer.compare(rank((BNode) value1), rank((BNode) value2));
+        return cmp != 0 ? cmp : value1.stringValue().compareTo(value2.stringValue());
+      }
+      return 1; // blank nodes come after other values
+    }
+    if (value2 instanceof BNode) {
+      return -1; // blank nodes come after other values
+    }
+    if ((value1 instanceof Literal) && (value2 instanceof Literal)) {
+      return compareSimpleValue((Literal) value1, (Literal) value2);
+    }
+    return compareSimpleValue(value1, value2);
+  }
+
+  private static class EquivalenceClass {
+    private final Node representative;
+    private int rank = ABSENT_RANK;
+
+    private EquivalenceClass(Node representative) {
+      this.representative = representative;
+    }
+  }
+
+  private class Node {
+    private final BNode bnode;
+    private final UnsortedTurtlePredicateObjectMap poMap;
+    private Boolean isCollection = null;
+    private Node rest = null;
+    private int level = -1;
+    private List<Node> children = null;
+    private IRI[] predicates = null;
+    // for collections, objects[0] holds the rdf:first values
+    private Value[][] objects = null;
+    private EquivalenceClass equivalenceClass = null;
+
+    private Node(BNode bnode, UnsortedTurtlePredicateObjectMap poMap) {
+      this.bnode = bnode;
+      this.poMap = poMap;
+    }
+
+    /**
+     * Returns Boolean.TRUE or Boolean.FALSE if this blank node alone decides whether it is an RDF collection, or the
+     * blank node in rdf:rest which decides it otherwise.
+     */
+    private Object nextInCollection() {
+      int firstCount = poMap.containsKey(Constants.rdfFirst) ? 1 : 0;
+      int restCount = poMap.containsKey(Constants.rdfRest) ? 1 : 0;
+      int typeCount = poMap.containsKey(Constants.RDF_TYPE) ? 1 : 0;
+      if (poMap.size() != firstCount + restCount + typeCount) {
+        return Boolean.FALSE;
+      }
+      UnsortedTurtleObjectList firstValues = poMap.get(Constants.rdfFirst);
+      if (firstValues == null) {
+        // unusual shape; let ComparisonUtils decide, as it picks the values to check from an arbitrary predicate
+        return ComparisonUtils.isCollection(comparisonContext, bnode, collectionClass);
+      }
+      for (Value value : firstValues) {
+        if (!collectionClass.isInstance(value)) {
+          return Boolean.FALSE;
+        }
+      }
+      UnsortedTurtleObjectList restValues = poMap.get(Constants.rdfRest);
+      if ((restValues == null) || (restValues.size() != 1)) {
+        return Boolean.FALSE;
+      }
+      Value restValue = restValues.iterator().next();
+      if (Constants.rdfNil.equals(restValue)) {
+        return Boolean.TRUE;
+      }
+      return restValue instanceof BNode ? restValue : Boolean.FALSE;
+    }
+
+    private List<Node> children() {
+      if (children == null) {
+        children = new ArrayList<>();
+        if (isCollection) {
+          addBlankNodeChildren(poMap.get(Constants.rdfFirst));
+          UnsortedTurtleObjectList restValues = poMap.get(Constants.rdfRest);
+          if (restValues != null) {
+            for (Value value : restValues) {
+              if (value instanceof BNode) {
+                rest = nodes.get(value);
+                if (rest != null) {
+                  children.add(rest);
+                }
+              }
+            }
+          }
+        } else if (inlineBlankNodes) { // blank node objects are only compared when inlining blank nodes
+          for (UnsortedTurtleObjectList values : poMap.values()) {
+            addBlankNodeChildren(values);
+          }
+        }
+      }
+      return children;
+    }
+
+    private void addBlankNodeChildren(UnsortedTurtleObjectList values) {
+      if (values != null) {
+        for (Value value : values) {
+          if (value instanceof BNode) {
+            Node child = nodes.get(value);
+            if (child != null) {
+              children.add(child);
+            }
+          }
+        }
+      }
+    }
+
+    private void prepareSignature() {
+      if (isCollection) {
+        UnsortedTurtleObjectList firstValues = poMap.get(Constants.rdfFirst);
+        objects = new Value[][]{sortedValues(firstValues, true)};
+      } else {
+        predicates = poMap.keySet().toArray(new IRI[0]);
+        Arrays.sort(predicates, Comparator.comparing(IRI::stringValue));
+        objects = new Value[predicates.length][];
+        for (int index = 0; index < predicates.length; index++) {
+          objects[index] = sortedValues(poMap.get(predicates[index]), inlineBlankNodes);
+        }
+      }
+    }
+
+    private Value[] sortedValues(UnsortedTurtleObjectList values, boolean includeBlankNodes) {
+      if (values == null) {
+        return new Value[0];
+      }
+      List<Value> result = new ArrayList<>(values.size());
+      for (Value value : values) {
+        if (includeBlankNodes || !(value instanceof BNode)) {
+          result.add(value);
+        }
+      }
+      result.sort(valueOrder);
+      return result.toArray(new Value[0]);
+    }
+  }
+}
@@ -26,32 +26,89 @@ package org.edmcouncil.rdf_toolkit.comparator;
 
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
-import org.edmcouncil.rdf_toolkit.model.Pair;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Cached comparator for Sesame Resource objects.
+ *
+ * <p>The cache is a fixed-size table with one slot per hash value, so a new comparison evicts the comparison which was
+ * in its slot.  A comparison of (a, b) is also used for (b, a), and looking up a cached comparison does not allocate.
+ * The size of the table and the statistics to update are taken from the comparison context.</p>
  */
 public class CachedResourceComparator implements Comparator<Resource> {
 
-  private final Map<Pair<Resource, Resource>, Integer> cache = new HashMap<>();
+  /**
+   * Default number of cached comparisons.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+  /**
+   * Largest number of cached comparisons; larger cache sizes are reduced to this.
+   */
+  public static final int MAX_CACHE_SIZE = 1 << 24;
+
   private final ResourceComparator comparator;
+  private final ComparatorCacheStatistics statistics;
+  private final Resource[] firstResources;
+  private final Resource[] secondResources;
+  private final byte[] results;
+  private final int mask;
 
   public CachedResourceComparator(Class<Value> collectionClass, ComparisonContext comparisonContext) {
     this.comparator = new ResourceComparator(collectionClass, comparisonContext);
+    this.statistics = comparisonContext.getComparatorCacheStatistics();
+    int capacity = tableCapacity(comparisonContext.getComparatorCacheSize());
+    this.firstResources = new Resource[capacity];
+    this.secondResources = new Resource[capacity];
+    this.results = new byte[capacity];
+    this.mask = capacity - 1;
   }
 
   @Override
   public int compare(Resource resource1, Resource resource2) {
-    Pair<Resource, Resource> key = new Pair<>(resource1, resource2);
-    if (cache.containsKey(key)) {
-      return cache.get(key);
-    } else {
-      int result = comparator.compare(resource1, resource2);
-      cache.put(key, result);
-      return result;
+    if ((resource1 == null) || (resource2 == null) || (mask < 0)) {
+      return comparator.compare(resource1, resource2);
+    }
+
+    int index = slot(resource1, resource2);
+    Resource first = firstResources[index];
+    if (first != null) {
+      Resource second = secondResources[index];
+      if (sameResource(first, resource1) && sameResource(second, resource2)) {
+        statistics.recordHit();
+        return results[index];
+      }
+      if (sameResource(first, resource2) && sameResource(second, resource1)) {
+        statistics.recordHit();
+        return -results[index];
+      }
+      statistics.recordEviction();
+    }
+    statistics.recordMiss();
+
+    int result = Integer.signum(comparator.compare(resource1, resource2));
+    firstResources[index] = resource1;
+    secondResources[index] = resource2;
+    results[index] = (byte) result;
+    return result;
+  }
+
+  private int slot(Resource resource1, Resource resource2) {
+    // the sum of the hash codes is the same for (a, b) and (b, a)
+    int hash = (resource1.hashCode() + resource2.hashCode()) * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static boolean sameResource(Resource cached, Resource resource) {
+    return (cached == resource) || cached.equals(resource);
+  }
+
+  static int tableCapacity(int cacheSize) {
+    if (cacheSize <= 0) {
+      return 0; // caching disabled
     }
+    int size = Math.min(cacheSize, MAX_CACHE_SIZE);
+    int capacity = Integer.highestOneBit(size);
+    return capacity < size ? capacity << 1 : capacity; // round up to a power of two, at most MAX_CACHE_SIZE
   }
-}
\ No newline at end of file
+}
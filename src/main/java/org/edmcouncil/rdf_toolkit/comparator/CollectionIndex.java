@@ -0,0 +1,252 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.comparator;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.edmcouncil.rdf_toolkit.model.SortedTurtleObjectList;
+import org.edmcouncil.rdf_toolkit.model.SortedTurtlePredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleObjectList;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtlePredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.util.Constants;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The RDF collections among the blank nodes of a triple map, found in a single pass.
+ *
+ * <p>Every blank node subject is classified once, following the rules of
+ * {@link ComparisonUtils#isCollection(ComparisonContext, BNode, Class)}: its rdf:rest chain is walked up to the first
+ * blank node which has already been classified, and the result is then handed back along the walked part of the
+ * chain.  A cycle of rdf:rest values is not an RDF collection.</p>
+ *
+ * <p>The members of a list are gathered once, from the head of the list, when they are first asked for.  The members
+ * of any other blank node of the list are a view on the tail of the members of its head.  Nothing here is recursive,
+ * so long lists cannot overflow the stack.</p>
+ */
+public class CollectionIndex {
+
+  private final UnsortedTurtleSubjectPredicateObjectMap unsortedTripleMap;
+  private final Class<Value> collectionClass;
+  private final ComparisonContext comparisonContext;
+  private final Map<BNode, ListNode> listNodes = new HashMap<>();
+
+  private CollectionIndex(ComparisonContext comparisonContext, Class<Value> collectionClass) {
+    this.unsortedTripleMap = comparisonContext.getUnsortedTripleMap();
+    this.collectionClass = collectionClass;
+    this.comparisonContext = comparisonContext;
+  }
+
+  /**
+   * Finds the RDF collections among the blank nodes which are subjects in the triple map of the comparison context.
+   *
+   * @param comparisonContext comparison context holding the triple map
+   * @param collectionClass   all RDF collection members must be instances of this class
+   * @return the RDF collections
+   */
+  public static CollectionIndex compute(ComparisonContext comparisonContext, Class<Value> collectionClass) {
+    var collectionIndex = new CollectionIndex(comparisonContext, collectionClass);
+    collectionIndex.findCollections();
+    collectionIndex.linkLists();
+    return collectionIndex;
+  }
+
+  /**
+   * Whether the given blank node is an RDF collection, or not.
+   */
+  public boolean isCollection(BNode bnode) {
+    return listNodes.containsKey(bnode);
+  }
+
+  /**
+   * Returns the members of the given blank node if it is an RDF collection, or an empty list otherwise.  The returned
+   * list cannot be modified.
+   */
+  public List<Value> getCollectionMembers(BNode bnode) {
+    ListNode listNode = listNodes.get(bnode);
+    if (listNode == null) {
+      return Collections.emptyList();
+    }
+    if (listNode.members == null) {
+      gatherMembers(listNode.head);
+    }
+    return listNode.offset == 0 ? listNode.members : listNode.members.subList(listNode.offset, listNode.members.size());
+  }
+
+  /**
+   * Returns the number of blank nodes which are RDF collections, including the rest of every list.
+   */
+  public int getCollectionCount() {
+    return listNodes.size();
+  }
+
+  private void findCollections() {
+    Map<BNode, Boolean> classified = new HashMap<>();
+    for (Resource subject : unsortedTripleMap.keySet()) {
+      if (!(subject instanceof BNode) || classified.containsKey(subject)) {
+        continue;
+      }
+      List<BNode> chain = new ArrayList<>();
+      Set<BNode> chainNodes = new HashSet<>();
+      BNode current = (BNode) subject;
+      Boolean isCollection = null;
+      while (isCollection == null) {
+        Boolean known = classified.get(current);
+        if (known != null) {
+          isCollection = known;
+        } else if (!chainNodes.add(current)) {
+          isCollection = false; // rdf:rest cycle
+        } else {
+          chain.add(current);
+          Object next = nextInCollection(current);
+          if (next instanceof Boolean) {
+            isCollection = (Boolean) next;
+          } else {
+            current = (BNode) next;
+          }
+        }
+      }
+      for (BNode bnode : chain) {
+        classified.put(bnode, isCollection);
+        if (isCollection) {
+          listNodes.put(bnode, new ListNode(bnode));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns Boolean.TRUE or Boolean.FALSE if the given blank node alone decides whether it is an RDF collection, or the
+   * blank node in rdf:rest which decides it otherwise.
+   */
+  private Object nextInCollection(BNode bnode) {
+    UnsortedTurtlePredicateObjectMap poMap = unsortedTripleMap.get(bnode);
+    if (poMap == null) {
+      return Boolean.FALSE;
+    }
+    int firstCount = poMap.containsKey(Constants.rdfFirst) ? 1 : 0;
+    int restCount = poMap.containsKey(Constants.rdfRest) ? 1 : 0;
+    int typeCount = poMap.containsKey(Constants.RDF_TYPE) ? 1 : 0;
+    if (poMap.size() != firstCount + restCount + typeCount) {
+      return Boolean.FALSE;
+    }
+    Collection<Value> firstValues = poMap.get(Constants.rdfFirst);
+    if (firstValues == null) {
+      // unusual shape; like ComparisonUtils, check the values of the last predicate in sorted order instead
+      SortedTurtlePredicateObjectMap sortedPOMap = unsortedTripleMap.getSorted(bnode, collectionClass,
+          comparisonContext);
+      for (IRI predicate : sortedPOMap.keySet()) {
+        firstValues = sortedPOMap.get(predicate);
+      }
+      if (firstValues == null) {
+        return Boolean.FALSE;
+      }
+    }
+    for (Value value : firstValues) {
+      if (!collectionClass.isInstance(value)) {
+        return Boolean.FALSE;
+      }
+    }
+    UnsortedTurtleObjectList restValues = poMap.get(Constants.rdfRest);
+    if ((restValues == null) || (restValues.size() != 1)) {
+      return Boolean.FALSE;
+    }
+    Value restValue = restValues.iterator().next();
+    if (Constants.rdfNil.equals(restValue)) {
+      return Boolean.TRUE;
+    }
+    return restValue instanceof BNode ? restValue : Boolean.FALSE;
+  }
+
+  /**
+   * Links every RDF collection to its rdf:rest, and to the head of a list it belongs to.
+   */
+  private void linkLists() {
+    Set<ListNode> restNodes = new HashSet<>();
+    for (ListNode listNode : listNodes.values()) {
+      Value restValue = unsortedTripleMap.get(listNode.bnode).get(Constants.rdfRest).iterator().next();
+      if (restValue instanceof BNode) {
+        listNode.rest = listNodes.get(restValue);
+        restNodes.add(listNode.rest);
+      }
+    }
+    for (ListNode head : listNodes.values()) {
+      if (!restNodes.contains(head)) {
+        for (ListNode listNode = head; (listNode != null) && (listNode.head == null); listNode = listNode.rest) {
+          listNode.head = head;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gathers the members of the list starting at the given head, in list order.  The members of each blank node are in
+   * sorted order, as there is no order among the rdf:first values of a single blank node.
+   */
+  private void gatherMembers(ListNode head) {
+    List<Value> members = new ArrayList<>();
+    List<ListNode> walked = new ArrayList<>();
+    for (ListNode listNode = head; listNode != null; listNode = listNode.rest) {
+      if (listNode.members != null) {
+        // the tail is shared with a list gathered before
+        members.addAll(getCollectionMembers(listNode.bnode));
+        break;
+      }
+      listNode.offset = members.size();
+      walked.add(listNode);
+      SortedTurtleObjectList firstValues =
+          unsortedTripleMap.getSorted(listNode.bnode, collectionClass, comparisonContext).get(Constants.rdfFirst);
+      if (firstValues != null) {
+        members.addAll(firstValues);
+      }
+    }
+    List<Value> unmodifiableMembers = Collections.unmodifiableList(members);
+    for (ListNode listNode : walked) {
+      listNode.members = unmodifiableMembers;
+    }
+  }
+
+  private static class ListNode {
+    private final BNode bnode;
+    private ListNode rest = null;
+    private ListNode head = null;
+    // all members of the head, of which this blank node's members start at the offset
+    private List<Value> members = null;
+    private int offset = 0;
+
+    private ListNode(BNode bnode) {
+      this.bnode = bnode;
+    }
+  }
+}
@@ -24,16 +24,31 @@
 
 package org.edmcouncil.rdf_toolkit.comparator;
 
+import org.eclipse.rdf4j.model.Value;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ComparisonContext {
 
   private final boolean shouldInlineBlankNodes;
   private final UnsortedTurtleSubjectPredicateObjectMap unsortedTripleMap;
+  private final int comparatorCacheSize;
+  private final ComparatorCacheStatistics comparatorCacheStatistics;
+  private final Map<Class<Value>, BlankNodeSortKeys> blankNodeSortKeys = new HashMap<>();
+  private final Map<Class<Value>, CollectionIndex> collectionIndexes = new HashMap<>();
 
   public ComparisonContext(boolean shouldInlineBlankNodesX, UnsortedTurtleSubjectPredicateObjectMap unsortedTripleMap) {
+    this(shouldInlineBlankNodesX, unsortedTripleMap, CachedResourceComparator.DEFAULT_CACHE_SIZE,
+        new ComparatorCacheStatistics());
+  }
+
+  public ComparisonContext(boolean shouldInlineBlankNodesX, UnsortedTurtleSubjectPredicateObjectMap unsortedTripleMap,
+      int comparatorCacheSize, ComparatorCacheStatistics comparatorCacheStatistics) {
     this.shouldInlineBlankNodes = shouldInlineBlankNodesX;
     this.unsortedTripleMap = unsortedTripleMap;
+    this.comparatorCacheSize = comparatorCacheSize;
+    this.comparatorCacheStatistics = comparatorCacheStatistics;
   }
 
   public boolean getShouldInlineBlankNodes() {
@@ -43,4 +58,45 @@ public class ComparisonContext {
   public UnsortedTurtleSubjectPredicateObjectMap getUnsortedTripleMap() {
     return unsortedTripleMap;
   }
+
+  /**
+   * Returns the maximum number of comparisons cached by each {@link CachedResourceComparator}.
+   */
+  public int getComparatorCacheSize() {
+    return comparatorCacheSize;
+  }
+
+  public ComparatorCacheStatistics getComparatorCacheStatistics() {
+    return comparatorCacheStatistics;
+  }
+
+  /**
+   * Returns the precomputed blank node sort keys for the given collection class, or null if there are none.
+   */
+  public BlankNodeSortKeys getBlankNodeSortKeys(Class<Value> collectionClass) {
+    return blankNodeSortKeys.get(collectionClass);
+  }
+
+  public void setBlankNodeSortKeys(Class<Value> collectionClass, BlankNodeSortKeys sortKeys) {
+    if (sortKeys == null) {
+      blankNodeSortKeys.remove(collectionClass);
+    } else {
+      blankNodeSortKeys.put(collectionClass, sortKeys);
+    }
+  }
+
+  /**
+   * Returns the precomputed RDF collections for the given collection class, or null if there are none.
+   */
+  public CollectionIndex getCollectionIndex(Class<Value> collectionClass) {
+    return collectionIndexes.get(collectionClass);
+  }
+
+  public void setCollectionIndex(Class<Value> collectionClass, CollectionIndex collectionIndex) {
+    if (collectionIndex == null) {
+      collectionIndexes.remove(collectionClass);
+    } else {
+      collectionIndexes.put(collectionClass, collectionIndex);
+    }
+  }
 }
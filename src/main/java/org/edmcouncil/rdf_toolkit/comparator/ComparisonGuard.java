@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.comparator;
+
+import org.eclipse.rdf4j.model.Value;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the blank nodes, object lists and predicate/object maps which are being compared further up the current
+ * comparison path, so that the comparators in this package do not loop forever on blank node cycles.
+ *
+ * <p>Entries are pushed when a comparator descends into a value and popped when it returns, so the guard only holds
+ * the current path and not the sibling branches which have already been compared.  Object lists and predicate/object
+ * maps are tracked by identity.  RDF values are tracked by equality, as the same blank node may be represented by
+ * different instances.</p>
+ */
+public class ComparisonGuard {
+
+  // allocated on the first push, as most comparisons never descend into blank nodes
+  private Map<Object, Integer> excludedValues = null;
+  private Map<Object, Integer> excludedContainers = null;
+  private Object[] path = null;
+  private int depth = 0;
+
+  /**
+   * Whether the given value, list or map is being compared further up the current comparison path.
+   */
+  public boolean contains(Object object) {
+    if ((object == null) || (depth == 0)) {
+      return false;
+    }
+    return excluded(object).containsKey(object);
+  }
+
+  /**
+   * Adds the given value, list or map to the current comparison path.
+   */
+  public void push(Object object) {
+    if (path == null) {
+      excludedValues = new HashMap<>();
+      excludedContainers = new IdentityHashMap<>();
+      path = new Object[16];
+    } else if (depth == path.length) {
+      path = Arrays.copyOf(path, depth * 2);
+    }
+    path[depth++] = object;
+    excluded(object).merge(object, 1, Integer::sum);
+  }
+
+  /**
+   * Removes the most recently pushed value, list or map from the current comparison path.
+   */
+  public void pop() {
+    if (depth == 0) {
+      throw new IllegalStateException("comparison guard is empty");
+    }
+    Object object = path[--depth];
+    path[depth] = null;
+    excluded(object).computeIfPresent(object, (key, count) -> count == 1 ? null : count - 1);
+  }
+
+  /**
+   * Removes the most recently pushed entries until the comparison path has the given depth.
+   */
+  public void popTo(int depth) {
+    while (this.depth > depth) {
+      pop();
+    }
+  }
+
+  /**
+   * Returns the number of entries on the current comparison path.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  private Map<Object, Integer> excluded(Object object) {
+    return object instanceof Value ? excludedValues : excludedContainers;
+  }
+}
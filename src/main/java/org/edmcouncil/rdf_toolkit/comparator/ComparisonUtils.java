@@ -32,6 +32,7 @@ import org.edmcouncil.rdf_toolkit.model.SortedTurtlePredicateObjectMap;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
 import org.edmcouncil.rdf_toolkit.util.Constants;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -41,6 +42,9 @@ public class ComparisonUtils {
   }
 
   public static int compareSimpleValue(Literal literal1, Literal literal2) {
+    if (literal1 == literal2) {
+      return 0; // interned literals (see InterningValueFactory) are equal when they are identical
+    }
     // TODO: support natural ordering of non-string literals
     int cmp = literal1.stringValue().compareTo(literal2.stringValue());
     if (cmp != 0) {
@@ -60,6 +64,9 @@ public class ComparisonUtils {
           return 1; // literal1 without language comes after literal2 with language
         } // !literal2.getLanguage().isPresent(); neither literal has a language to compare
       }
+      if (literal1.getDatatype() == literal2.getDatatype()) {
+        return 0; // same (interned) data type, or neither literal has a data type
+      }
       if (literal1.getDatatype() != null) {
         if (literal2.getDatatype() != null) {
           return literal1.getDatatype().stringValue().compareTo(literal2.getDatatype().stringValue());
@@ -76,12 +83,16 @@ public class ComparisonUtils {
   }
 
   public static int compareSimpleValue(Value value1, Value value2) {
+    if (value1 == value2) {
+      return 0;
+    }
     // Use string comparison as the last option.
     return value1.stringValue().compareTo(value2.stringValue());
   }
 
   /**
-   * If the given blank node is an RDF collection, returns the members of the collection.
+   * If the given blank node is an RDF collection, returns the members of the collection.  The members are looked up
+   * in the {@link CollectionIndex} of the comparison context, if there is one.
    *
    * @param bnode           blank node which is an RDF collection
    * @param collectionClass all collection members must be instances of this class
@@ -91,24 +102,29 @@ public class ComparisonUtils {
       BNode bnode,
       Class<Value> collectionClass,
       ComparisonContext comparisonContext) {
+    CollectionIndex collectionIndex = comparisonContext.getCollectionIndex(collectionClass);
+    if (collectionIndex != null) {
+      return collectionIndex.getCollectionMembers(bnode);
+    }
+
     // An ArrayList is used here, as collection members should be retained in their original order, not sorted.
     List<Value> members = new ArrayList<>();
     if (isCollection(comparisonContext, bnode, collectionClass)) {
-      SortedTurtlePredicateObjectMap poMap = unsortedTripleMap.getSorted(bnode, collectionClass, comparisonContext);
-      SortedTurtleObjectList newMembers = poMap.get(Constants.rdfFirst);
-      if (newMembers != null) {
-        members.addAll(newMembers);
-      }
-      SortedTurtleObjectList rest = poMap.get(Constants.rdfRest);
-      if (rest != null) {
-        for (Value nextRest : rest) {
-          if (nextRest instanceof BNode) {
-            List<Value> newRestMembers = getCollectionMembers(
-                unsortedTripleMap,
-                (BNode) nextRest,
-                collectionClass,
-                comparisonContext);
-            members.addAll(newRestMembers);
+      BNode current = bnode;
+      while (current != null) {
+        SortedTurtlePredicateObjectMap poMap =
+            unsortedTripleMap.getSorted(current, collectionClass, comparisonContext);
+        SortedTurtleObjectList newMembers = poMap.get(Constants.rdfFirst);
+        if (newMembers != null) {
+          members.addAll(newMembers);
+        }
+        current = null;
+        SortedTurtleObjectList rest = poMap.get(Constants.rdfRest);
+        if (rest != null) {
+          for (Value nextRest : rest) {
+            if (nextRest instanceof BNode) {
+              current = (BNode) nextRest;
+            }
           }
         }
       }
@@ -117,7 +133,8 @@ public class ComparisonUtils {
   }
 
   /**
-   * Whether the given blank node represents an RDF collection, or not.
+   * Whether the given blank node represents an RDF collection, or not.  This is looked up in the
+   * {@link CollectionIndex} of the comparison context, if there is one.
    *
    * @param bnode           blank node to test as an RDF collection
    * @param collectionClass all collection members must be instances of this class
@@ -126,6 +143,33 @@ public class ComparisonUtils {
   public static boolean isCollection(ComparisonContext comparisonContext,
       BNode bnode,
       Class<Value> collectionClass) {
+    CollectionIndex collectionIndex = comparisonContext.getCollectionIndex(collectionClass);
+    if (collectionIndex != null) {
+      return collectionIndex.isCollection(bnode);
+    }
+
+    Set<BNode> visited = new HashSet<>();
+    BNode current = bnode;
+    while (visited.add(current)) { // a cycle of rdf:rest values is not an RDF collection
+      Value rest = getCollectionRest(comparisonContext, current, collectionClass);
+      if (Constants.rdfNil.equals(rest)) {
+        return true;
+      }
+      if (!(rest instanceof BNode)) {
+        return false;
+      }
+      current = (BNode) rest;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the rdf:rest value of the given blank node if the blank node itself has the shape of an RDF collection,
+   * or null otherwise.
+   */
+  private static Value getCollectionRest(ComparisonContext comparisonContext,
+      BNode bnode,
+      Class<Value> collectionClass) {
     var unsortedTripleMap = comparisonContext.getUnsortedTripleMap();
     var poMap = unsortedTripleMap.getSorted(bnode, collectionClass, comparisonContext);
     if (poMap != null) {
@@ -143,24 +187,17 @@ public class ComparisonUtils {
         for (Value value : firstValues) {
           // all collection members must match the collection class type
           if (!collectionClass.isInstance(value)) {
-            return false;
+            return null;
           }
         }
         if (restCount >= 1) {
           SortedTurtleObjectList rest = poMap.get(Constants.rdfRest);
           if (rest.size() == 1) {
-            for (Value value : rest) {
-              if (Constants.rdfNil.equals(value)) {
-                return true;
-              }
-              if (value instanceof BNode) {
-                return isCollection(comparisonContext, (BNode) value, collectionClass);
-              }
-            }
+            return rest.first();
           }
         }
       }
     }
-    return false;
+    return null;
   }
-}
\ No newline at end of file
+}
@@ -24,9 +24,7 @@
 package org.edmcouncil.rdf_toolkit.comparator;
 
 import org.eclipse.rdf4j.model.IRI;
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
 
 /**
  * Comparator for Sesame IRI objects.
@@ -35,18 +33,18 @@ public class IRIComparator implements Comparator<IRI> {
 
   @Override
   public int compare(IRI iri1, IRI iri2) {
-    return compare(iri1, iri2, new ArrayList<>());
+    return compare(iri1, iri2, new ComparisonGuard());
   }
 
-  public int compare(IRI iri1, IRI iri2, List<Object> excludedList) {
-    if ((iri1 == null) || excludedList.contains(iri1)) {
-      if ((iri2 == null) || excludedList.contains(iri2)) {
+  public int compare(IRI iri1, IRI iri2, ComparisonGuard guard) {
+    if ((iri1 == null) || guard.contains(iri1)) {
+      if ((iri2 == null) || guard.contains(iri2)) {
         return 0; // two null/excluded IRIs are equal
       } else {
         return -1; // null/excluded IRI comes before non-null/excluded IRI
       }
     } else {
-      if ((iri2 == null) || excludedList.contains(iri2)) {
+      if ((iri2 == null) || guard.contains(iri2)) {
         return 1; // non-null/excluded IRI comes before null/excluded IRI
       } else {
         if (iri1 == iri2) {
@@ -24,9 +24,7 @@
 
 package org.edmcouncil.rdf_toolkit.comparator;
 
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
@@ -60,28 +58,28 @@ public class ResourceComparator implements Comparator<Resource> {
 
   @Override
   public int compare(Resource resource1, Resource resource2) {
-    return compare(resource1, resource2, new ArrayList<>());
+    return compare(resource1, resource2, new ComparisonGuard());
   }
 
-  private int compare(Resource resource1, Resource resource2, List<Object> excludedList) {
+  private int compare(Resource resource1, Resource resource2, ComparisonGuard guard) {
     if (resource1 == resource2) {
       return 0;
     }
 
-    if ((resource1 == null) || excludedList.contains(resource1)) {
-      if ((resource2 == null) || excludedList.contains(resource2)) {
+    if ((resource1 == null) || guard.contains(resource1)) {
+      if ((resource2 == null) || guard.contains(resource2)) {
         return 0; // two null/excluded resources are equal
       } else {
         return -1; // null/excluded resource comes before non-null/excluded resource
       }
     } else {
-      if ((resource2 == null) || excludedList.contains(resource2)) {
+      if ((resource2 == null) || guard.contains(resource2)) {
         return 1; // non-null/excluded resource comes before null/excluded resource
       } else {
         // Order blank nodes so that they come after other values.
         if (resource1 instanceof BNode) {
           if (resource2 instanceof BNode) {
-            int cmp = blankNodeComparator.compare((BNode) resource1, (BNode) resource2, excludedList);
+            int cmp = blankNodeComparator.compare((BNode) resource1, (BNode) resource2, guard);
             if (cmp != 0) {
               return cmp;
             } else {
@@ -97,7 +95,7 @@ public class ResourceComparator implements Comparator<Resource> {
             return -1; // resource1 (which is not a blank node) comes before blank node resource2.
           } else { // compare non-blank-node resources.
             if ((resource1 instanceof IRI) && (resource2 instanceof IRI)) { // compare IRIs
-              return iriComparator.compare((IRI) resource1, (IRI) resource2, excludedList);
+              return iriComparator.compare((IRI) resource1, (IRI) resource2, guard);
             } else {
               return resource1.stringValue().compareTo(resource2.stringValue());
             }
@@ -24,11 +24,9 @@
 
 package org.edmcouncil.rdf_toolkit.comparator;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.List;
 import org.eclipse.rdf4j.model.Value;
 import org.edmcouncil.rdf_toolkit.model.SortedTurtleObjectList;
 
@@ -45,18 +43,18 @@ public class TurtleObjectListComparator implements Comparator<SortedTurtleObject
 
   @Override
   public int compare(SortedTurtleObjectList list1, SortedTurtleObjectList list2) {
-    return compare(list1, list2, new ArrayList<>());
+    return compare(list1, list2, new ComparisonGuard());
   }
 
-  public int compare(Collection<Value> list1, Collection<Value> list2, List<Object> excludedList) {
-    if ((list1 == null) || excludedList.contains(list1)) {
-      if ((list2 == null) || excludedList.contains(list2)) {
+  public int compare(Collection<Value> list1, Collection<Value> list2, ComparisonGuard guard) {
+    if ((list1 == null) || guard.contains(list1)) {
+      if ((list2 == null) || guard.contains(list2)) {
         return 0; // two null/excluded lists are equal
       } else {
         return -1; // null/excluded list comes before non-null/excluded list
       }
     } else {
-      if ((list2 == null) || excludedList.contains(list2)) {
+      if ((list2 == null) || guard.contains(list2)) {
         return 1; // non-null/excluded list comes before null/excluded list
       } else {
         if (list1 == list2) {
@@ -64,7 +62,14 @@ public class TurtleObjectListComparator implements Comparator<SortedTurtleObject
         } else {
           Iterator<Value> iter1 = list1.iterator();
           Iterator<Value> iter2 = list2.iterator();
-          return compare(list1, iter1, list2, iter2, excludedList);
+          int guardDepth = guard.getDepth();
+          guard.push(list1);
+          guard.push(list2);
+          try {
+            return compare(list1, iter1, list2, iter2, guard);
+          } finally {
+            guard.popTo(guardDepth);
+          }
         }
       }
     }
@@ -72,19 +77,17 @@ public class TurtleObjectListComparator implements Comparator<SortedTurtleObject
 
   private int compare(Collection<Value> list1, Iterator<Value> iter1,
                       Collection<Value> list2, Iterator<Value> iter2,
-                      List<Object> excludedList) {
+                      ComparisonGuard guard) {
     if (iter1.hasNext()) {
       if (iter2.hasNext()) {
         var value1 = iter1.next();
         var value2 = iter2.next();
 
-        excludedList.add(list1);
-        excludedList.add(list2);
-        int cmp = valueComparator.compare(value1, value2, excludedList);
+        int cmp = valueComparator.compare(value1, value2, guard);
         if (cmp != 0) {
           return cmp;
         } else { // values are the same, try the next values in the lists
-          return compare(list1, iter1, list2, iter2, excludedList);
+          return compare(list1, iter1, list2, iter2, guard);
         }
       } else { // only iter1 has a next value
         return 1; // list1 comes after list2
@@ -24,10 +24,8 @@
 
 package org.edmcouncil.rdf_toolkit.comparator;
 
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.List;
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Value;
@@ -60,42 +58,47 @@ public class TurtlePredicateObjectMapComparator implements Comparator<SortedTurt
 
   @Override
   public int compare(SortedTurtlePredicateObjectMap map1, SortedTurtlePredicateObjectMap map2) {
-    return compare(map1, map2, new ArrayList<>());
+    return compare(map1, map2, new ComparisonGuard());
   }
 
   public int compare(SortedTurtlePredicateObjectMap map1, SortedTurtlePredicateObjectMap map2,
-      List<Object> excludedList) {
+      ComparisonGuard guard) {
     if (map1 == map2) {
       return 0;
     }
 
-    if ((map1 == null) || excludedList.contains(map1)) {
-      if ((map2 == null) || excludedList.contains(map2)) {
+    if ((map1 == null) || guard.contains(map1)) {
+      if ((map2 == null) || guard.contains(map2)) {
         return 0; // two null/excluded maps are equal
       } else {
         return -1; // null/excluded map comes before non-null/excluded map
       }
     } else {
-      if ((map2 == null) || excludedList.contains(map2)) {
+      if ((map2 == null) || guard.contains(map2)) {
         return 1; // non-null/excluded map comes before null/excluded map
       } else {
         Iterator<IRI> iter1 = map1.sortedKeys().iterator();
         Iterator<IRI> iter2 = map2.sortedKeys().iterator();
-        return compare(map1, iter1, map2, iter2, excludedList);
+        int guardDepth = guard.getDepth();
+        guard.push(map1);
+        guard.push(map2);
+        try {
+          return compare(map1, iter1, map2, iter2, guard);
+        } finally {
+          guard.popTo(guardDepth);
+        }
       }
     }
   }
 
   private int compare(SortedTurtlePredicateObjectMap map1, Iterator<IRI> iter1, SortedTurtlePredicateObjectMap map2,
       Iterator<IRI> iter2,
-      List<Object> excludedList) {
+      ComparisonGuard guard) {
     if (iter1.hasNext()) {
       if (iter2.hasNext()) {
         IRI key1 = iter1.next();
         IRI key2 = iter2.next();
-        excludedList.add(map1);
-        excludedList.add(map2);
-        int cmp = iriComparator.compare(key1, key2, excludedList);
+        int cmp = iriComparator.compare(key1, key2, guard);
         if (cmp != 0) {
           return cmp;
         } else { // predicate keys are the same, so test object values
@@ -121,11 +124,11 @@ public class TurtlePredicateObjectMapComparator implements Comparator<SortedTurt
           if (objectListComparator == null) {
             objectListComparator = new TurtleObjectListComparator(collectionClass, comparisonContext);
           }
-          cmp = objectListComparator.compare(nonBlankValues1, nonBlankValues2, excludedList);
+          cmp = objectListComparator.compare(nonBlankValues1, nonBlankValues2, guard);
           if (cmp != 0) {
             return cmp;
           } else { // values are the same, try the next predicates in the maps
-            return compare(map1, iter1, map2, iter2, excludedList);
+            return compare(map1, iter1, map2, iter2, guard);
           }
         }
       } else { // only iter1 has a next value
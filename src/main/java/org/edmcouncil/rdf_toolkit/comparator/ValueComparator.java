@@ -28,9 +28,7 @@ import static org.edmcouncil.rdf_toolkit.comparator.ComparisonUtils.compareSimpl
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Value;
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
 
 /**
  * Comparator for Sesame Value objects.
@@ -63,39 +61,39 @@ public class ValueComparator implements Comparator<Value> {
 
   @Override
   public int compare(Value value1, Value value2) {
-    return compare(value1, value2, new ArrayList<>());
+    return compare(value1, value2, new ComparisonGuard());
   }
 
-  public int compare(Value value1, Value value2, List<Object> excludedList) {
+  public int compare(Value value1, Value value2, ComparisonGuard guard) {
     if (value1 == value2) {
       return 0;
     }
 
-    if ((value1 == null) || excludedList.contains(value1)) {
-      if ((value2 == null) || excludedList.contains(value2)) {
+    if ((value1 == null) || guard.contains(value1)) {
+      if ((value2 == null) || guard.contains(value2)) {
         return 0; // two null/excluded values are equal
       } else {
         return -1; // null/excluded value comes before non-null/excluded value
       }
     } else {
-      if ((value2 == null) || excludedList.contains(value2)) {
+      if ((value2 == null) || guard.contains(value2)) {
         return 1; // non-null/excluded value comes before null/excluded value
       }
     }
 
-    return compareExistingValues(value1, value2, excludedList);
+    return compareExistingValues(value1, value2, guard);
   }
 
-  public int compareExistingValues(Value value1, Value value2, List<Object> excludedList) {
+  public int compareExistingValues(Value value1, Value value2, ComparisonGuard guard) {
     // We assume here that both blank nodes are non-null/excluded
-    if (value1 == null || value2 == null || excludedList.contains(value1) || excludedList.contains(value2)) {
+    if (value1 == null || value2 == null || guard.contains(value1) || guard.contains(value2)) {
       throw new IllegalStateException("value1 and value2 should not be null or in the excluded list.");
     }
 
     // Order blank nodes so that they come after other values.
     if (value1 instanceof BNode) {
       if (value2 instanceof BNode) {
-        return compareTwoBlankNodes((BNode) value1, (BNode) value2, excludedList);
+        return compareTwoBlankNodes((BNode) value1, (BNode) value2, guard);
       } else {
         return 1; // blank node value1 comes after value2.
       }
@@ -112,11 +110,11 @@ public class ValueComparator implements Comparator<Value> {
     }
   }
 
-  private int compareTwoBlankNodes(BNode value1, BNode value2, List<Object> excludedList) {
+  private int compareTwoBlankNodes(BNode value1, BNode value2, ComparisonGuard guard) {
     if (this.blankNodeComparator == null) {
       this.blankNodeComparator = new BNodeComparator(collectionClass, comparisonContext);
     }
-    int cmp = blankNodeComparator.compare(value1, value2, excludedList);
+    int cmp = blankNodeComparator.compare(value1, value2, guard);
     if (cmp != 0) {
       return cmp;
     } else {
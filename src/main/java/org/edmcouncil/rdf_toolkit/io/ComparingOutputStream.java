@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.io;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Output stream which compares what is written to it with the content of a file, instead of writing to the file.  At
+ * the first byte which differs, or if the file does not exist, writing fails with an {@link IOException}, so that the
+ * rest of the output need not be produced; {@link #isDifferent()} then tells this apart from other failures.  Output
+ * shorter than the file is found to differ when the stream is closed.
+ */
+public class ComparingOutputStream extends OutputStream {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File file;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private InputStream in = null;
+  private long position = 0;
+  private boolean different = false;
+  private boolean closed = false;
+
+  public ComparingOutputStream(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Returns whether the output so far differs from the file.  Once the stream has been closed, this is whether the
+   * whole output differs from the file.
+   */
+  public boolean isDifferent() {
+    return different;
+  }
+
+  private InputStream in() throws IOException {
+    if (in == null) {
+      try {
+        in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+      } catch (FileNotFoundException ex) {
+        different = true;
+        throw ex;
+      }
+    }
+    return in;
+  }
+
+  private IOException difference() {
+    different = true;
+    return new IOException(String.format("Output differs from '%s' at byte %d", file, position));
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (different) {
+      throw difference();
+    }
+    if (in().read() != (b & 0xff)) {
+      throw difference();
+    }
+    position++;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (different) {
+      throw difference();
+    }
+    InputStream input = in();
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      int count = input.read(buffer, 0, Math.min(remaining, buffer.length));
+      if (count < 0) {
+        throw difference();
+      }
+      int mismatch = Arrays.mismatch(buffer, 0, count, b, offset, offset + count);
+      if (mismatch >= 0) {
+        position += mismatch;
+        throw difference();
+      }
+      position += count;
+      offset += count;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (!different && (in().read() >= 0)) {
+        different = true;
+      }
+    } catch (FileNotFoundException ex) {
+      // Even an empty output differs from a missing file, which in() has recorded.
+    } finally {
+      if (in != null) {
+        in.close();
+      }
+    }
+  }
+}
@@ -24,19 +24,41 @@
 
 package org.edmcouncil.rdf_toolkit.io;
 
+import java.io.Closeable;
 import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.List;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Utility class for iterating over directory trees.
+ * <p>
+ * Matches are found lazily, one directory at a time, so that the first matches can be used before the whole tree has
+ * been walked.  Directories whose relative path matches the excluded directory pattern are not descended into.
+ * </p>
  */
 public class DirectoryWalker {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryWalker.class);
+
   private final File rootDir;
   private final Pattern relativePathPattern;
+  private final Pattern excludedDirectoryPattern;
 
   public static class DirectoryWalkerResult {
     private final File file;
@@ -60,8 +82,17 @@ public class DirectoryWalker {
    * Constructor that takes a root directory and a relative file path pattern.
    */
   public DirectoryWalker(File rootDir, Pattern relativePathPattern) {
+    this(rootDir, relativePathPattern, null);
+  }
+
+  /**
+   * Constructor that takes a root directory, a relative file path pattern, and a relative directory path pattern for
+   * the directories to skip (or null to skip none).
+   */
+  public DirectoryWalker(File rootDir, Pattern relativePathPattern, Pattern excludedDirectoryPattern) {
     this.rootDir = rootDir;
     this.relativePathPattern = relativePathPattern;
+    this.excludedDirectoryPattern = excludedDirectoryPattern;
     if (!rootDir.exists()) {
       throw new IllegalArgumentException(String.format("directory does not exist: %s", rootDir.getAbsolutePath()));
     }
@@ -77,35 +108,122 @@ public class DirectoryWalker {
    * Returns all file matches for the directory walker.
    */
   public Collection<DirectoryWalkerResult> pathMatches() {
-    return pathMatches(rootDir);
+    try (Stream<DirectoryWalkerResult> matches = streamMatches()) {
+      return matches.collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Returns the file matches for the directory walker as they are found.  The stream should be closed, to close the
+   * directories still open if it is not read to the end.
+   */
+  public Stream<DirectoryWalkerResult> streamMatches() {
+    var matchIterator = new MatchIterator();
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(matchIterator, Spliterator.ORDERED | Spliterator.NONNULL),
+        false)
+        .onClose(matchIterator::close);
   }
 
   /**
-   * Returns all file matches for the directory walker, starting at a particular directory.
+   * Walks the directory tree depth-first, with a stack of the directories being read.
    */
-  private Collection<DirectoryWalkerResult> pathMatches(File startDir) {
-    if (startDir == null) {
-      throw new IllegalStateException("startDir cannot be bull.");
-    }
-
-    List<DirectoryWalkerResult> matches = new ArrayList<>();
-
-    var rootPath = rootDir.toPath();
-    var files = startDir.listFiles();
-    if (files != null) {
-      for (File child : files) {
-        if (child.isDirectory()) {
-          matches.addAll(pathMatches(child));
-        } else {
-          var childPath = child.toPath();
-          var relativePath = rootPath.relativize(childPath).toString();
-          var relativePathMatcher = relativePathPattern.matcher(relativePath);
-          if (relativePathMatcher.matches()) {
-            matches.add(new DirectoryWalkerResult(child, relativePath));
+  private class MatchIterator implements Iterator<DirectoryWalkerResult>, Closeable {
+
+    private final Deque<OpenDirectory> openDirectories = new ArrayDeque<>();
+    private DirectoryWalkerResult nextMatch = null;
+
+    MatchIterator() {
+      open(rootDir.toPath(), null);
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextMatch == null) {
+        nextMatch = findNextMatch();
+      }
+      return nextMatch != null;
+    }
+
+    @Override
+    public DirectoryWalkerResult next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      DirectoryWalkerResult match = nextMatch;
+      nextMatch = null;
+      return match;
+    }
+
+    private DirectoryWalkerResult findNextMatch() {
+      while (!openDirectories.isEmpty()) {
+        OpenDirectory directory = openDirectories.peek();
+        Path child = directory.nextChild();
+        if (child == null) {
+          openDirectories.pop().close();
+          continue;
+        }
+        Path relativePath = directory.relativePath == null
+            ? child.getFileName()
+            : directory.relativePath.resolve(child.getFileName());
+        String relativePathString = relativePath.toString();
+        if (Files.isDirectory(child)) {
+          if ((excludedDirectoryPattern == null) || !excludedDirectoryPattern.matcher(relativePathString).matches()) {
+            open(child, relativePath);
           }
+        } else if (relativePathPattern.matcher(relativePathString).matches()) {
+          return new DirectoryWalkerResult(child.toFile(), relativePathString);
         }
       }
+      return null;
+    }
+
+    private void open(Path directory, Path relativePath) {
+      try {
+        openDirectories.push(new OpenDirectory(Files.newDirectoryStream(directory), relativePath));
+      } catch (IOException ex) {
+        LOGGER.warn("Unable to read directory: {}: {}", directory, ex.getMessage());
+      }
+    }
+
+    @Override
+    public void close() {
+      while (!openDirectories.isEmpty()) {
+        openDirectories.pop().close();
+      }
+    }
+  }
+
+  private static class OpenDirectory {
+
+    private final DirectoryStream<Path> children;
+    private final Iterator<Path> childIterator;
+    private final Path relativePath; // null for the root directory
+
+    OpenDirectory(DirectoryStream<Path> children, Path relativePath) {
+      this.children = children;
+      this.childIterator = children.iterator();
+      this.relativePath = relativePath;
+    }
+
+    /**
+     * Returns the next child, or null if there are no more children, or they cannot be read.
+     */
+    Path nextChild() {
+      try {
+        return childIterator.hasNext() ? childIterator.next() : null;
+      } catch (DirectoryIteratorException ex) {
+        LOGGER.warn("Unable to read directory: {}", ex.getCause().getMessage());
+        return null;
+      }
+    }
+
+    void close() {
+      try {
+        children.close();
+      } catch (IOException ex) {
+        LOGGER.warn("Unable to close directory: {}", ex.getMessage());
+      }
     }
-    return matches;
   }
 }
@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.io;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.edmcouncil.rdf_toolkit.model.TermDictionary;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+/**
+ * A value factory which returns one shared instance for all equal IRIs, blank nodes and short literals, taken from a
+ * {@link TermDictionary}, so that terms which are repeated throughout an ontology (rdf:type, owl:Class, rdfs:label,
+ * datatypes) are only held once, and equal terms can be compared by identity.  Language tags are shared in the same
+ * way.  Long literals are rarely repeated, so they are created without being added to the dictionary.  New blank
+ * nodes are numbered per factory, so the output does not depend on how many blank nodes were created before.
+ * Values are created by {@link SimpleValueFactory}; literals of Java values and statements are not interned.
+ * <p>
+ * The dictionary holds on to every term it has returned, so a new factory should be used for each input.  Not
+ * thread-safe.
+ * </p>
+ */
+public class InterningValueFactory implements ValueFactory {
+
+  /** Literals with longer labels are not interned. */
+  public static final int MAX_INTERNED_LITERAL_LENGTH = 64;
+
+  private static final AtomicLong FACTORY_COUNT = new AtomicLong();
+  private static final int BLANK_NODE_NUMBER_WIDTH = 12;
+
+  private final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+  private final TermDictionary dictionary;
+  private final Map<String, String> languageTags = new HashMap<>();
+  private final String blankNodeIdPrefix =
+      "node" + Long.toString(System.currentTimeMillis(), 32) + "f" + FACTORY_COUNT.incrementAndGet() + "x";
+  private long blankNodeCount = 0;
+
+  public InterningValueFactory() {
+    this(new TermDictionary());
+  }
+
+  public InterningValueFactory(TermDictionary dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  public TermDictionary getDictionary() {
+    return dictionary;
+  }
+
+  @Override
+  public IRI createIRI(String iri) {
+    return dictionary.intern(valueFactory.createIRI(iri));
+  }
+
+  @Override
+  public IRI createIRI(String namespace, String localName) {
+    return dictionary.intern(valueFactory.createIRI(namespace, localName));
+  }
+
+  /**
+   * Creates a new blank node.  The blank nodes are numbered with a fixed width, so that their identifiers sort in the
+   * order in which they were created, which is the order used for blank nodes that cannot be told apart otherwise.
+   */
+  @Override
+  public BNode createBNode() {
+    String number = Long.toString(++blankNodeCount);
+    var nodeId = new StringBuilder(blankNodeIdPrefix);
+    for (int index = number.length(); index < BLANK_NODE_NUMBER_WIDTH; index++) {
+      nodeId.append('0');
+    }
+    return valueFactory.createBNode(nodeId.append(number).toString()); // new, so there is nothing to share
+  }
+
+  @Override
+  public BNode createBNode(String nodeId) {
+    return dictionary.intern(valueFactory.createBNode(nodeId));
+  }
+
+  @Override
+  public Literal createLiteral(String label) {
+    return intern(valueFactory.createLiteral(label));
+  }
+
+  @Override
+  public Literal createLiteral(String label, IRI datatype) {
+    return intern(valueFactory.createLiteral(label, datatype == null ? null : dictionary.intern(datatype)));
+  }
+
+  @Override
+  public Literal createLiteral(String label, String language) {
+    String sharedLanguage = language == null ? null : languageTags.computeIfAbsent(language, tag -> tag);
+    return intern(valueFactory.createLiteral(label, sharedLanguage));
+  }
+
+  @Override
+  public Literal createLiteral(boolean value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(byte value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(short value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(int value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(long value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(float value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(double value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(BigDecimal value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(BigInteger value) {
+    return valueFactory.createLiteral(value);
+  }
+
+  @Override
+  public Literal createLiteral(XMLGregorianCalendar calendar) {
+    return valueFactory.createLiteral(calendar);
+  }
+
+  @Override
+  public Literal createLiteral(Date date) {
+    return valueFactory.createLiteral(date);
+  }
+
+  @Override
+  public Statement createStatement(Resource subject, IRI predicate, Value object) {
+    return valueFactory.createStatement(subject, predicate, object);
+  }
+
+  @Override
+  public Statement createStatement(Resource subject, IRI predicate, Value object, Resource context) {
+    return valueFactory.createStatement(subject, predicate, object, context);
+  }
+
+  private Literal intern(Literal literal) {
+    if (literal.getLabel().length() > MAX_INTERNED_LITERAL_LENGTH) {
+      return literal;
+    }
+    Literal sharedLiteral = dictionary.intern(literal);
+    // Literals are equal if their language tags only differ in case, but the case of the tag is written out as is.
+    return sharedLiteral.getLanguage().equals(literal.getLanguage()) ? sharedLiteral : literal;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.io;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.edmcouncil.rdf_toolkit.util.Constants;
+import org.edmcouncil.rdf_toolkit.util.IriRewriter;
+
+/**
+ * RDF handler which sits between a parser and a writer, and applies the changes the formatter makes to its input while
+ * the statements are being parsed, so that the input does not have to be collected in a model first.
+ * <p>
+ * The changes made are:
+ * </p>
+ * <ul>
+ *   <li>the second part of a language tag is converted to uppercase, unless it is 'x';</li>
+ *   <li>every IRI and namespace is rewritten by the IRI rewriter, if it has any rules;</li>
+ *   <li>if an ontology IRI consumer is given, the lexicographically first IRI which is an owl:Ontology is passed to it
+ *   before the end of the RDF data is signalled to the wrapped handler.</li>
+ * </ul>
+ * <p>
+ * Like a parser collecting into a model, only the first namespace reported for a prefix is kept.
+ * </p>
+ */
+public class NormalizingRdfHandler implements RDFHandler {
+
+  private final RDFHandler handler;
+  private final ValueFactory valueFactory;
+  private final IriRewriter iriRewriter;
+  private final Consumer<IRI> ontologyIriConsumer;
+
+  private final Set<String> prefixes = new HashSet<>();
+  private IRI ontologyIri = null;
+
+  /**
+   * @param handler             the handler the changed statements are passed on to
+   * @param valueFactory        the value factory to create changed values with
+   * @param iriRewriter         rewrites the IRIs, or null for no rewriting
+   * @param ontologyIriConsumer receives the first ontology IRI, if any, or null if not needed
+   */
+  public NormalizingRdfHandler(RDFHandler handler, ValueFactory valueFactory, IriRewriter iriRewriter,
+      Consumer<IRI> ontologyIriConsumer) {
+    this.handler = handler;
+    this.valueFactory = valueFactory;
+    this.iriRewriter = ((iriRewriter != null) && iriRewriter.hasRules()) ? iriRewriter : null;
+    this.ontologyIriConsumer = ontologyIriConsumer;
+  }
+
+  @Override
+  public void startRDF() throws RDFHandlerException {
+    prefixes.clear();
+    ontologyIri = null;
+    handler.startRDF();
+  }
+
+  @Override
+  public void endRDF() throws RDFHandlerException {
+    if ((ontologyIriConsumer != null) && (ontologyIri != null)) {
+      ontologyIriConsumer.accept(ontologyIri);
+    }
+    handler.endRDF();
+  }
+
+  @Override
+  public void handleNamespace(String prefix, String uri) throws RDFHandlerException {
+    if (prefixes.add(prefix)) {
+      handler.handleNamespace(prefix, replaceIri(uri));
+    }
+  }
+
+  @Override
+  public void handleStatement(Statement st) throws RDFHandlerException {
+    Resource subject = st.getSubject();
+    IRI predicate = st.getPredicate();
+    Value object = st.getObject();
+
+    Value replacedObject = object;
+    if (object instanceof Literal) {
+      replacedObject = secondPartOfLangToUpperCaseIfNotX((Literal) object);
+    }
+    Resource replacedSubject = subject;
+    IRI replacedPredicate = predicate;
+    if (iriRewriter != null) {
+      if (subject instanceof IRI) {
+        replacedSubject = replaceIri((IRI) subject);
+      }
+      replacedPredicate = replaceIri(predicate);
+      if (object instanceof IRI) {
+        replacedObject = replaceIri((IRI) object);
+      }
+    }
+
+    if ((ontologyIriConsumer != null)
+        && Constants.RDF_TYPE.equals(replacedPredicate)
+        && Constants.owlOntology.equals(replacedObject)
+        && (replacedSubject instanceof IRI)
+        && ((ontologyIri == null) || (replacedSubject.toString().compareTo(ontologyIri.toString()) < 0))) {
+      ontologyIri = (IRI) replacedSubject;
+    }
+
+    if ((replacedSubject == subject) && (replacedPredicate == predicate) && (replacedObject == object)) {
+      handler.handleStatement(st);
+    } else {
+      handler.handleStatement(valueFactory.createStatement(replacedSubject, replacedPredicate, replacedObject));
+    }
+  }
+
+  @Override
+  public void handleComment(String comment) throws RDFHandlerException {
+    handler.handleComment(comment);
+  }
+
+  private String replaceIri(String iri) {
+    return iriRewriter == null ? iri : iriRewriter.rewrite(iri);
+  }
+
+  private IRI replaceIri(IRI iri) {
+    String iriString = iri.stringValue();
+    String replacedIriString = iriRewriter.rewrite(iriString);
+    return replacedIriString == iriString ? iri : valueFactory.createIRI(replacedIriString);
+  }
+
+  private Literal secondPartOfLangToUpperCaseIfNotX(Literal literal) {
+    Optional<String> lang = literal.getLanguage();
+    if (lang.isPresent() && lang.get().contains("-")) {
+      String[] langTab = lang.get().split("-");
+      // Convert the second part of the language string to uppercase, except if the entire second part is 'x'
+      if (!langTab[1].equals("x")) { langTab[1] = langTab[1].toUpperCase(); }
+      return valueFactory.createLiteral(literal.getLabel(), String.join("-", langTab));
+    }
+    return literal;
+  }
+}
@@ -32,7 +32,6 @@ import org.eclipse.rdf4j.rio.helpers.ContextStatementCollector;
 import org.eclipse.rdf4j.rio.jsonld.JSONLDParser;
 import org.eclipse.rdf4j.rio.rdfxml.RDFXMLParser;
 import org.eclipse.rdf4j.rio.turtle.TurtleParser;
-import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -42,7 +41,7 @@ public class RdfModelReader {
   private final ValueFactory valueFactory;
 
   public RdfModelReader(RDFFormat rdfFormat) {
-    this.valueFactory = new MemValueFactory();
+    this.valueFactory = new InterningValueFactory();
 
     switch (rdfFormat.getName()) {
       case "RDF/XML":
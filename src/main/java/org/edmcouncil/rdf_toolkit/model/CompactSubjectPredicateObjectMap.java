@@ -0,0 +1,407 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.model;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.edmcouncil.rdf_toolkit.comparator.ComparisonContext;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A read-only view of a {@link CompactTripleStore} as an unsorted map from subjects to predicate/object maps, so that
+ * the comparators and writers can read from the compact store.  Predicate/object maps are built on every lookup and
+ * not kept, except for the sorted views of blank nodes, which are compared over and over again while sorting.  Every
+ * method which would change the map throws an {@link UnsupportedOperationException}, as the {@link java.util.HashMap}
+ * underneath is not used.
+ */
+public class CompactSubjectPredicateObjectMap extends UnsortedTurtleSubjectPredicateObjectMap {
+
+  private static final String ADD_TRIPLES = "triples must be added to the compact triple store";
+  private static final String REMOVE_TRIPLES = "triples cannot be removed from the compact triple store";
+  private static final String READ_ONLY = "the sorted view of the compact triple store is read-only";
+
+  private final transient CompactTripleStore store;
+
+  public CompactSubjectPredicateObjectMap(CompactTripleStore store) {
+    this.store = store;
+  }
+
+  public CompactTripleStore getStore() {
+    return store;
+  }
+
+  @Override
+  public int size() {
+    return store.getSubjectCount();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object subject) {
+    return store.containsSubject(subject);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap get(Object subject) {
+    return store.getPredicateObjectMap(subject);
+  }
+
+  @Override
+  public Set<Resource> keySet() {
+    return store.subjects();
+  }
+
+  @Override
+  public Collection<UnsortedTurtlePredicateObjectMap> values() {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<UnsortedTurtlePredicateObjectMap> iterator() {
+        Iterator<Resource> subjects = store.subjects().iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return subjects.hasNext();
+          }
+
+          @Override
+          public UnsortedTurtlePredicateObjectMap next() {
+            return get(subjects.next());
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return CompactSubjectPredicateObjectMap.this.size();
+      }
+    };
+  }
+
+  @Override
+  public Set<Map.Entry<Resource, UnsortedTurtlePredicateObjectMap>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<Resource, UnsortedTurtlePredicateObjectMap>> iterator() {
+        Iterator<Resource> subjects = store.subjects().iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return subjects.hasNext();
+          }
+
+          @Override
+          public Map.Entry<Resource, UnsortedTurtlePredicateObjectMap> next() {
+            Resource subject = subjects.next();
+            return new AbstractMap.SimpleImmutableEntry<>(subject, get(subject));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return CompactSubjectPredicateObjectMap.this.size();
+      }
+    };
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap put(Resource subject, UnsortedTurtlePredicateObjectMap poMap) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public void putAll(Map<? extends Resource, ? extends UnsortedTurtlePredicateObjectMap> map) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap putIfAbsent(Resource subject, UnsortedTurtlePredicateObjectMap poMap) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap replace(Resource subject, UnsortedTurtlePredicateObjectMap poMap) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public boolean replace(
+      Resource subject, UnsortedTurtlePredicateObjectMap oldPoMap, UnsortedTurtlePredicateObjectMap newPoMap) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public void replaceAll(
+      BiFunction<? super Resource, ? super UnsortedTurtlePredicateObjectMap,
+      ? extends UnsortedTurtlePredicateObjectMap> function) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap computeIfAbsent(
+      Resource subject, Function<? super Resource, ? extends UnsortedTurtlePredicateObjectMap> mappingFunction) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap computeIfPresent(Resource subject,
+      BiFunction<? super Resource, ? super UnsortedTurtlePredicateObjectMap, ? extends UnsortedTurtlePredicateObjectMap>
+          remappingFunction) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap compute(Resource subject,
+      BiFunction<? super Resource, ? super UnsortedTurtlePredicateObjectMap, ? extends UnsortedTurtlePredicateObjectMap>
+          remappingFunction) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap merge(Resource subject, UnsortedTurtlePredicateObjectMap poMap,
+      BiFunction<? super UnsortedTurtlePredicateObjectMap, ? super UnsortedTurtlePredicateObjectMap,
+      ? extends UnsortedTurtlePredicateObjectMap>
+          remappingFunction) {
+    throw new UnsupportedOperationException(ADD_TRIPLES);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap remove(Object subject) {
+    throw new UnsupportedOperationException(REMOVE_TRIPLES);
+  }
+
+  @Override
+  public boolean remove(Object subject, Object poMap) {
+    throw new UnsupportedOperationException(REMOVE_TRIPLES);
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException(REMOVE_TRIPLES);
+  }
+
+  @Override
+  public SortedTurtlePredicateObjectMap getSorted(Resource subject, Class<Value> collectionClass,
+      ComparisonContext comparisonContext) {
+    if (subject instanceof BNode) {
+      return super.getSorted(subject, collectionClass, comparisonContext);
+    }
+    UnsortedTurtlePredicateObjectMap poMap = get(subject);
+    return poMap == null ? null : poMap.toSorted(collectionClass, comparisonContext);
+  }
+
+  /**
+   * Returns a read-only sorted map of the subjects, whose predicate/object maps are only sorted when they are looked
+   * up, also through {@link Map#values()} and {@link Map#entrySet()}.
+   */
+  @Override
+  public SortedTurtleSubjectPredicateObjectMap toSorted(Class<Value> collectionClass,
+      ComparisonContext comparisonContext) {
+    return new LazySortedSubjectPredicateObjectMap(this, collectionClass, comparisonContext);
+  }
+
+  @Override
+  public int fullSize() {
+    return store.size();
+  }
+
+  @Override
+  public boolean checkValid() {
+    return true;
+  }
+
+  private static class LazySortedSubjectPredicateObjectMap extends SortedTurtleSubjectPredicateObjectMap {
+
+    private final transient CompactSubjectPredicateObjectMap source;
+    private final transient Class<Value> collectionClass;
+    private final transient ComparisonContext comparisonContext;
+
+    private LazySortedSubjectPredicateObjectMap(CompactSubjectPredicateObjectMap source,
+        Class<Value> collectionClass, ComparisonContext comparisonContext) {
+      super(collectionClass, comparisonContext);
+      this.source = source;
+      this.collectionClass = collectionClass;
+      this.comparisonContext = comparisonContext;
+      for (Resource subject : source.keySet()) {
+        super.put(subject, null); // the keys are needed for sorting, the values are built on demand
+      }
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap get(Object subject) {
+      if (!containsKey(subject)) {
+        return null;
+      }
+      return source.getSorted((Resource) subject, collectionClass, comparisonContext);
+    }
+
+    @Override
+    public Collection<SortedTurtlePredicateObjectMap> values() {
+      return new AbstractCollection<>() {
+        @Override
+        public Iterator<SortedTurtlePredicateObjectMap> iterator() {
+          Iterator<Resource> subjects = keySet().iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return subjects.hasNext();
+            }
+
+            @Override
+            public SortedTurtlePredicateObjectMap next() {
+              return get(subjects.next());
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return LazySortedSubjectPredicateObjectMap.this.size();
+        }
+      };
+    }
+
+    @Override
+    public Set<Map.Entry<Resource, SortedTurtlePredicateObjectMap>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Map.Entry<Resource, SortedTurtlePredicateObjectMap>> iterator() {
+          Iterator<Resource> subjects = keySet().iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return subjects.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Resource, SortedTurtlePredicateObjectMap> next() {
+              Resource subject = subjects.next();
+              return new AbstractMap.SimpleImmutableEntry<>(subject, get(subject));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return LazySortedSubjectPredicateObjectMap.this.size();
+        }
+      };
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap put(Resource subject, SortedTurtlePredicateObjectMap poMap) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void putAll(Map<? extends Resource, ? extends SortedTurtlePredicateObjectMap> map) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap putIfAbsent(Resource subject, SortedTurtlePredicateObjectMap poMap) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap replace(Resource subject, SortedTurtlePredicateObjectMap poMap) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public boolean replace(
+        Resource subject, SortedTurtlePredicateObjectMap oldPoMap, SortedTurtlePredicateObjectMap newPoMap) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void replaceAll(
+        BiFunction<? super Resource, ? super SortedTurtlePredicateObjectMap,
+        ? extends SortedTurtlePredicateObjectMap> function) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap computeIfAbsent(
+        Resource subject, Function<? super Resource, ? extends SortedTurtlePredicateObjectMap> mappingFunction) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap computeIfPresent(Resource subject,
+        BiFunction<? super Resource, ? super SortedTurtlePredicateObjectMap, ? extends SortedTurtlePredicateObjectMap>
+          remappingFunction) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap compute(Resource subject,
+        BiFunction<? super Resource, ? super SortedTurtlePredicateObjectMap, ? extends SortedTurtlePredicateObjectMap>
+          remappingFunction) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap merge(Resource subject, SortedTurtlePredicateObjectMap poMap,
+        BiFunction<? super SortedTurtlePredicateObjectMap, ? super SortedTurtlePredicateObjectMap,
+        ? extends SortedTurtlePredicateObjectMap>
+          remappingFunction) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public SortedTurtlePredicateObjectMap remove(Object subject) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public boolean remove(Object subject, Object poMap) {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void clear() {
+      throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public int fullSize() {
+      return source.fullSize();
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.model;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact in-memory store of triples.  Every distinct RDF term is given an integer ID by a {@link TermDictionary},
+ * and the triples are kept as three parallel int arrays (subject, predicate and object IDs), which are sorted into
+ * subject/predicate/object order and deduplicated once all triples have been added.  This needs a small fraction of
+ * the memory of the nested {@link UnsortedTurtleSubjectPredicateObjectMap}, at the cost of building a subject's
+ * predicate/object map on every lookup.
+ */
+public class CompactTripleStore {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final TermDictionary dictionary;
+
+  private int[] subjects = new int[INITIAL_CAPACITY];
+  private int[] predicates = new int[INITIAL_CAPACITY];
+  private int[] objects = new int[INITIAL_CAPACITY];
+  private int tripleCount = 0;
+
+  /** Start of the triples of each subject ID, indexed by term ID; null until the store has been sorted. */
+  private int[] subjectStarts = null;
+  private int subjectCount = 0;
+
+  public CompactTripleStore() {
+    this(new TermDictionary());
+  }
+
+  /**
+   * Creates a store that gives its terms the IDs of the given dictionary, which may be shared with other users.
+   */
+  public CompactTripleStore(TermDictionary dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  public TermDictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Adds a triple.  Duplicate triples are removed when the store is next read.
+   */
+  public void add(Resource subject, IRI predicate, Value object) {
+    if (tripleCount == subjects.length) {
+      int capacity = tripleCount * 2;
+      subjects = Arrays.copyOf(subjects, capacity);
+      predicates = Arrays.copyOf(predicates, capacity);
+      objects = Arrays.copyOf(objects, capacity);
+    }
+    subjects[tripleCount] = dictionary.add(subject);
+    predicates[tripleCount] = dictionary.add(predicate);
+    objects[tripleCount] = dictionary.add(object);
+    tripleCount++;
+    subjectStarts = null;
+  }
+
+  /**
+   * Sorts the triples by subject ID (with a counting sort) and then by predicate and object ID within each subject,
+   * removes duplicate triples and trims the arrays to their final size.
+   */
+  private void sort() {
+    if (subjectStarts != null) {
+      return;
+    }
+
+    int termCount = dictionary.size();
+    int[] starts = new int[termCount + 1];
+    for (int index = 0; index < tripleCount; index++) {
+      starts[subjects[index] + 1]++;
+    }
+    for (int id = 0; id < termCount; id++) {
+      starts[id + 1] += starts[id];
+    }
+
+    // Pack the predicate and object IDs of each triple into one long, grouped by subject.
+    long[] predicateObjects = new long[tripleCount];
+    int[] next = Arrays.copyOf(starts, termCount);
+    for (int index = 0; index < tripleCount; index++) {
+      predicateObjects[next[subjects[index]]++] = ((long) predicates[index] << 32) | objects[index];
+    }
+
+    int count = 0;
+    subjectCount = 0;
+    for (int id = 0; id < termCount; id++) {
+      int from = starts[id];
+      int to = starts[id + 1];
+      starts[id] = count;
+      if (from == to) {
+        continue;
+      }
+      subjectCount++;
+      Arrays.sort(predicateObjects, from, to);
+      for (int index = from; index < to; index++) {
+        if ((index > from) && (predicateObjects[index] == predicateObjects[index - 1])) {
+          continue; // duplicate triple
+        }
+        subjects[count] = id;
+        predicates[count] = (int) (predicateObjects[index] >>> 32);
+        objects[count] = (int) predicateObjects[index];
+        count++;
+      }
+    }
+    starts[termCount] = count;
+
+    tripleCount = count;
+    subjects = Arrays.copyOf(subjects, count);
+    predicates = Arrays.copyOf(predicates, count);
+    objects = Arrays.copyOf(objects, count);
+    subjectStarts = starts;
+  }
+
+  /**
+   * Returns the number of distinct triples.
+   */
+  public int size() {
+    sort();
+    return tripleCount;
+  }
+
+  /**
+   * Returns the number of distinct subjects.
+   */
+  public int getSubjectCount() {
+    sort();
+    return subjectCount;
+  }
+
+  public boolean containsSubject(Object subject) {
+    int id = dictionary.getId(subject);
+    if (id == TermDictionary.ABSENT_ID) {
+      return false;
+    }
+    sort();
+    return (id < subjectStarts.length - 1) && (subjectStarts[id] < subjectStarts[id + 1]);
+  }
+
+  /**
+   * Builds the predicate/object map of the given subject, or returns null if the subject has no triples.  The map is
+   * not kept by the store, so changing it does not change the store.
+   */
+  public UnsortedTurtlePredicateObjectMap getPredicateObjectMap(Object subject) {
+    int id = dictionary.getId(subject);
+    if (id == TermDictionary.ABSENT_ID) {
+      return null;
+    }
+    sort();
+    if (id >= subjectStarts.length - 1) {
+      return null; // added to a shared dictionary after this store was sorted
+    }
+    int from = subjectStarts[id];
+    int to = subjectStarts[id + 1];
+    if (from == to) {
+      return null;
+    }
+
+    var poMap = new UnsortedTurtlePredicateObjectMap();
+    UnsortedTurtleObjectList oList = null;
+    for (int index = from; index < to; index++) {
+      if ((index == from) || (predicates[index] != predicates[index - 1])) {
+        oList = new UnsortedTurtleObjectList();
+        poMap.put((IRI) dictionary.getTerm(predicates[index]), oList);
+      }
+      oList.add(dictionary.getTerm(objects[index]));
+    }
+    return poMap;
+  }
+
+  /**
+   * Returns a read-only view of the distinct subjects.
+   */
+  public Set<Resource> subjects() {
+    sort();
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Resource> iterator() {
+        sort();
+        return new Iterator<>() {
+          private int nextId = findSubject(0);
+
+          @Override
+          public boolean hasNext() {
+            return nextId < subjectStarts.length - 1;
+          }
+
+          @Override
+          public Resource next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Resource subject = (Resource) dictionary.getTerm(nextId);
+            nextId = findSubject(nextId + 1);
+            return subject;
+          }
+        };
+      }
+
+      @Override
+      public boolean contains(Object subject) {
+        return containsSubject(subject);
+      }
+
+      @Override
+      public int size() {
+        return getSubjectCount();
+      }
+    };
+  }
+
+  private int findSubject(int fromId) {
+    int id = fromId;
+    int termCount = subjectStarts.length - 1;
+    while ((id < termCount) && (subjectStarts[id] == subjectStarts[id + 1])) {
+      id++;
+    }
+    return id;
+  }
+}
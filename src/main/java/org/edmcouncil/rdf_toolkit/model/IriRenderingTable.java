@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.model;
+
+import org.eclipse.rdf4j.model.IRI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import javax.xml.namespace.QName;
+
+/**
+ * Remembers how IRIs are rendered by a writer, as the same IRIs are rendered over and over again: the QName of each
+ * IRI, with or without generated namespace prefixes, and the rendered string for each combination of generated prefixes
+ * and Turtle quoting.  The renderings depend on the namespace prefixes and the base IRI, so the table must be cleared
+ * whenever these change.  Not thread-safe.
+ */
+public class IriRenderingTable {
+
+  /** Stands for IRIs which have no QName, as null values cannot be told apart from missing ones. */
+  private static final QName NO_QNAME = new QName("");
+
+  @SuppressWarnings("unchecked")
+  private final Map<IRI, QName>[] qnames = new Map[2];
+  @SuppressWarnings("unchecked")
+  private final Map<IRI, String>[] renderings = new Map[4];
+
+  public IriRenderingTable() {
+    for (int index = 0; index < qnames.length; index++) {
+      qnames[index] = new HashMap<>();
+    }
+    for (int index = 0; index < renderings.length; index++) {
+      renderings[index] = new HashMap<>();
+    }
+  }
+
+  /**
+   * Returns the QName of the IRI, converting it the first time the IRI is looked up.
+   *
+   * @param converter converts an IRI to its QName, or null if it has none
+   */
+  public QName getQName(IRI iri, boolean useGeneratedPrefixes, Function<IRI, QName> converter) {
+    Map<IRI, QName> iriQNames = qnames[useGeneratedPrefixes ? 1 : 0];
+    QName qname = iriQNames.get(iri);
+    if (qname == null) {
+      qname = converter.apply(iri);
+      iriQNames.put(iri, qname == null ? NO_QNAME : qname);
+    }
+    return qname == NO_QNAME ? null : qname;
+  }
+
+  /**
+   * Returns the rendered string of the IRI, or null if it has not been rendered yet.
+   */
+  public String getRendering(IRI iri, boolean useGeneratedPrefixes, boolean useTurtleQuoting) {
+    return renderings[renderingIndex(useGeneratedPrefixes, useTurtleQuoting)].get(iri);
+  }
+
+  public void putRendering(IRI iri, boolean useGeneratedPrefixes, boolean useTurtleQuoting, String rendering) {
+    renderings[renderingIndex(useGeneratedPrefixes, useTurtleQuoting)].put(iri, rendering);
+  }
+
+  /**
+   * Forgets all renderings, for when the namespace prefixes or the base IRI change.
+   */
+  public void clear() {
+    for (Map<IRI, QName> iriQNames : qnames) {
+      iriQNames.clear();
+    }
+    for (Map<IRI, String> iriRenderings : renderings) {
+      iriRenderings.clear();
+    }
+  }
+
+  /**
+   * Returns the number of IRIs with a remembered QName or rendering, counting each IRI once for each.
+   */
+  public int size() {
+    int size = 0;
+    for (Map<IRI, QName> iriQNames : qnames) {
+      size += iriQNames.size();
+    }
+    for (Map<IRI, String> iriRenderings : renderings) {
+      size += iriRenderings.size();
+    }
+    return size;
+  }
+
+  private static int renderingIndex(boolean useGeneratedPrefixes, boolean useTurtleQuoting) {
+    return (useGeneratedPrefixes ? 2 : 0) + (useTurtleQuoting ? 1 : 0);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The namespace prefixes of a document.  Key is prefix string, value is namespace IRI string.
+ * <p>
+ * The registry keeps track of the prefixes of each namespace IRI, so that whether a namespace IRI has a prefix is known
+ * without scanning the prefixes, and keeps a {@link ReverseNamespaceTable} in step with the prefixes.  As when the
+ * reverse table is built from the prefixes in order, a namespace IRI with several prefixes is mapped to the last of
+ * them.  The registry must only be changed through {@link #put(String, String)}, {@link #putAll(Map)},
+ * {@link #remove(Object)} and {@link #clear()}, not through its views.  Not thread-safe.
+ * </p>
+ */
+public class NamespaceRegistry extends TreeMap<String, String> {
+
+  /** The start of the prefixes generated for namespace IRIs without one. */
+  public static final String GENERATED_PREFIX_STEM = "zzzns";
+
+  private final Map<String, TreeSet<String>> prefixesByNamespace = new HashMap<>();
+  private final ReverseNamespaceTable reverseNamespaceTable = new ReverseNamespaceTable();
+  private final Map<String, String> generatedNamespaces = new TreeMap<>();
+  private int generatedPrefixCount = 0;
+
+  /**
+   * Returns whether the namespace IRI has a prefix.
+   */
+  public boolean containsNamespace(String namespaceIri) {
+    return prefixesByNamespace.containsKey(namespaceIri);
+  }
+
+  @Override
+  public boolean containsValue(Object namespaceIri) {
+    return prefixesByNamespace.containsKey(namespaceIri);
+  }
+
+  /**
+   * Adds the prefix for the namespace IRI, unless the namespace IRI already has a prefix.
+   */
+  public void putIfNamespaceMissing(String prefix, String namespaceIri) {
+    if (!containsNamespace(namespaceIri)) {
+      put(prefix, namespaceIri);
+    }
+  }
+
+  /**
+   * Generates a prefix for the namespace IRI, unless it already has a prefix.  Generated prefixes are numbered in the
+   * order they are generated in, skipping any number whose prefix is already taken.
+   *
+   * @return the prefix generated, or null if the namespace IRI already has a prefix
+   */
+  public String putGeneratedPrefix(String namespaceIri) {
+    if (containsNamespace(namespaceIri)) {
+      return null;
+    }
+    String prefix;
+    do {
+      generatedPrefixCount++;
+      prefix = GENERATED_PREFIX_STEM + String.format("%04d", generatedPrefixCount);
+    } while (containsKey(prefix));
+    put(prefix, namespaceIri);
+    generatedNamespaces.put(prefix, namespaceIri);
+    return prefix;
+  }
+
+  /**
+   * Returns the namespace mappings generated by {@link #putGeneratedPrefix(String)}, as a read-only live view.
+   */
+  public Map<String, String> getGeneratedNamespaces() {
+    return Collections.unmodifiableMap(generatedNamespaces);
+  }
+
+  /**
+   * Returns the reverse namespace table, which is kept in step with the prefixes.  It must not be changed directly.
+   */
+  public ReverseNamespaceTable getReverseNamespaceTable() {
+    return reverseNamespaceTable;
+  }
+
+  @Override
+  public String put(String prefix, String namespaceIri) {
+    String previousNamespaceIri = super.put(prefix, namespaceIri);
+    if (previousNamespaceIri != null) {
+      unlink(prefix, previousNamespaceIri);
+      generatedNamespaces.remove(prefix);
+    }
+    link(prefix, namespaceIri);
+    return previousNamespaceIri;
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends String> map) {
+    // TreeMap.putAll may bypass put, so each mapping is put on its own.
+    for (Map.Entry<? extends String, ? extends String> entry : map.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public String remove(Object prefix) {
+    String namespaceIri = super.remove(prefix);
+    if (namespaceIri != null) {
+      unlink((String) prefix, namespaceIri);
+      generatedNamespaces.remove(prefix);
+    }
+    return namespaceIri;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    prefixesByNamespace.clear();
+    reverseNamespaceTable.clear();
+    generatedNamespaces.clear();
+    generatedPrefixCount = 0;
+  }
+
+  private void link(String prefix, String namespaceIri) {
+    TreeSet<String> prefixes = prefixesByNamespace.computeIfAbsent(namespaceIri, key -> new TreeSet<>());
+    prefixes.add(prefix);
+    reverseNamespaceTable.put(namespaceIri, prefixes.last());
+  }
+
+  private void unlink(String prefix, String namespaceIri) {
+    TreeSet<String> prefixes = prefixesByNamespace.get(namespaceIri);
+    prefixes.remove(prefix);
+    if (prefixes.isEmpty()) {
+      prefixesByNamespace.remove(namespaceIri);
+      reverseNamespaceTable.remove(namespaceIri);
+    } else {
+      reverseNamespaceTable.put(namespaceIri, prefixes.last());
+    }
+  }
+}
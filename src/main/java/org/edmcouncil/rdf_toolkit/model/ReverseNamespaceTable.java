@@ -24,14 +24,134 @@
 package org.edmcouncil.rdf_toolkit.model;
 
 import org.edmcouncil.rdf_toolkit.comparator.StringLengthComparator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeMap;
 
 /**
  * A reverse namespace table with which returns the longest namespace IRIs first.  Key is IRI string, value is prefix string.
+ * <p>
+ * The table keeps an index for finding the namespace of an IRI in time proportional to the length of the IRI, whatever
+ * the number of namespaces.  The index is rebuilt on the next lookup after the table is changed through
+ * {@link #put(String, String)}, {@link #putAll(Map)}, {@link #remove(Object)} or {@link #clear()}.
+ * </p>
  */
 public class ReverseNamespaceTable extends TreeMap<String, String> {
 
+  /**
+   * A node of a character trie of the namespace IRIs.  The children are kept in arrays sorted by character.
+   */
+  private static class TrieNode {
+    private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+    private char[] keys = new char[0];
+    private TrieNode[] children = NO_CHILDREN;
+    private String namespace = null;
+
+    private TrieNode child(char key) {
+      int index = Arrays.binarySearch(keys, key);
+      return index >= 0 ? children[index] : null;
+    }
+
+    private TrieNode addChild(char key) {
+      int index = Arrays.binarySearch(keys, key);
+      if (index >= 0) {
+        return children[index];
+      }
+      int insertionIndex = -index - 1;
+      char[] newKeys = new char[keys.length + 1];
+      TrieNode[] newChildren = new TrieNode[children.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, insertionIndex);
+      System.arraycopy(children, 0, newChildren, 0, insertionIndex);
+      newKeys[insertionIndex] = key;
+      newChildren[insertionIndex] = new TrieNode();
+      System.arraycopy(keys, insertionIndex, newKeys, insertionIndex + 1, keys.length - insertionIndex);
+      System.arraycopy(children, insertionIndex, newChildren, insertionIndex + 1, children.length - insertionIndex);
+      keys = newKeys;
+      children = newChildren;
+      return newChildren[insertionIndex];
+    }
+  }
+
+  private transient TrieNode namespaceTrie = null;
+  private transient Map<String, String> namespacesByPrefix = null;
+
   public ReverseNamespaceTable() {
     super(new StringLengthComparator());
   }
+
+  /**
+   * Returns the longest namespace IRI which the IRI starts with, and is longer than, or null if there is none.
+   */
+  public String getLongestNamespace(String iri) {
+    buildIndex();
+    String longestNamespace = null;
+    TrieNode node = namespaceTrie;
+    // The IRI has to be longer than the namespace, so its last character is never looked up.
+    for (int index = 0; (node != null) && (index < iri.length()); index++) {
+      if (node.namespace != null) {
+        longestNamespace = node.namespace;
+      }
+      node = node.child(iri.charAt(index));
+    }
+    return longestNamespace;
+  }
+
+  /**
+   * Returns the namespace IRI with the given prefix, or null if there is none.  If several namespace IRIs have the
+   * prefix, the first in the order of the table is returned.
+   */
+  public String getNamespaceWithPrefix(String prefix) {
+    buildIndex();
+    return namespacesByPrefix.get(prefix);
+  }
+
+  @Override
+  public String put(String namespace, String prefix) {
+    clearIndex();
+    return super.put(namespace, prefix);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends String> map) {
+    clearIndex();
+    super.putAll(map);
+  }
+
+  @Override
+  public String remove(Object namespace) {
+    clearIndex();
+    return super.remove(namespace);
+  }
+
+  @Override
+  public void clear() {
+    clearIndex();
+    super.clear();
+  }
+
+  private void clearIndex() {
+    namespaceTrie = null;
+    namespacesByPrefix = null;
+  }
+
+  private void buildIndex() {
+    if (namespaceTrie != null) {
+      return;
+    }
+    TrieNode root = new TrieNode();
+    Map<String, String> prefixes = new HashMap<>();
+    for (Map.Entry<String, String> entry : entrySet()) {
+      String namespace = entry.getKey();
+      TrieNode node = root;
+      for (int index = 0; index < namespace.length(); index++) {
+        node = node.addChild(namespace.charAt(index));
+      }
+      node.namespace = namespace;
+      prefixes.putIfAbsent(entry.getValue(), namespace);
+    }
+    namespaceTrie = root;
+    namespacesByPrefix = prefixes;
+  }
 }
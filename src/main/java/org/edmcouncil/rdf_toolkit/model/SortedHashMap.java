@@ -24,51 +24,135 @@
 
 package org.edmcouncil.rdf_toolkit.model;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Like java.util.HashMap, but able to return the keys in sorted order.
+ * <p>
+ * The sorted keys are kept as an array snapshot which is only rebuilt after the key set has changed, and are returned
+ * as a read-only view of that snapshot, so repeated calls to {@link #sortedKeys()} neither sort nor copy.
+ * </p>
  */
 public class SortedHashMap<K, V> extends HashMap<K, V> {
 
   private final transient Comparator<K> comparator;
-  private transient List<K> sortedKeys = new ArrayList<>();
-  private transient boolean dirty = true;
+  private transient List<K> sortedKeys = null; // read-only view of the sorted snapshot, null when out of date
 
   public SortedHashMap(Comparator<K> comparator) {
     this.comparator = comparator;
   }
 
-  private void updateSortedKeys() {
-    sortedKeys = new LinkedList<>();
-    sortedKeys.addAll(keySet());
-    sortedKeys.sort(comparator);
+  private List<K> updateSortedKeys() {
+    @SuppressWarnings("unchecked")
+    K[] keys = (K[]) keySet().toArray();
+    List<K> keyList = Arrays.asList(keys); // fixed-size list writing through to the array
+    sortKeys(keyList);
+    return Collections.unmodifiableList(keyList);
+  }
+
+  private void invalidateSortedKeys() {
+    sortedKeys = null;
+  }
+
+  protected Comparator<K> getComparator() {
+    return comparator;
+  }
+
+  /**
+   * Sorts the given keys into the order returned by {@link #sortedKeys()}.  Subclasses may override this to sort
+   * faster, as long as the resulting order is the one defined by the comparator.  The list is fixed-size, so keys may
+   * only be reordered with {@code set} or {@code sort}.
+   */
+  protected void sortKeys(List<K> keys) {
+    keys.sort(comparator);
   }
 
   @Override
   public V put(K key, V value) {
     V result = super.put(key, value);
-    dirty = true;
+    invalidateSortedKeys();
+    return result;
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> map) {
+    super.putAll(map);
+    invalidateSortedKeys();
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    V result = super.putIfAbsent(key, value);
+    invalidateSortedKeys();
+    return result;
+  }
+
+  @Override
+  public V remove(Object key) {
+    V result = super.remove(key);
+    invalidateSortedKeys();
     return result;
   }
 
   @Override
   public boolean remove(Object key, Object value) {
     boolean result = super.remove(key, value);
-    dirty = true;
+    invalidateSortedKeys();
+    return result;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    invalidateSortedKeys();
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    V result = super.computeIfAbsent(key, mappingFunction);
+    invalidateSortedKeys();
+    return result;
+  }
+
+  @Override
+  public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    V result = super.computeIfPresent(key, remappingFunction);
+    invalidateSortedKeys();
+    return result;
+  }
+
+  @Override
+  public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    V result = super.compute(key, remappingFunction);
+    invalidateSortedKeys();
+    return result;
+  }
+
+  @Override
+  public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+    V result = super.merge(key, value, remappingFunction);
+    invalidateSortedKeys();
     return result;
   }
 
-  public Iterable<K> sortedKeys() {
-    if (dirty) {
-      updateSortedKeys();
+  /**
+   * Returns the keys in sorted order, as a read-only view that must not be held on to across changes to the map.
+   * Keys removed through the {@link #keySet()}, {@link #values()} or {@link #entrySet()} views are detected by the
+   * size of the snapshot no longer matching the size of the map.
+   */
+  public List<K> sortedKeys() {
+    if (sortedKeys == null || sortedKeys.size() != size()) {
+      sortedKeys = updateSortedKeys();
     }
-    return new LinkedList<>(sortedKeys);
+    return sortedKeys;
   }
 
   @Override
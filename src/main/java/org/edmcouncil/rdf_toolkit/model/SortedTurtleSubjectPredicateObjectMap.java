@@ -24,18 +24,57 @@
 
 package org.edmcouncil.rdf_toolkit.model;
 
+import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
+import org.edmcouncil.rdf_toolkit.comparator.BlankNodeSortKeys;
 import org.edmcouncil.rdf_toolkit.comparator.CachedResourceComparator;
 import org.edmcouncil.rdf_toolkit.comparator.ComparisonContext;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * A sorted map from subject resources to predicate/object pairs.
  */
 public class SortedTurtleSubjectPredicateObjectMap extends SortedHashMap<Resource, SortedTurtlePredicateObjectMap> {
 
+  private final transient ComparisonContext comparisonContext;
+
   public SortedTurtleSubjectPredicateObjectMap(Class<Value> collectionClass, ComparisonContext comparisonContext) {
     super(new CachedResourceComparator(collectionClass, comparisonContext));
+    this.comparisonContext = comparisonContext;
+  }
+
+  /**
+   * Sorts the subjects by decorating each of them with a precomputed sort key, sorting the sort keys and then reading
+   * the subjects back, so that the comparisons during the sort do not allocate.  The order is the one defined by
+   * {@link org.edmcouncil.rdf_toolkit.comparator.ResourceComparator}: other resources by their string value, followed
+   * by blank nodes in the order of their canonical rank (see {@link BlankNodeSortKeys}) and then of their identifier.
+   */
+  @Override
+  protected void sortKeys(List<Resource> keys) {
+    // resource comparators always compare blank nodes as Value collections
+    BlankNodeSortKeys blankNodeSortKeys = comparisonContext.getBlankNodeSortKeys(Value.class);
+    var sortKeys = new SubjectSortKey[keys.size()];
+    int index = 0;
+    for (Resource subject : keys) {
+      sortKeys[index++] = new SubjectSortKey(subject, blankNodeSortKeys);
+    }
+
+    Arrays.sort(sortKeys, blankNodeSortKeys == null ? this::compareWithFallback : SubjectSortKey::compareTo);
+
+    index = 0;
+    for (var iter = keys.listIterator(); iter.hasNext(); ) {
+      iter.next();
+      iter.set(sortKeys[index++].subject);
+    }
+  }
+
+  private int compareWithFallback(SubjectSortKey key1, SubjectSortKey key2) {
+    if (key1.isBlankNode && key2.isBlankNode) { // no precomputed blank node ranks
+      return getComparator().compare(key1.subject, key2.subject);
+    }
+    return key1.compareTo(key2);
   }
 
   public int fullSize() {
@@ -45,4 +84,29 @@ public class SortedTurtleSubjectPredicateObjectMap extends SortedHashMap<Resourc
     }
     return result;
   }
-}
\ No newline at end of file
+
+  private static class SubjectSortKey implements Comparable<SubjectSortKey> {
+    private final Resource subject;
+    private final String stringValue;
+    private final boolean isBlankNode;
+    private final int rank;
+
+    private SubjectSortKey(Resource subject, BlankNodeSortKeys blankNodeSortKeys) {
+      this.subject = subject;
+      this.stringValue = subject.stringValue();
+      this.isBlankNode = subject instanceof BNode;
+      this.rank = (isBlankNode && (blankNodeSortKeys != null)) ? blankNodeSortKeys.getRank((BNode) subject) : 0;
+    }
+
+    @Override
+    public int compareTo(SubjectSortKey other) {
+      if (isBlankNode != other.isBlankNode) {
+        return isBlankNode ? 1 : -1; // blank nodes come after other resources
+      }
+      if (rank != other.rank) {
+        return Integer.compare(rank, other.rank);
+      }
+      return stringValue.compareTo(other.stringValue);
+    }
+  }
+}
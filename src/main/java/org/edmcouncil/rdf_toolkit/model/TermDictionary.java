@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.model;
+
+import org.eclipse.rdf4j.model.Value;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A dictionary of RDF terms.  Every distinct term is stored once and given a stable integer ID, in the order in which
+ * the terms are first added, so that equal terms can be replaced by one shared instance and compared by identity or by
+ * ID.  Not thread-safe.
+ */
+public class TermDictionary {
+
+  /** ID returned for terms that are not in the dictionary. */
+  public static final int ABSENT_ID = -1;
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final Map<Value, Integer> ids = new HashMap<>();
+  private Value[] terms = new Value[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /**
+   * Returns the ID of the given term, adding the term to the dictionary if it is not there yet.
+   */
+  public int add(Value term) {
+    Integer id = ids.get(term);
+    if (id == null) {
+      id = size;
+      if (size == terms.length) {
+        terms = Arrays.copyOf(terms, size * 2);
+      }
+      terms[size++] = term;
+      ids.put(term, id);
+    }
+    return id;
+  }
+
+  /**
+   * Returns the shared instance of the given term, adding the term to the dictionary if it is not there yet.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends Value> T intern(T term) {
+    int id = add(term); // may grow the terms array, so it must be called before the array is read
+    return (T) terms[id];
+  }
+
+  /**
+   * Returns the ID of the given term, or {@link #ABSENT_ID} if the term is not in the dictionary.
+   */
+  public int getId(Object term) {
+    Integer id = ids.get(term);
+    return id == null ? ABSENT_ID : id;
+  }
+
+  /**
+   * Returns the term with the given ID.
+   */
+  public Value getTerm(int id) {
+    if ((id < 0) || (id >= size)) {
+      throw new IndexOutOfBoundsException("no term with ID " + id);
+    }
+    return terms[id];
+  }
+
+  /**
+   * Returns the number of distinct terms in the dictionary.
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -28,19 +28,51 @@ import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
 import org.edmcouncil.rdf_toolkit.comparator.ComparisonContext;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * An unsorted map from subject resources to predicate/object pairs.
+ *
+ * <p>Sorted predicate/object views returned by {@link #getSorted} are memoized per subject and collection class, as
+ * the comparators ask for the same views over and over again while sorting blank nodes. The memoized views are
+ * discarded whenever the map is modified through one of its own methods, and by {@link #invalidateSortedViews()}.
+ * Changes made through the {@link #keySet()}, {@link #values()} or {@link #entrySet()} views, or to the
+ * predicate/object maps themselves, are not detected; {@link #invalidateSortedViews()} must then be called.</p>
  */
 public class UnsortedTurtleSubjectPredicateObjectMap extends HashMap<Resource, UnsortedTurtlePredicateObjectMap> {
 
+  private final transient Map<Class<Value>, Map<Resource, SortedTurtlePredicateObjectMap>> sortedViews =
+      new HashMap<>();
+  private transient ComparisonContext sortedViewsComparisonContext = null;
+  private transient long sortedViewBuildCount = 0;
+  private transient long sortedViewReuseCount = 0;
+
   public SortedTurtlePredicateObjectMap getSorted(Resource subject, Class<Value> collectionClass,
       ComparisonContext comparisonContext) {
-    if (containsKey(subject)) {
-      return get(subject).toSorted(collectionClass, comparisonContext);
-    } else {
+    UnsortedTurtlePredicateObjectMap poMap = get(subject);
+    if (poMap == null) {
       return null;
     }
+
+    if (comparisonContext != sortedViewsComparisonContext) {
+      // views sorted under a different comparison context (e.g. other blank node inlining) cannot be reused
+      sortedViews.clear();
+      sortedViewsComparisonContext = comparisonContext;
+    }
+    Map<Resource, SortedTurtlePredicateObjectMap> views =
+        sortedViews.computeIfAbsent(collectionClass, key -> new HashMap<>());
+    SortedTurtlePredicateObjectMap sortedPOMap = views.get(subject);
+    if (sortedPOMap != null) {
+      sortedViewReuseCount++;
+      return sortedPOMap;
+    }
+
+    sortedPOMap = poMap.toSorted(collectionClass, comparisonContext);
+    sortedViewBuildCount++;
+    views.put(subject, sortedPOMap);
+    return sortedPOMap;
   }
 
   public SortedTurtleSubjectPredicateObjectMap toSorted(Class<Value> collectionClass,
@@ -52,6 +84,117 @@ public class UnsortedTurtleSubjectPredicateObjectMap extends HashMap<Resource, U
     return sortedSPOMap;
   }
 
+  /**
+   * Discards all memoized sorted views.  Must be called whenever the predicate/object map of any subject is changed,
+   * as the order of a subject's blank node objects depends on the content of those blank nodes.
+   */
+  public void invalidateSortedViews() {
+    if (!sortedViews.isEmpty()) {
+      sortedViews.clear();
+    }
+  }
+
+  /**
+   * Returns how many sorted predicate/object views have been built by {@link #getSorted}.
+   */
+  public long getSortedViewBuildCount() {
+    return sortedViewBuildCount;
+  }
+
+  /**
+   * Returns how many times {@link #getSorted} returned an already built sorted predicate/object view.
+   */
+  public long getSortedViewReuseCount() {
+    return sortedViewReuseCount;
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap put(Resource key, UnsortedTurtlePredicateObjectMap value) {
+    invalidateSortedViews();
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends Resource, ? extends UnsortedTurtlePredicateObjectMap> map) {
+    invalidateSortedViews();
+    super.putAll(map);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap putIfAbsent(Resource key, UnsortedTurtlePredicateObjectMap value) {
+    invalidateSortedViews();
+    return super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap remove(Object key) {
+    invalidateSortedViews();
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    invalidateSortedViews();
+    return super.remove(key, value);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap replace(Resource key, UnsortedTurtlePredicateObjectMap value) {
+    invalidateSortedViews();
+    return super.replace(key, value);
+  }
+
+  @Override
+  public boolean replace(Resource key, UnsortedTurtlePredicateObjectMap oldValue,
+      UnsortedTurtlePredicateObjectMap newValue) {
+    invalidateSortedViews();
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super Resource, ? super UnsortedTurtlePredicateObjectMap,
+      ? extends UnsortedTurtlePredicateObjectMap> function) {
+    invalidateSortedViews();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap computeIfAbsent(Resource key,
+      Function<? super Resource, ? extends UnsortedTurtlePredicateObjectMap> mappingFunction) {
+    invalidateSortedViews();
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap computeIfPresent(Resource key,
+      BiFunction<? super Resource, ? super UnsortedTurtlePredicateObjectMap,
+          ? extends UnsortedTurtlePredicateObjectMap> remappingFunction) {
+    invalidateSortedViews();
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap compute(Resource key,
+      BiFunction<? super Resource, ? super UnsortedTurtlePredicateObjectMap,
+          ? extends UnsortedTurtlePredicateObjectMap> remappingFunction) {
+    invalidateSortedViews();
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public UnsortedTurtlePredicateObjectMap merge(Resource key, UnsortedTurtlePredicateObjectMap value,
+      BiFunction<? super UnsortedTurtlePredicateObjectMap, ? super UnsortedTurtlePredicateObjectMap,
+          ? extends UnsortedTurtlePredicateObjectMap> remappingFunction) {
+    invalidateSortedViews();
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public void clear() {
+    invalidateSortedViews();
+    super.clear();
+  }
+
   public int fullSize() {
     var result = 0;
     for (UnsortedTurtlePredicateObjectMap value : values()) {
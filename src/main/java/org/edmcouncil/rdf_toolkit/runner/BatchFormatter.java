@@ -0,0 +1,420 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Formats a batch of files on a fixed number of threads, with the same options for every file.  Files are formatted
+ * while the rest of the batch is still being found, the largest files found first, and no more files are formatted at
+ * the same time than fit in the memory budget.  A file which cannot be formatted is logged and counted, and does not
+ * stop the other files from being formatted.  When checking, the target files are compared with the formatted source
+ * files instead of being written.
+ */
+public class BatchFormatter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchFormatter.class);
+  private static final long MEGABYTE = 1024L * 1024L;
+
+  /**
+   * A file to format, and where to write the result.
+   */
+  public static class BatchFile {
+    private final File sourceFile;
+    private final File targetFile;
+    private final String sourceName;
+    private final String targetName;
+    private long estimatedMemory = -1;
+
+    /**
+     * @param sourceFile the file to format
+     * @param targetFile the file to write the formatted result to
+     * @param sourceName name of the source file in log messages, e.g. its relative path
+     * @param targetName name of the target file in log messages, e.g. its relative path
+     */
+    public BatchFile(File sourceFile, File targetFile, String sourceName, String targetName) {
+      this.sourceFile = sourceFile;
+      this.targetFile = targetFile;
+      this.sourceName = sourceName;
+      this.targetName = targetName;
+    }
+
+    public File getSourceFile() {
+      return sourceFile;
+    }
+
+    public File getTargetFile() {
+      return targetFile;
+    }
+
+    public String getSourceName() {
+      return sourceName;
+    }
+
+    public String getTargetName() {
+      return targetName;
+    }
+
+    /**
+     * Returns the estimated memory needed to format the file, in bytes.
+     */
+    public long getEstimatedMemory() {
+      if (estimatedMemory < 0) {
+        estimatedMemory = estimateMemory(sourceFile);
+      }
+      return estimatedMemory;
+    }
+  }
+
+  /**
+   * The outcome of formatting a batch of files.
+   */
+  public static class Result {
+    private final int fileCount;
+    private final int unchangedFileCount;
+    private final List<BatchFile> failedFiles;
+    private final List<BatchFile> differentFiles;
+
+    public Result(int fileCount, int unchangedFileCount, List<BatchFile> failedFiles) {
+      this(fileCount, unchangedFileCount, failedFiles, Collections.emptyList());
+    }
+
+    public Result(int fileCount, int unchangedFileCount, List<BatchFile> failedFiles, List<BatchFile> differentFiles) {
+      this.fileCount = fileCount;
+      this.unchangedFileCount = unchangedFileCount;
+      this.failedFiles = Collections.unmodifiableList(failedFiles);
+      this.differentFiles = Collections.unmodifiableList(differentFiles);
+    }
+
+    public int getFileCount() {
+      return fileCount;
+    }
+
+    /**
+     * Returns the number of files skipped because the formatting cache showed them to be up to date.
+     */
+    public int getUnchangedFileCount() {
+      return unchangedFileCount;
+    }
+
+    public List<BatchFile> getFailedFiles() {
+      return failedFiles;
+    }
+
+    /**
+     * Returns the files whose target file, when checking, does not hold the formatted source file.
+     */
+    public List<BatchFile> getDifferentFiles() {
+      return differentFiles;
+    }
+  }
+
+  /**
+   * Memory needed to format even the smallest file, in bytes.
+   */
+  static final long MINIMUM_MEMORY_PER_FILE = MEGABYTE;
+
+  enum Outcome {
+    FORMATTED, UNCHANGED, DIFFERENT, FAILED
+  }
+
+  private final RdfToolkitOptions rdfToolkitOptions;
+  private final FormattingCache formattingCache;
+  private final FileFormatter fileFormatter = new FileFormatter();
+
+  /**
+   * @param rdfToolkitOptions the options to format every file with, apart from the source & target files.  They are
+   *                          copied for each file, and so are not changed.
+   */
+  public BatchFormatter(RdfToolkitOptions rdfToolkitOptions) {
+    this(rdfToolkitOptions, null);
+  }
+
+  /**
+   * @param rdfToolkitOptions the options to format every file with, apart from the source & target files.  They are
+   *                          copied for each file, and so are not changed.
+   * @param formattingCache   the cache of files already formatted with the same options, which are skipped; or null to
+   *                          format every file.  It is updated, but not saved.
+   */
+  public BatchFormatter(RdfToolkitOptions rdfToolkitOptions, FormattingCache formattingCache) {
+    this.rdfToolkitOptions = rdfToolkitOptions;
+    this.formattingCache = formattingCache;
+  }
+
+  /**
+   * Estimates the memory needed to format a file from its size and format, in bytes.  The memory needed is roughly
+   * proportional to the number of triples, and formats differ in how many bytes they take per triple.
+   */
+  static long estimateMemory(File sourceFile) {
+    RDFFormat sourceFormat = Rio.getParserFormatForFileName(sourceFile.getName()).orElse(RDFFormat.TURTLE);
+    int bytesPerSourceByte;
+    if (RDFFormat.RDFXML.equals(sourceFormat)) {
+      bytesPerSourceByte = 10; // verbose, so relatively few triples per byte
+    } else if (RDFFormat.JSONLD.equals(sourceFormat)) {
+      bytesPerSourceByte = 20; // parsed into a complete JSON document first
+    } else {
+      bytesPerSourceByte = 16;
+    }
+    return MINIMUM_MEMORY_PER_FILE + sourceFile.length() * bytesPerSourceByte;
+  }
+
+  /**
+   * A file which has been found but not started yet.  Pending files are started largest estimated memory first, so
+   * that the largest files do not start last and hold up the end of the batch; files with the same estimate are started
+   * in the order they were found.
+   */
+  static final class PendingFile implements Comparable<PendingFile> {
+
+    /**
+     * Marks the end of the files; it comes after every other pending file.
+     */
+    static final PendingFile END_OF_FILES = new PendingFile(null, Long.MAX_VALUE, -1);
+
+    private final BatchFile batchFile;
+    private final long sequence;
+    private final long estimatedMemory;
+
+    PendingFile(BatchFile batchFile, long sequence) {
+      this(batchFile, sequence, batchFile.getEstimatedMemory());
+    }
+
+    private PendingFile(BatchFile batchFile, long sequence, long estimatedMemory) {
+      this.batchFile = batchFile;
+      this.sequence = sequence;
+      this.estimatedMemory = estimatedMemory;
+    }
+
+    BatchFile getBatchFile() {
+      return batchFile;
+    }
+
+    @Override
+    public int compareTo(PendingFile other) {
+      int comparison = Long.compare(other.estimatedMemory, estimatedMemory);
+      return comparison != 0 ? comparison : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  /**
+   * Formats the files, and returns when all of them have been formatted or have failed.  The files are started
+   * largest estimated memory first.
+   *
+   * @see #format(Stream)
+   */
+  public Result format(Collection<BatchFile> batchFiles) throws InterruptedException {
+    var pendingFiles = new PriorityBlockingQueue<PendingFile>(batchFiles.size() + 1);
+    long sequence = 0;
+    for (BatchFile batchFile : batchFiles) {
+      pendingFiles.put(new PendingFile(batchFile, sequence++));
+    }
+    pendingFiles.put(PendingFile.END_OF_FILES);
+    return formatPendingFiles(pendingFiles, new AtomicReference<>());
+  }
+
+  /**
+   * Formats the files, and returns when all of them have been formatted or have failed.  The files are read from the
+   * stream on a separate thread, so that formatting starts as soon as the first file has been found.  Whenever a
+   * thread is free, the largest of the files found but not started yet is started on it.  A file is only started while
+   * the estimated memory of all files being formatted stays within the memory budget; a file estimated to need more
+   * than the whole budget is formatted on its own.  The stream is not closed.
+   */
+  public Result format(Stream<BatchFile> batchFiles) throws InterruptedException {
+    var pendingFiles = new PriorityBlockingQueue<PendingFile>();
+    var findingException = new AtomicReference<RuntimeException>();
+    var finder = new Thread(() -> {
+      try {
+        long sequence = 0;
+        Iterator<BatchFile> batchFileIterator = batchFiles.iterator();
+        while (!Thread.currentThread().isInterrupted() && batchFileIterator.hasNext()) {
+          pendingFiles.put(new PendingFile(batchFileIterator.next(), sequence++));
+        }
+      } catch (RuntimeException ex) {
+        findingException.set(ex);
+      } finally {
+        pendingFiles.put(PendingFile.END_OF_FILES);
+      }
+    }, BatchFormatter.class.getSimpleName() + "-finder");
+    finder.setDaemon(true);
+    finder.start();
+    try {
+      return formatPendingFiles(pendingFiles, findingException);
+    } finally {
+      finder.interrupt();
+      finder.join();
+    }
+  }
+
+  /**
+   * Formats the pending files up to {@link PendingFile#END_OF_FILES}.  A pending file is only taken from the queue
+   * once a thread is free to format it, so that the queue can still put the largest file first until then.
+   */
+  private Result formatPendingFiles(PriorityBlockingQueue<PendingFile> pendingFiles,
+      AtomicReference<RuntimeException> findingException) throws InterruptedException {
+    int threadCount = rdfToolkitOptions.getThreadCount();
+    var freeThreads = new Semaphore(threadCount);
+    var memoryBudget = new MemoryBudget(rdfToolkitOptions.getMemoryBudget());
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<BatchFile> startedFiles = new ArrayList<>();
+      List<Future<Outcome>> results = new ArrayList<>();
+      while (true) {
+        freeThreads.acquire();
+        PendingFile pendingFile = pendingFiles.take();
+        if (pendingFile == PendingFile.END_OF_FILES) {
+          break;
+        }
+        BatchFile batchFile = pendingFile.getBatchFile();
+        long fileMemory = batchFile.getEstimatedMemory();
+        if (fileMemory > memoryBudget.getTotal()) {
+          LOGGER.warn("Estimated memory for '{}' is {} MB, which is more than the memory budget of {} MB",
+              batchFile.getSourceName(), fileMemory / MEGABYTE, memoryBudget.getTotal() / MEGABYTE);
+        }
+        long acquiredMemory = memoryBudget.acquire(fileMemory);
+        startedFiles.add(batchFile);
+        results.add(executor.submit(() -> {
+          try {
+            return formatFile(batchFile);
+          } finally {
+            memoryBudget.release(acquiredMemory);
+            freeThreads.release();
+          }
+        }));
+      }
+
+      int unchangedFileCount = 0;
+      List<BatchFile> failedFiles = new ArrayList<>();
+      List<BatchFile> differentFiles = new ArrayList<>();
+      for (int index = 0; index < results.size(); index++) {
+        try {
+          Outcome outcome = results.get(index).get();
+          if (outcome == Outcome.UNCHANGED) {
+            unchangedFileCount++;
+          } else if (outcome == Outcome.DIFFERENT) {
+            differentFiles.add(startedFiles.get(index));
+          } else if (outcome == Outcome.FAILED) {
+            failedFiles.add(startedFiles.get(index));
+          }
+        } catch (ExecutionException ex) {
+          // Only errors get here, as formatFile catches all exceptions; these are not limited to one file.
+          throw new IllegalStateException(
+              String.format("Formatting stopped while formatting '%s'", startedFiles.get(index).getSourceName()),
+              ex.getCause());
+        }
+      }
+      if (findingException.get() != null) {
+        throw new IllegalStateException(
+            String.format("Finding files stopped after %d files", results.size()), findingException.get());
+      }
+      return new Result(results.size(), unchangedFileCount, failedFiles, differentFiles);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Formats or checks a single file.  Never throws an exception, but logs it and returns {@link Outcome#FAILED}.
+   */
+  Outcome formatFile(BatchFile batchFile) {
+    String inputHash = null;
+    if (formattingCache != null) {
+      try {
+        inputHash = formattingCache.hashInput(batchFile);
+        if (formattingCache.isUpToDate(batchFile, inputHash)) {
+          LOGGER.debug("... '{}' is unchanged ...", batchFile.getSourceName());
+          return Outcome.UNCHANGED;
+        }
+      } catch (IOException ex) {
+        LOGGER.error("Unable to read '{}': {}", batchFile.getSourceName(), ex.getMessage());
+        return Outcome.FAILED;
+      }
+    }
+
+    if (rdfToolkitOptions.getCheck()) {
+      LOGGER.info("... checking '{}' against '{}' ...", batchFile.getSourceName(), batchFile.getTargetName());
+    } else {
+      LOGGER.info("... formatting '{}' to '{}' ...", batchFile.getSourceName(), batchFile.getTargetName());
+    }
+    var fileOptions = new RdfToolkitOptions(rdfToolkitOptions);
+    var sourceFile = batchFile.getSourceFile();
+    fileOptions.setSourceFile(sourceFile);
+    fileOptions.setTargetFile(batchFile.getTargetFile());
+    fileOptions.setShouldUseStandardOutputStream(false);
+    try (InputStream sourceInputStream = new FileInputStream(sourceFile)) {
+      fileOptions.setSourceInputStream(sourceInputStream);
+      new OptionHandler(fileOptions).handleSourceFormat(sourceFile);
+      if (rdfToolkitOptions.getCheck()) {
+        if (!fileFormatter.check(fileOptions)) {
+          return Outcome.DIFFERENT;
+        }
+        if (formattingCache != null) {
+          formattingCache.update(batchFile, inputHash);
+        }
+        return Outcome.UNCHANGED;
+      }
+      var targetFileDir = batchFile.getTargetFile().getParentFile();
+      if (targetFileDir != null) {
+        targetFileDir.mkdirs();
+      }
+      fileFormatter.format(fileOptions);
+      if (formattingCache != null) {
+        formattingCache.update(batchFile, inputHash);
+      }
+      return Outcome.FORMATTED;
+    } catch (Exception ex) {
+      LOGGER.error("Unable to format '{}': {}", batchFile.getSourceName(), ex.getMessage());
+      if (ex.getCause() != null) {
+        LOGGER.error("{}: {}", ex.getCause().getClass().getSimpleName(), ex.getCause().getMessage());
+      }
+      if (LOGGER.isDebugEnabled()) {
+        StringWriter stackTraceWriter = new StringWriter();
+        ex.printStackTrace(new PrintWriter(stackTraceWriter));
+        LOGGER.debug(stackTraceWriter.toString());
+      }
+      return Outcome.FAILED;
+    }
+  }
+}
@@ -24,12 +24,15 @@
 package org.edmcouncil.rdf_toolkit.runner;
 
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.HELP;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SERVER;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.VERSION;
 import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.EXIT;
 import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.PRINT_AND_EXIT;
 import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.PRINT_USAGE_AND_EXIT;
 import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.RUN_ON_DIRECTORY;
 import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.RUN_ON_FILE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.RUN_ON_FILES;
+import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.RUN_SERVER;
 
 import com.jcabi.manifests.Manifests;
 import java.io.FileNotFoundException;
@@ -80,17 +83,49 @@ public class CommandLineArgumentsHandler {
       return rdfToolkitOptions;
     }
 
+    // Run a formatting server, if requested; the options are given with each request.
+    if (line.hasOption(SERVER.getShortOpt())) {
+      rdfToolkitOptions.setRunningMode(RUN_SERVER);
+      return rdfToolkitOptions;
+    }
+
     optionHandler.handleRunningOnDirectory(line, rdfToolkitOptions);
     if (rdfToolkitOptions.getRunningMode() == PRINT_USAGE_AND_EXIT) {
       usage(options);
       return rdfToolkitOptions;
     }
     if (rdfToolkitOptions.getRunningMode() == RUN_ON_DIRECTORY) {
+      // The options are handled once for all files; the source & target files are set for each file.
+      handleFormattingOptions(optionHandler);
+      return rdfToolkitOptions;
+    }
+
+    optionHandler.handleRunningOnFiles(line, rdfToolkitOptions);
+    if (rdfToolkitOptions.getRunningMode() == PRINT_USAGE_AND_EXIT) {
+      usage(options);
+      return rdfToolkitOptions;
+    }
+    if (rdfToolkitOptions.getRunningMode() == RUN_ON_FILES) {
+      // As for a directory, the source format is handled for each file.
+      optionHandler.handleSourceFiles();
+      handleFormattingOptions(optionHandler);
       return rdfToolkitOptions;
     }
 
     var sourceFile = optionHandler.handleSourceFile();
     optionHandler.handleTargetFile();
+    handleFormattingOptions(optionHandler);
+    optionHandler.handleSourceFormat(sourceFile);
+
+    rdfToolkitOptions.setRunningMode(RUN_ON_FILE);
+
+    return rdfToolkitOptions;
+  }
+
+  /**
+   * Handles the options which apply to every file formatted, i.e. all but the source & target file options.
+   */
+  private void handleFormattingOptions(OptionHandler optionHandler) throws RdfToolkitOptionHandlingException {
     optionHandler.handleBaseIri(valueFactory);
     optionHandler.handleIriReplacementOptions();
     optionHandler.handleUseDtdSubset();
@@ -101,17 +136,17 @@ public class CommandLineArgumentsHandler {
     optionHandler.handleStringDataTyping();
     optionHandler.handleOverrideStringLanguage();
     optionHandler.handleIndent();
-    optionHandler.handleSourceFormat(sourceFile);
     optionHandler.handleTargetFormat();
     optionHandler.handleShortUriPref();
     optionHandler.handleLineEnd();
     optionHandler.handleOmitXmlnsNamespace();
     optionHandler.handleSuppressNamedIndividuals();
     optionHandler.handleUseDefaultLanguage();
-
-    rdfToolkitOptions.setRunningMode(RUN_ON_FILE);
-
-    return rdfToolkitOptions;
+    optionHandler.handleComparatorCacheSize();
+    optionHandler.handleCompactTripleStore();
+    optionHandler.handleCheck();
+    optionHandler.handleThreadCount();
+    optionHandler.handleMemoryBudget();
   }
 
   private void usage(Options options) {
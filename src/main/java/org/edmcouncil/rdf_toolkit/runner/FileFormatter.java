@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.rio.ParserConfig;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.ParseErrorLogger;
+import org.edmcouncil.rdf_toolkit.io.ComparingOutputStream;
+import org.edmcouncil.rdf_toolkit.io.InterningValueFactory;
+import org.edmcouncil.rdf_toolkit.io.LazyFileOutputStream;
+import org.edmcouncil.rdf_toolkit.io.NormalizingRdfHandler;
+import org.edmcouncil.rdf_toolkit.io.format.TargetFormats;
+import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitFormattingException;
+import org.edmcouncil.rdf_toolkit.util.IriRewriter;
+import org.edmcouncil.rdf_toolkit.writer.SortedRdfWriter;
+import org.edmcouncil.rdf_toolkit.writer.SortedRdfWriterFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Formats a single source file (or the standard input) into a target file (or the standard output), or checks that the
+ * target file already holds the formatted source.
+ */
+public class FileFormatter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileFormatter.class);
+
+  /**
+   * Formats the source given by the options.  The options are updated with the base IRI actually used.
+   *
+   * @throws RdfToolkitFormattingException if the source cannot be parsed.  The target file is then left as it was.
+   */
+  public void format(RdfToolkitOptions rdfToolkitOptions) throws RdfToolkitFormattingException, IOException {
+    // The target file is only opened once the writer starts writing, which is after the whole source has been parsed.
+    OutputStream outputStream = System.out;
+    if (!rdfToolkitOptions.isShouldUseStandardOutputStream()) {
+      outputStream = new LazyFileOutputStream(rdfToolkitOptions.getTargetFile());
+    }
+    format(rdfToolkitOptions, outputStream);
+  }
+
+  /**
+   * Returns whether the target file given by the options already holds the formatted source.  The target file is not
+   * written; the formatted output is compared with it as it is written, and writing stops at the first difference.
+   *
+   * @throws RdfToolkitFormattingException if the source cannot be parsed
+   */
+  public boolean check(RdfToolkitOptions rdfToolkitOptions) throws RdfToolkitFormattingException, IOException {
+    var comparingOutputStream = new ComparingOutputStream(rdfToolkitOptions.getTargetFile());
+    try {
+      format(rdfToolkitOptions, comparingOutputStream);
+    } catch (IOException | RDFHandlerException ex) {
+      // Writing is stopped by the first difference, which is the answer rather than a failure.
+      if (!comparingOutputStream.isDifferent()) {
+        throw ex;
+      }
+    } finally {
+      comparingOutputStream.close();
+    }
+    return !comparingOutputStream.isDifferent();
+  }
+
+  private void format(RdfToolkitOptions rdfToolkitOptions, OutputStream outputStream)
+      throws RdfToolkitFormattingException, IOException {
+    // A new factory for every file, so that the terms of one file are not kept while formatting the next one.
+    var valueFactory = new InterningValueFactory();
+    // The source is parsed against the base IRI as given, before any IRI replacement.
+    String sourceBaseIriString = rdfToolkitOptions.getBaseIriString();
+    IriRewriter iriRewriter = rdfToolkitOptions.getIriRewriter();
+    if (iriRewriter.hasRules()) {
+      // This is also the right time to do IRI replacement in the base URI, if appropriate
+      if (rdfToolkitOptions.getBaseIri() != null) {
+        String newBaseIriString = iriRewriter.rewrite(rdfToolkitOptions.getBaseIriString());
+        rdfToolkitOptions.setBaseIriString(newBaseIriString);
+        rdfToolkitOptions.setBaseIri(valueFactory.createIRI(newBaseIriString));
+      }
+    }
+
+    SortedRdfWriterFactory factory = new SortedRdfWriterFactory(
+        rdfToolkitOptions.getTargetFormat());
+    // Turtle & JSON-LD are encoded to UTF-8 in bulk by their own buffered writer.  RDF/XML keeps a Writer, which
+    // gives the encoding named in its XML declaration.
+    Writer targetWriter = null;
+    SortedRdfWriter rdfWriter;
+    if (rdfToolkitOptions.getTargetFormat() == TargetFormats.RDF_XML) {
+      targetWriter = new OutputStreamWriter(
+          outputStream,
+          StandardCharsets.UTF_8);
+      rdfWriter = (SortedRdfWriter) factory.getWriter(targetWriter, rdfToolkitOptions.getOptions());
+    } else {
+      rdfWriter = (SortedRdfWriter) factory.getWriter(outputStream, rdfToolkitOptions.getOptions());
+    }
+
+    // Infer the base URI, if requested
+    Consumer<IRI> inferredBaseIriConsumer = null;
+    if (rdfToolkitOptions.getInferBaseIri()) {
+      inferredBaseIriConsumer = inferredBaseIri -> {
+        rdfToolkitOptions.setBaseIri(inferredBaseIri);
+        rdfWriter.setBaseIri(inferredBaseIri);
+      };
+    }
+
+    // The statements are changed as they are parsed, and go straight into the writer.
+    var normalizingHandler = new NormalizingRdfHandler(
+        rdfWriter,
+        valueFactory,
+        iriRewriter,
+        inferredBaseIriConsumer);
+    parse(rdfToolkitOptions, sourceBaseIriString, valueFactory, normalizingHandler);
+    if (iriRewriter.hasRules()) {
+      LOGGER.info("Rewrote {} IRIs ({} distinct)", iriRewriter.getRewriteCount(),
+          iriRewriter.getDistinctRewriteCount());
+    }
+    // The RDF writer flushes its output at the end of the RDF.
+    if (targetWriter != null) {
+      targetWriter.flush();
+      targetWriter.close();
+    } else {
+      outputStream.close();
+    }
+  }
+
+  private void parse(RdfToolkitOptions rdfToolkitOptions, String baseIriString,
+      InterningValueFactory valueFactory, RDFHandler rdfHandler) throws RdfToolkitFormattingException {
+    try {
+      RDFParser parser = Rio.createParser(rdfToolkitOptions.getRdf4jSourceFormat(), valueFactory);
+      parser.setParserConfig(new ParserConfig());
+      parser.setParseErrorListener(new ParseErrorLogger());
+      parser.setRDFHandler(rdfHandler);
+      parser.parse(rdfToolkitOptions.getSourceInputStream(), baseIriString);
+      LOGGER.debug("Parsed with {} distinct shared terms", valueFactory.getDictionary().size());
+    } catch (RDFHandlerException t) {
+      // Not a problem with the input, but with writing the output.
+      throw t;
+    } catch (Exception t) {
+      String source = rdfToolkitOptions.getSourceFile() == null
+          ? "standard input"
+          : rdfToolkitOptions.getSourceFile().getAbsolutePath();
+      throw new RdfToolkitFormattingException(String.format("Unable to parse input file: %s", source), t);
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CACHE_FILE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CHECK;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CLIENT;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.MEMORY_BUDGET;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SERVER;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY_EXCLUDE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY_PATTERN;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_DIRECTORY;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_DIRECTORY_PATTERN;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.THREADS;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.edmcouncil.rdf_toolkit.RdfFormatter;
+import org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers which files have already been formatted, so that they can be skipped when they have not changed.
+ * <p>
+ * The manifest file holds, for each target file, a hash of everything the formatted output depends on (the source
+ * bytes, the source name, the formatting options and the tool version) and a hash of the output.  A file is up to
+ * date when the hash of its inputs is unchanged and the target file still has the output hash; this also covers files
+ * formatted in place which were already formatted.
+ * </p>
+ * <p>
+ * Looking up and updating files is thread-safe.  Only the files looked up in this run are kept when saving.
+ * </p>
+ */
+public class FormattingCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FormattingCache.class);
+  private static final String HEADER = "# rdf-toolkit formatting cache 1";
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Options which do not change the formatted content of a file.  The client option is among them, as the formatting
+   * server does not get it, and files formatted by the server must not look changed to a run without the server.
+   */
+  private static final Set<String> NON_FORMATTING_OPTIONS = Stream.of(
+      SOURCE_DIRECTORY, SOURCE_DIRECTORY_PATTERN, SOURCE_DIRECTORY_EXCLUDE, TARGET_DIRECTORY, TARGET_DIRECTORY_PATTERN,
+      THREADS, MEMORY_BUDGET, CACHE_FILE, CHECK, CLIENT, SERVER)
+      .map(CommandLineOption::getShortOpt)
+      .collect(Collectors.toSet());
+
+  private static class Entry {
+    private final String inputHash;
+    private final String outputHash;
+
+    Entry(String inputHash, String outputHash) {
+      this.inputHash = inputHash;
+      this.outputHash = outputHash;
+    }
+  }
+
+  private final Path manifestFile;
+  private final String optionsFingerprint;
+  private final Map<String, Entry> previousEntries;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private FormattingCache(Path manifestFile, String optionsFingerprint, Map<String, Entry> previousEntries) {
+    this.manifestFile = manifestFile;
+    this.optionsFingerprint = optionsFingerprint;
+    this.previousEntries = previousEntries;
+  }
+
+  /**
+   * Loads the cache from its manifest file.  A missing manifest file, or one written by an incompatible version, gives
+   * an empty cache.
+   *
+   * @param optionsFingerprint describes the formatting options; files formatted with other options are not up to date
+   */
+  public static FormattingCache load(Path manifestFile, String optionsFingerprint) throws IOException {
+    Map<String, Entry> previousEntries = new HashMap<>();
+    if (Files.exists(manifestFile)) {
+      try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+        if (HEADER.equals(reader.readLine())) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            String[] fields = line.split("\t", 3);
+            if (fields.length == 3) {
+              previousEntries.put(fields[2], new Entry(fields[0], fields[1]));
+            }
+          }
+        } else {
+          LOGGER.warn("Ignoring formatting cache in an unknown format: {}", manifestFile);
+        }
+      }
+    }
+    return new FormattingCache(manifestFile, optionsFingerprint, previousEntries);
+  }
+
+  /**
+   * Describes the command line options which change the formatted content of files, and the tool version.  The options
+   * are described in a fixed order, so that the order they are given in does not matter, apart from the order of the
+   * values of a repeated option.
+   */
+  public static String fingerprint(CommandLine commandLine) {
+    Map<String, List<String>> optionValues = new TreeMap<>();
+    for (Option option : commandLine.getOptions()) {
+      if (!NON_FORMATTING_OPTIONS.contains(option.getOpt())) {
+        List<String> values = optionValues.computeIfAbsent(option.getOpt(), opt -> new ArrayList<>());
+        if (option.getValue() != null) {
+          values.add(option.getValue());
+        }
+      }
+    }
+    String version = RdfFormatter.class.getPackage().getImplementationVersion();
+    return String.format("version=%s options=%s", version == null ? "development" : version, optionValues);
+  }
+
+  /**
+   * Returns the hash of everything the formatted output of the file depends on.  This is read before formatting, as
+   * the source may be the target.
+   */
+  public String hashInput(BatchFormatter.BatchFile batchFile) throws IOException {
+    MessageDigest digest = newDigest();
+    digest.update(optionsFingerprint.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(batchFile.getSourceName().getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    return hashFile(digest, batchFile.getSourceFile());
+  }
+
+  /**
+   * Returns whether the target file already holds the formatted source, in which case it is kept in the cache.
+   *
+   * @param inputHash the hash of the inputs, from {@link #hashInput(BatchFormatter.BatchFile)}
+   */
+  public boolean isUpToDate(BatchFormatter.BatchFile batchFile, String inputHash) throws IOException {
+    Entry entry = previousEntries.get(batchFile.getTargetName());
+    if ((entry == null) || !entry.inputHash.equals(inputHash) || !batchFile.getTargetFile().isFile()
+        || !entry.outputHash.equals(hashFile(newDigest(), batchFile.getTargetFile()))) {
+      return false;
+    }
+    entries.put(batchFile.getTargetName(), entry);
+    return true;
+  }
+
+  /**
+   * Records that the file has been formatted.
+   *
+   * @param inputHash the hash of the inputs, from before formatting
+   */
+  public void update(BatchFormatter.BatchFile batchFile, String inputHash) throws IOException {
+    entries.put(batchFile.getTargetName(), new Entry(inputHash, hashFile(newDigest(), batchFile.getTargetFile())));
+  }
+
+  /**
+   * Writes the files looked up in this run to the manifest file.  The manifest file is replaced in one step, so that a
+   * run which is stopped leaves the previous manifest file.
+   */
+  public void save() throws IOException {
+    Path manifestDir = manifestFile.toAbsolutePath().getParent();
+    Files.createDirectories(manifestDir);
+    Path tempFile = Files.createTempFile(manifestDir, manifestFile.getFileName().toString(), ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Map.Entry<String, Entry> entry : new TreeMap<>(entries).entrySet()) {
+          writer.write(entry.getValue().inputHash);
+          writer.write('\t');
+          writer.write(entry.getValue().outputHash);
+          writer.write('\t');
+          writer.write(entry.getKey());
+          writer.write('\n');
+        }
+      }
+      Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException ex) {
+      // Every Java platform supports SHA-256.
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static String hashFile(MessageDigest digest, File file) throws IOException {
+    try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int count;
+      while ((count = inputStream.read(buffer)) != -1) {
+        digest.update(buffer, 0, count);
+      }
+    }
+    StringBuilder hash = new StringBuilder();
+    for (byte hashByte : digest.digest()) {
+      hash.append(String.format("%02x", hashByte));
+    }
+    return hash.toString();
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CACHE_FILE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CLIENT;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_LIST;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_DIRECTORY;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends formatting requests to a running {@link FormattingServer}.
+ */
+public class FormattingClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FormattingClient.class);
+  private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+
+  /**
+   * Options whose values are file paths, which are made absolute, as the server has its own working directory.
+   */
+  private static final Set<String> PATH_OPTIONS = Stream.of(SOURCE, TARGET, SOURCE_DIRECTORY, TARGET_DIRECTORY,
+      CACHE_FILE)
+      .map(CommandLineOption::getShortOpt)
+      .collect(Collectors.toSet());
+
+  private final Path serverFile;
+
+  /**
+   * @param serverFile the file written by the server, with its port and key
+   */
+  public FormattingClient(Path serverFile) {
+    this.serverFile = serverFile;
+  }
+
+  /**
+   * Has the server format as given by the command line.
+   *
+   * @return the exit status, or nothing if no server could be reached, in which case nothing has been formatted
+   */
+  public OptionalInt format(CommandLine commandLine) {
+    return format(commandLine, null);
+  }
+
+  /**
+   * Has the server format as given by the command line, but with the given source files instead of the source and
+   * source list options.
+   *
+   * @param sourceFiles the source files to format, or null to send the source options as given
+   * @return the exit status, or nothing if no server could be reached, in which case nothing has been formatted
+   */
+  public OptionalInt format(CommandLine commandLine, List<File> sourceFiles) {
+    if (!Files.isRegularFile(serverFile)) {
+      LOGGER.debug("No formatting server file: {}", serverFile);
+      return OptionalInt.empty();
+    }
+    try {
+      var properties = new Properties();
+      try (InputStream inputStream = Files.newInputStream(serverFile)) {
+        properties.load(inputStream);
+      }
+      int port = Integer.parseInt(properties.getProperty(FormattingServer.PORT_PROPERTY, "-1"));
+      String key = properties.getProperty(FormattingServer.KEY_PROPERTY, "");
+
+      try (var socket = new Socket()) {
+        socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+        var output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        var input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+        List<String> args = serverArguments(commandLine, sourceFiles);
+        output.writeInt(FormattingServer.PROTOCOL_VERSION);
+        output.writeUTF(key);
+        output.writeInt(args.size());
+        for (String arg : args) {
+          output.writeUTF(arg);
+        }
+        output.flush();
+
+        int status = input.readInt();
+        String message = input.readUTF();
+        if (!message.isEmpty()) {
+          LOGGER.error(message);
+        }
+        return OptionalInt.of(status);
+      }
+    } catch (IOException | IllegalArgumentException ex) {
+      LOGGER.info("Formatting server not available, formatting in this process: {}", ex.getMessage());
+      return OptionalInt.empty();
+    }
+  }
+
+  /**
+   * Returns the arguments to send to the server: all the options but the client option, with absolute file paths.
+   * Each option is given by its long name, joined to its value, so that values starting with '-' are kept.
+   *
+   * @param sourceFiles the source files, which replace the source and source list options; or null
+   */
+  static List<String> serverArguments(CommandLine commandLine, List<File> sourceFiles) {
+    List<String> args = new ArrayList<>();
+    for (Option option : commandLine.getOptions()) {
+      if (CLIENT.getShortOpt().equals(option.getOpt())) {
+        continue;
+      }
+      if ((sourceFiles != null)
+          && (SOURCE.getShortOpt().equals(option.getOpt()) || SOURCE_LIST.getShortOpt().equals(option.getOpt()))) {
+        continue;
+      }
+      if (!option.hasArg()) {
+        args.add("--" + option.getLongOpt());
+        continue;
+      }
+      String value = option.getValue();
+      if (PATH_OPTIONS.contains(option.getOpt())) {
+        value = new File(value).getAbsolutePath();
+      }
+      args.add("--" + option.getLongOpt() + "=" + value);
+    }
+    if (sourceFiles != null) {
+      for (File sourceFile : sourceFiles) {
+        args.add("--" + SOURCE.getLongOpt() + "=" + sourceFile.getAbsolutePath());
+      }
+    }
+    return args;
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CLIENT;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SERVER;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Properties;
+import org.apache.commons.cli.DefaultParser;
+import org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Formats files for {@link FormattingClient}s, so that each formatting run does not pay for starting a Java virtual
+ * machine and warming up its code.
+ * <p>
+ * The server only listens on the loopback address.  Its port, and a random key which clients must send with each
+ * request, are written to the server file, which only the user running the server can read where the file system
+ * supports it.  Requests are formatted one at a time, each as a separate run of {@link RdfToolkitRunner}; a directory
+ * request still uses several threads.
+ * </p>
+ * <p>
+ * A request is the protocol version, the key, and the command line arguments; the response is the exit status and an
+ * error message, which is empty when formatting succeeded.  File paths in the arguments must be absolute, and there can
+ * be at most {@link #MAX_ARGUMENT_COUNT} arguments.
+ * </p>
+ */
+public class FormattingServer implements AutoCloseable {
+
+  static final int PROTOCOL_VERSION = 1;
+  static final String PORT_PROPERTY = "port";
+  static final String KEY_PROPERTY = "key";
+  /**
+   * Largest number of arguments in a request; a source list is sent as one argument per source file.
+   */
+  static final int MAX_ARGUMENT_COUNT = 1 << 20;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FormattingServer.class);
+  private static final int KEY_LENGTH = 32;
+  private static final int REQUEST_TIMEOUT_MILLIS = 30_000;
+
+  private final Path serverFile;
+  private final String key;
+  private final ServerSocket serverSocket;
+  private volatile boolean closed = false;
+
+  /**
+   * Starts listening, and writes the server file.  Requests are only handled once {@link #run()} is called.
+   */
+  public FormattingServer(Path serverFile) throws IOException {
+    this.serverFile = serverFile.toAbsolutePath();
+    this.key = newKey();
+    this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    try {
+      writeServerFile();
+    } catch (IOException ex) {
+      serverSocket.close();
+      throw ex;
+    }
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Handles requests until the server is closed.
+   */
+  public void run() throws IOException {
+    LOGGER.info("Formatting server listening on port {}, server file: {}", getPort(), serverFile);
+    while (!closed) {
+      try (Socket socket = serverSocket.accept()) {
+        handleRequest(socket);
+      } catch (SocketException ex) {
+        if (!closed) {
+          throw ex;
+        }
+      } catch (IOException | RuntimeException ex) {
+        // only this request is lost; the server goes on with the next one
+        LOGGER.warn("Unable to handle formatting request: {}", ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Stops listening, and removes the server file.  A request being handled is finished first.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      serverSocket.close();
+    } finally {
+      Files.deleteIfExists(serverFile);
+    }
+  }
+
+  private void handleRequest(Socket socket) throws IOException {
+    socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+    var input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    var output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+    int protocolVersion = input.readInt();
+    if (protocolVersion != PROTOCOL_VERSION) {
+      respond(output, 1, String.format("Unsupported protocol version %d; the server uses version %d",
+          protocolVersion, PROTOCOL_VERSION));
+      return;
+    }
+    String requestKey = input.readUTF();
+    if (!MessageDigest.isEqual(key.getBytes(StandardCharsets.UTF_8), requestKey.getBytes(StandardCharsets.UTF_8))) {
+      LOGGER.warn("Rejected formatting request with the wrong key");
+      respond(output, 1, "Wrong server key");
+      return;
+    }
+    int argumentCount = input.readInt();
+    if ((argumentCount < 0) || (argumentCount > MAX_ARGUMENT_COUNT)) {
+      LOGGER.warn("Rejected formatting request with {} arguments", argumentCount);
+      respond(output, 1, String.format("Argument count must be between 0 and %d: %d", MAX_ARGUMENT_COUNT,
+          argumentCount));
+      return;
+    }
+    String[] args = new String[argumentCount];
+    for (int index = 0; index < args.length; index++) {
+      args[index] = input.readUTF();
+    }
+    socket.setSoTimeout(0);
+
+    int status;
+    String message = "";
+    try {
+      var commandLine = new DefaultParser().parse(CommandLineOption.prepareOptions(), args);
+      if (commandLine.hasOption(SERVER.getShortOpt()) || commandLine.hasOption(CLIENT.getShortOpt())) {
+        status = 1;
+        message = "Server and client options cannot be sent to a server";
+      } else {
+        status = new RdfToolkitRunner().run(args);
+        if (status != 0) {
+          message = "Formatting failed; see the server log for details";
+        }
+      }
+    } catch (Exception ex) {
+      LOGGER.error("Formatting request stopped by unexpected exception: ");
+      LOGGER.error("{}: {}", ex.getClass().getSimpleName(), ex.getMessage());
+      var stackTraceWriter = new StringWriter();
+      ex.printStackTrace(new PrintWriter(stackTraceWriter));
+      LOGGER.error(stackTraceWriter.toString());
+      status = 1;
+      message = String.format("%s: %s", ex.getClass().getSimpleName(), ex.getMessage());
+    }
+    respond(output, status, message);
+  }
+
+  private static void respond(DataOutputStream output, int status, String message) throws IOException {
+    output.writeInt(status);
+    output.writeUTF(message);
+    output.flush();
+  }
+
+  private void writeServerFile() throws IOException {
+    var properties = new Properties();
+    properties.setProperty(PORT_PROPERTY, Integer.toString(getPort()));
+    properties.setProperty(KEY_PROPERTY, key);
+
+    Path serverDir = serverFile.getParent();
+    Files.createDirectories(serverDir);
+    Path tempFile;
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      tempFile = Files.createTempFile(serverDir, serverFile.getFileName().toString(), ".tmp",
+          PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } else {
+      tempFile = Files.createTempFile(serverDir, serverFile.getFileName().toString(), ".tmp");
+    }
+    try {
+      try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+        properties.store(outputStream, "rdf-toolkit formatting server");
+      }
+      Files.move(tempFile, serverFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private static String newKey() {
+    byte[] keyBytes = new byte[KEY_LENGTH];
+    new SecureRandom().nextBytes(keyBytes);
+    StringBuilder keyString = new StringBuilder();
+    for (byte keyByte : keyBytes) {
+      keyString.append(String.format("%02x", keyByte));
+    }
+    return keyString.toString();
+  }
+}
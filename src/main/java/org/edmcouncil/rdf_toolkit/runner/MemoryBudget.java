@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+/**
+ * A fixed amount of memory shared by the files being formatted at the same time.  Formatting a file only starts once
+ * its estimated memory has been acquired, and releases it again when done.
+ */
+public class MemoryBudget {
+
+  private final long total;
+  private long available;
+
+  /**
+   * @param total the total memory, in bytes
+   */
+  public MemoryBudget(long total) {
+    if (total <= 0) {
+      throw new IllegalArgumentException(String.format("memory budget must be positive: %d", total));
+    }
+    this.total = total;
+    this.available = total;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * Waits until the given amount of memory is available, and takes it.  An amount larger than the whole budget is
+   * reduced to the whole budget, so that it can still be acquired, once nothing else is.
+   *
+   * @return the amount actually acquired, which must be passed to {@link #release(long)}
+   */
+  public synchronized long acquire(long amount) throws InterruptedException {
+    long acquired = Math.min(amount, total);
+    while (available < acquired) {
+      wait();
+    }
+    available -= acquired;
+    return acquired;
+  }
+
+  /**
+   * Gives back memory taken by {@link #acquire(long)}.
+   */
+  public synchronized void release(long acquired) {
+    available += acquired;
+    notifyAll();
+  }
+}
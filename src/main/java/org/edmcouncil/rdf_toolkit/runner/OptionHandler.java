@@ -25,45 +25,66 @@
 package org.edmcouncil.rdf_toolkit.runner;
 
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.BASE_IRI;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CHECK;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.COMPACT_TRIPLE_STORE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.COMPARATOR_CACHE_SIZE;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.INDENT;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.IN_PLACE;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.INFER_BASE_IRI;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.INLINE_BLANK_NODES;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.LEADING_COMMENT;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.LINE_END;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.MEMORY_BUDGET;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.OMIT_XMLNS_NAMESPACE;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.OVERRIDE_STRING_LANGUAGE;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SHORT_IRI_PRIORITY;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY_PATTERN;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_FILE_PATTERN;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_FORMAT;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_LIST;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.STRING_DATA_TYPING;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SUPPRESS_NAMED_INDIVIDUALS;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_DIRECTORY;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_DIRECTORY_PATTERN;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_FILE_PATTERN;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_FORMAT;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.THREADS;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TRAILING_COMMENT;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.USE_DEFAULT_LANGUAGE;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.USE_DTD_SUBSET;
 import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.PRINT_USAGE_AND_EXIT;
 import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.RUN_ON_DIRECTORY;
+import static org.edmcouncil.rdf_toolkit.runner.constant.RunningMode.RUN_ON_FILES;
 import org.apache.commons.cli.CommandLine;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.Rio;
+import org.edmcouncil.rdf_toolkit.comparator.CachedResourceComparator;
 import org.edmcouncil.rdf_toolkit.io.format.SourceFormats;
 import org.edmcouncil.rdf_toolkit.io.format.TargetFormats;
 import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitOptionHandlingException;
+import org.edmcouncil.rdf_toolkit.util.IriRewriter;
 import org.edmcouncil.rdf_toolkit.util.ShortIriPreferences;
 import org.edmcouncil.rdf_toolkit.util.StringDataTypeOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
 
 public class OptionHandler {
 
@@ -100,21 +121,30 @@ public class OptionHandler {
   }
 
   public void handleIriReplacementOptions() throws RdfToolkitOptionHandlingException {
-    String iriPattern;
-    String iriReplacement;
-    // Check if there is a valid URI pattern/replacement pair
+    // Check if there are valid URI pattern/replacement pairs
     if (commandLine.hasOption("ip")) {
       if (commandLine.hasOption("ir")) {
-        if (commandLine.getOptionValue("ip").length() < 1) {
+        String[] iriPatterns = commandLine.getOptionValues("ip");
+        String[] iriReplacements = commandLine.getOptionValues("ir");
+        if (iriPatterns.length != iriReplacements.length) {
           throw new RdfToolkitOptionHandlingException(
-              "An IRI pattern cannot be an empty string.  Use --help for help.");
+              "Every IRI pattern must have exactly one IRI replacement.  Use --help for help.");
         }
 
-        iriPattern = commandLine.getOptionValue("ip");
-        rdfToolkitOptions.setIriPattern(iriPattern);
-
-        iriReplacement = commandLine.getOptionValue("ir");
-        rdfToolkitOptions.setIriReplacement(iriReplacement);
+        var iriRewriter = new IriRewriter();
+        for (int index = 0; index < iriPatterns.length; index++) {
+          if (iriPatterns[index].length() < 1) {
+            throw new RdfToolkitOptionHandlingException(
+                "An IRI pattern cannot be an empty string.  Use --help for help.");
+          }
+          try {
+            iriRewriter.addRule(iriPatterns[index], iriReplacements[index]);
+          } catch (PatternSyntaxException ex) {
+            throw new RdfToolkitOptionHandlingException(
+                "Invalid IRI pattern: " + ex.getMessage());
+          }
+        }
+        rdfToolkitOptions.setIriRewriter(iriRewriter);
       } else {
         throw new RdfToolkitOptionHandlingException(
             "If an IRI pattern is specified, an IRI replacement must also be specified.  Use --help for help.");
@@ -174,9 +204,10 @@ public class OptionHandler {
         rdfToolkitOptions.setRunningMode(PRINT_USAGE_AND_EXIT);
       }
       if (commandLine.hasOption(SOURCE.getShortOpt())
+          || commandLine.hasOption(SOURCE_LIST.getShortOpt())
           || commandLine.hasOption(TARGET.getShortOpt())) {
-        LOGGER.error("Source (-s or --source) and target (-t or --target) options cannot be used together with "
-            + "directory processing options.");
+        LOGGER.error("Source (-s or --source), source list (-sl or --source-list) and target (-t or --target) options "
+            + "cannot be used together with directory processing options.");
         rdfToolkitOptions.setRunningMode(PRINT_USAGE_AND_EXIT);
       }
       if (!commandLine.hasOption(SOURCE_FORMAT.getShortOpt())
@@ -192,6 +223,70 @@ public class OptionHandler {
     }
   }
 
+  public void handleRunningOnFiles(CommandLine commandLine, RdfToolkitOptions rdfToolkitOptions) {
+    // Check if the command-line options suggest that several files are to be formatted
+    String[] sources = commandLine.getOptionValues(SOURCE.getShortOpt());
+    if ((sources != null && sources.length > 1)
+        || commandLine.hasOption(SOURCE_LIST.getShortOpt())
+        || commandLine.hasOption(SOURCE_FILE_PATTERN.getShortOpt())
+        || commandLine.hasOption(TARGET_FILE_PATTERN.getShortOpt())
+        || commandLine.hasOption(IN_PLACE.getShortOpt())) {
+      if (commandLine.hasOption(TARGET.getShortOpt())) {
+        LOGGER.error("The target (-t or --target) option cannot be used together with multiple file processing "
+            + "options; use -inp (--in-place), or -sfp (--source-file-pattern) and -tfp (--target-file-pattern).");
+        rdfToolkitOptions.setRunningMode(PRINT_USAGE_AND_EXIT);
+      }
+      boolean hasTargetFilePatterns = commandLine.hasOption(SOURCE_FILE_PATTERN.getShortOpt())
+          || commandLine.hasOption(TARGET_FILE_PATTERN.getShortOpt());
+      if (commandLine.hasOption(IN_PLACE.getShortOpt())) {
+        if (hasTargetFilePatterns) {
+          LOGGER.error("The in-place (-inp or --in-place) option cannot be used together with the file pattern "
+              + "options: -sfp (--source-file-pattern), -tfp (--target-file-pattern)");
+          rdfToolkitOptions.setRunningMode(PRINT_USAGE_AND_EXIT);
+        }
+      } else if (!commandLine.hasOption(SOURCE_FILE_PATTERN.getShortOpt())
+          || !commandLine.hasOption(TARGET_FILE_PATTERN.getShortOpt())) {
+        LOGGER.error("Several source files are written either in place, using -inp (--in-place), or using both "
+            + "-sfp (--source-file-pattern) and -tfp (--target-file-pattern)");
+        rdfToolkitOptions.setRunningMode(PRINT_USAGE_AND_EXIT);
+      }
+
+      if (rdfToolkitOptions.getRunningMode() == null) {
+        rdfToolkitOptions.setRunningMode(RUN_ON_FILES);
+      }
+    }
+  }
+
+  /**
+   * Collects the source files to format, from the source options and the source list, in the order given.
+   */
+  public List<File> handleSourceFiles() throws RdfToolkitOptionHandlingException {
+    List<File> sourceFiles = new ArrayList<>();
+    if (commandLine.hasOption(SOURCE.getShortOpt())) {
+      for (String sourceFilePath : commandLine.getOptionValues(SOURCE.getShortOpt())) {
+        sourceFiles.add(new File(sourceFilePath));
+      }
+    }
+    if (commandLine.hasOption(SOURCE_LIST.getShortOpt())) {
+      String sourceListPath = commandLine.getOptionValue(SOURCE_LIST.getShortOpt());
+      try (BufferedReader reader = "-".equals(sourceListPath)
+          ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+          : Files.newBufferedReader(Paths.get(sourceListPath), StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (!line.isBlank()) {
+            sourceFiles.add(new File(line.strip()));
+          }
+        }
+      } catch (IOException ex) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Unable to read source list: %s: %s", sourceListPath, ex.getMessage()));
+      }
+    }
+    rdfToolkitOptions.setSourceFiles(sourceFiles);
+    return sourceFiles;
+  }
+
   public void handleSourceFormat(File sourceFile) throws RdfToolkitOptionHandlingException {
     SourceFormats sourceFormat;
     if (commandLine.hasOption(SOURCE_FORMAT.getShortOpt())) {
@@ -252,6 +347,14 @@ public class OptionHandler {
 
       rdfToolkitOptions.setTargetFile(targetFile);
       rdfToolkitOptions.setShouldUseStandardOutputStream(false);
+    } else if (commandLine.hasOption(CHECK.getShortOpt())) {
+      // Without a target file, the source file is checked.
+      if (rdfToolkitOptions.getSourceFile() == null) {
+        throw new RdfToolkitOptionHandlingException(
+            "A source (--source or -s) or target (--target or -t) file must be given to check.");
+      }
+      rdfToolkitOptions.setTargetFile(rdfToolkitOptions.getSourceFile());
+      rdfToolkitOptions.setShouldUseStandardOutputStream(false);
     } else {
       rdfToolkitOptions.setShouldUseStandardOutputStream(true);
     }
@@ -400,4 +503,69 @@ public class OptionHandler {
     }
     rdfToolkitOptions.setDefaultLanguage(defaultLanguage);
   }
+
+  public void handleComparatorCacheSize() throws RdfToolkitOptionHandlingException {
+    if (commandLine.hasOption(COMPARATOR_CACHE_SIZE.getShortOpt())) {
+      String comparatorCacheSize = commandLine.getOptionValue(COMPARATOR_CACHE_SIZE.getShortOpt());
+      try {
+        rdfToolkitOptions.setComparatorCacheSize(Integer.parseInt(comparatorCacheSize.trim()));
+      } catch (NumberFormatException ex) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Comparator cache size is not a number: %s", comparatorCacheSize));
+      }
+      if (rdfToolkitOptions.getComparatorCacheSize() < 0) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Comparator cache size cannot be negative: %s", comparatorCacheSize));
+      }
+      if (rdfToolkitOptions.getComparatorCacheSize() > CachedResourceComparator.MAX_CACHE_SIZE) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Comparator cache size cannot be more than %d: %s", CachedResourceComparator.MAX_CACHE_SIZE,
+                comparatorCacheSize));
+      }
+    }
+  }
+
+  public void handleCompactTripleStore() {
+    boolean useCompactTripleStore = commandLine.hasOption(COMPACT_TRIPLE_STORE.getShortOpt());
+    rdfToolkitOptions.setUseCompactTripleStore(useCompactTripleStore);
+  }
+
+  public void handleCheck() {
+    boolean check = commandLine.hasOption(CHECK.getShortOpt());
+    rdfToolkitOptions.setCheck(check);
+  }
+
+  public void handleThreadCount() throws RdfToolkitOptionHandlingException {
+    if (commandLine.hasOption(THREADS.getShortOpt())) {
+      String threadCount = commandLine.getOptionValue(THREADS.getShortOpt());
+      try {
+        rdfToolkitOptions.setThreadCount(Integer.parseInt(threadCount.trim()));
+      } catch (NumberFormatException ex) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Thread count is not a number: %s", threadCount));
+      }
+      if (rdfToolkitOptions.getThreadCount() < 1) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Thread count must be at least 1: %s", threadCount));
+      }
+    }
+  }
+
+  public void handleMemoryBudget() throws RdfToolkitOptionHandlingException {
+    if (commandLine.hasOption(MEMORY_BUDGET.getShortOpt())) {
+      String memoryBudget = commandLine.getOptionValue(MEMORY_BUDGET.getShortOpt());
+      long memoryBudgetInMegabytes;
+      try {
+        memoryBudgetInMegabytes = Long.parseLong(memoryBudget.trim());
+      } catch (NumberFormatException ex) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Memory budget is not a number: %s", memoryBudget));
+      }
+      if (memoryBudgetInMegabytes < 1) {
+        throw new RdfToolkitOptionHandlingException(
+            String.format("Memory budget must be at least 1 MB: %s", memoryBudget));
+      }
+      rdfToolkitOptions.setMemoryBudget(memoryBudgetInMegabytes * 1024L * 1024L);
+    }
+  }
 }
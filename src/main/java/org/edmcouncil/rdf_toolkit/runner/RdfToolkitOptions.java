@@ -25,6 +25,8 @@
 package org.edmcouncil.rdf_toolkit.runner;
 
 import static org.edmcouncil.rdf_toolkit.util.Constants.BASE_IRI;
+import static org.edmcouncil.rdf_toolkit.util.Constants.COMPARATOR_CACHE_SIZE;
+import static org.edmcouncil.rdf_toolkit.util.Constants.USE_COMPACT_TRIPLE_STORE;
 import static org.edmcouncil.rdf_toolkit.util.Constants.USE_DEFAULT_LANGUAGE;
 import static org.edmcouncil.rdf_toolkit.util.Constants.INDENT;
 import static org.edmcouncil.rdf_toolkit.util.Constants.INLINE_BLANK_NODES;
@@ -41,12 +43,15 @@ import static org.edmcouncil.rdf_toolkit.util.Constants.USE_DTD_SUBSET;
 import java.io.File;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.commons.cli.CommandLine;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.edmcouncil.rdf_toolkit.comparator.CachedResourceComparator;
 import org.edmcouncil.rdf_toolkit.io.format.TargetFormats;
 import org.edmcouncil.rdf_toolkit.runner.constant.RunningMode;
+import org.edmcouncil.rdf_toolkit.util.IriRewriter;
 import org.edmcouncil.rdf_toolkit.util.ShortIriPreferences;
 import org.edmcouncil.rdf_toolkit.util.StringDataTypeOptions;
 
@@ -56,14 +61,14 @@ public class RdfToolkitOptions {
   private String output;
   private RunningMode runningMode;
   private CommandLine commandLine;
-  private String iriPattern;
-  private String iriReplacement;
+  private IriRewriter iriRewriter = new IriRewriter();
   private TargetFormats targetFormat;
   private File targetFile;
   private boolean shouldUseStandardOutputStream;
   private String baseIriString;
   private IRI baseIri;
   private File sourceFile;
+  private List<File> sourceFiles;
   private InputStream sourceInputStream;
   private boolean inferBaseIri;
   private boolean inlineBlankNodes;
@@ -79,11 +84,55 @@ public class RdfToolkitOptions {
   private boolean omitXmlnsNamespace;
   private boolean suppressNamedIndividuals;
   private String defaultLanguage;
+  private int comparatorCacheSize = CachedResourceComparator.DEFAULT_CACHE_SIZE;
+  private boolean useCompactTripleStore;
+  private boolean check;
+  private int threadCount = Runtime.getRuntime().availableProcessors();
+  private long memoryBudget = Runtime.getRuntime().maxMemory() / 4 * 3;
 
   public RdfToolkitOptions(String[] args) {
     this.args = args;
   }
 
+  /**
+   * Copies the options, e.g. to format one file of a directory with the options given for the directory.  The IRI
+   * rewriter is copied as well, as it is not thread-safe.
+   */
+  public RdfToolkitOptions(RdfToolkitOptions options) {
+    this.args = options.args;
+    this.output = options.output;
+    this.runningMode = options.runningMode;
+    this.commandLine = options.commandLine;
+    this.iriRewriter = options.iriRewriter.copy();
+    this.targetFormat = options.targetFormat;
+    this.targetFile = options.targetFile;
+    this.shouldUseStandardOutputStream = options.shouldUseStandardOutputStream;
+    this.baseIriString = options.baseIriString;
+    this.baseIri = options.baseIri;
+    this.sourceFile = options.sourceFile;
+    this.sourceFiles = options.sourceFiles;
+    this.sourceInputStream = options.sourceInputStream;
+    this.inferBaseIri = options.inferBaseIri;
+    this.inlineBlankNodes = options.inlineBlankNodes;
+    this.useDtdSubset = options.useDtdSubset;
+    this.stringDataTypeOption = options.stringDataTypeOption;
+    this.indent = options.indent;
+    this.shortUriPref = options.shortUriPref;
+    this.rdf4jSourceFormat = options.rdf4jSourceFormat;
+    this.leadingComments = options.leadingComments;
+    this.trailingComments = options.trailingComments;
+    this.overrideStringLanguage = options.overrideStringLanguage;
+    this.lineEnd = options.lineEnd;
+    this.omitXmlnsNamespace = options.omitXmlnsNamespace;
+    this.suppressNamedIndividuals = options.suppressNamedIndividuals;
+    this.defaultLanguage = options.defaultLanguage;
+    this.comparatorCacheSize = options.comparatorCacheSize;
+    this.useCompactTripleStore = options.useCompactTripleStore;
+    this.check = options.check;
+    this.threadCount = options.threadCount;
+    this.memoryBudget = options.memoryBudget;
+  }
+
   public String[] getArgs() {
     return args;
   }
@@ -111,6 +160,8 @@ public class RdfToolkitOptions {
     options.put(OMIT_XMLNS_NAMESPACE, getOmitXmlnsNamespace());
     options.put(SUPPRESS_NAMED_INDIVIDUALS, getSuppressNamedIndividuals());
     options.put(USE_DEFAULT_LANGUAGE, getDefaultLanguage());
+    options.put(COMPARATOR_CACHE_SIZE, getComparatorCacheSize());
+    options.put(USE_COMPACT_TRIPLE_STORE, getUseCompactTripleStore());
     return options;
   }
 
@@ -170,6 +221,17 @@ public class RdfToolkitOptions {
     this.sourceFile = sourceFile;
   }
 
+  /**
+   * Returns the source files when formatting several files, or null otherwise.
+   */
+  public List<File> getSourceFiles() {
+    return sourceFiles;
+  }
+
+  public void setSourceFiles(List<File> sourceFiles) {
+    this.sourceFiles = sourceFiles;
+  }
+
   public String getBaseIriString() {
     return baseIriString;
   }
@@ -186,20 +248,12 @@ public class RdfToolkitOptions {
     this.baseIri = baseIri;
   }
 
-  public String getIriPattern() {
-    return iriPattern;
-  }
-
-  public void setIriPattern(String iriPattern) {
-    this.iriPattern = iriPattern;
+  public IriRewriter getIriRewriter() {
+    return iriRewriter;
   }
 
-  public String getIriReplacement() {
-    return iriReplacement;
-  }
-
-  public void setIriReplacement(String iriReplacement) {
-    this.iriReplacement = iriReplacement;
+  public void setIriRewriter(IriRewriter iriRewriter) {
+    this.iriRewriter = iriRewriter;
   }
 
   public boolean getInferBaseIri() {
@@ -313,4 +367,50 @@ public class RdfToolkitOptions {
   public void setDefaultLanguage(String defaultLanguage) {
     this.defaultLanguage = defaultLanguage;
   }
-}
\ No newline at end of file
+
+  public int getComparatorCacheSize() {
+    return comparatorCacheSize;
+  }
+
+  public void setComparatorCacheSize(int comparatorCacheSize) {
+    this.comparatorCacheSize = comparatorCacheSize;
+  }
+
+  public boolean getUseCompactTripleStore() {
+    return useCompactTripleStore;
+  }
+
+  public void setUseCompactTripleStore(boolean useCompactTripleStore) {
+    this.useCompactTripleStore = useCompactTripleStore;
+  }
+
+  /**
+   * Returns whether the target files are only checked to hold the formatted source files, rather than written.
+   */
+  public boolean getCheck() {
+    return check;
+  }
+
+  public void setCheck(boolean check) {
+    this.check = check;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public void setThreadCount(int threadCount) {
+    this.threadCount = threadCount;
+  }
+
+  /**
+   * Returns the memory budget for formatting files at the same time, in bytes.
+   */
+  public long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  public void setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+  }
+}
@@ -24,51 +24,40 @@
 
 package org.edmcouncil.rdf_toolkit.runner;
 
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CACHE_FILE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.CLIENT;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.IN_PLACE;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SERVER;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY_EXCLUDE;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_DIRECTORY_PATTERN;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.SOURCE_FILE_PATTERN;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_DIRECTORY;
 import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_DIRECTORY_PATTERN;
+import static org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption.TARGET_FILE_PATTERN;
 
 import com.jcabi.manifests.Manifests;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.OptionalInt;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.HelpFormatter;
-import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
-import org.eclipse.rdf4j.model.IRI;
-import org.eclipse.rdf4j.model.Literal;
-import org.eclipse.rdf4j.model.Model;
-import org.eclipse.rdf4j.model.Namespace;
-import org.eclipse.rdf4j.model.Resource;
-import org.eclipse.rdf4j.model.Statement;
-import org.eclipse.rdf4j.model.Value;
-import org.eclipse.rdf4j.model.ValueFactory;
-import org.eclipse.rdf4j.model.impl.TreeModel;
-import org.eclipse.rdf4j.rio.RDFWriter;
-import org.eclipse.rdf4j.rio.Rio;
-import org.eclipse.rdf4j.sail.memory.model.MemValueFactory;
 import org.edmcouncil.rdf_toolkit.RdfFormatter;
 import org.edmcouncil.rdf_toolkit.io.DirectoryWalker;
 import org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption;
+import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitFormattingException;
 import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitOptionHandlingException;
-import org.edmcouncil.rdf_toolkit.util.Constants;
-import org.edmcouncil.rdf_toolkit.writer.SortedRdfWriterFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,14 +66,18 @@ public class RdfToolkitRunner {
   private static final Logger LOGGER = LoggerFactory.getLogger(RdfToolkitRunner.class);
 
   private final Options options;
-  private final ValueFactory valueFactory;
 
   public RdfToolkitRunner() {
     this.options = CommandLineOption.prepareOptions();
-    this.valueFactory = new MemValueFactory();
   }
 
-  public void run(String[] args) throws Exception {
+  /**
+   * Runs as given by the command line arguments.
+   *
+   * @return the exit status, which is 0 unless the source file could not be formatted, a checked target file does not
+   *         hold the formatted source, or, for a client, the server could not format it
+   */
+  public int run(String[] args) throws Exception {
     var commandLineArgumentsHandler = new CommandLineArgumentsHandler();
     var rdfToolkitOptions = commandLineArgumentsHandler.handleArguments(args);
 
@@ -92,228 +85,211 @@ public class RdfToolkitRunner {
       case PRINT_USAGE_AND_EXIT:
       case EXIT:
         // Usage was already printed, so we don't need to do it now
-        return;
+        return 0;
       case PRINT_AND_EXIT:
         System.out.println(rdfToolkitOptions.getOutput());
-        break;
-      case RUN_ON_DIRECTORY:
+        return 0;
+      case RUN_SERVER:
+        runServer(rdfToolkitOptions);
+        return 0;
+      case RUN_ON_DIRECTORY: {
+        OptionalInt serverStatus = runOnServer(rdfToolkitOptions);
+        if (serverStatus.isPresent()) {
+          return serverStatus.getAsInt();
+        }
         // Run the serializer over a directory of files
-        runOnDirectory(rdfToolkitOptions.getCommandLine());
-        break;
-      case RUN_ON_FILE:
-        runOnFile(rdfToolkitOptions);
-        break;
-      default:
-        throw new RdfToolkitOptionHandlingException(
-            "Unknown running mode: " + rdfToolkitOptions.getRunningMode());
-    }
-  }
-
-  private void runOnFile(RdfToolkitOptions rdfToolkitOptions) throws Exception {
-    var sourceModel = readModel(rdfToolkitOptions);
-    boolean isIriPatternAndIriReplacementNotNull = (rdfToolkitOptions.getIriPattern() != null)
-        && (rdfToolkitOptions.getIriReplacement() != null);
-
-    Model replaceModel = new TreeModel();
-    Set<Namespace> sourceNamespaces = sourceModel.getNamespaces();
-    for (Namespace sourceNamespace : sourceNamespaces) {
-      replaceModel.setNamespace(sourceNamespace.getPrefix(), sourceNamespace.getName());
-    }
-
-    for (Statement st : sourceModel) {
-      Value modelObject = st.getObject();
-      Resource replacedSubject = st.getSubject();
-      IRI replacedPredicate = st.getPredicate();
-      //Replaced language serialization
-      if (modelObject instanceof Literal) {
-        modelObject = secondPartOfLangToUpperCaseIfNotX(modelObject);
+        return runOnDirectory(rdfToolkitOptions);
       }
-      // Do any URI replacements
-      if (isIriPatternAndIriReplacementNotNull) {
-        if (replacedSubject instanceof IRI) {
-          replacedSubject = valueFactory.createIRI(
-              replacedSubject.stringValue().replaceFirst(
-                  rdfToolkitOptions.getIriPattern(),
-                  rdfToolkitOptions.getIriReplacement()));
-        }
-        replacedPredicate = valueFactory.createIRI(
-            replacedPredicate.stringValue().replaceFirst(
-                rdfToolkitOptions.getIriPattern(),
-                rdfToolkitOptions.getIriReplacement()));
-
-        if (modelObject instanceof IRI) {
-          modelObject = valueFactory.createIRI(
-              modelObject.stringValue().replaceFirst(
-                  rdfToolkitOptions.getIriPattern(),
-                  rdfToolkitOptions.getIriReplacement()));
+      case RUN_ON_FILES: {
+        // The server is sent the source files rather than the source list, which may be this process's standard input.
+        OptionalInt serverStatus = runOnServer(rdfToolkitOptions);
+        if (serverStatus.isPresent()) {
+          return serverStatus.getAsInt();
         }
+        return runOnFiles(rdfToolkitOptions);
       }
-      Statement statement = valueFactory.createStatement(replacedSubject, replacedPredicate,
-          modelObject);
-      replaceModel.add(statement);
-    }
-
-    if (isIriPatternAndIriReplacementNotNull) {
-      // Do IRI replacements in namespaces as well.
-      Set<Namespace> namespaces = sourceModel.getNamespaces();
-      for (Namespace namespace : namespaces) {
-        replaceModel.setNamespace(
-            namespace.getPrefix(),
-            namespace.getName().replaceFirst(
-                rdfToolkitOptions.getIriPattern(),
-                rdfToolkitOptions.getIriReplacement()));
-      }
-    }
-    sourceModel = replaceModel;
-    if (isIriPatternAndIriReplacementNotNull) {
-      // This is also the right time to do IRI replacement in the base URI, if appropriate
-      if (rdfToolkitOptions.getBaseIri() != null) {
-        String newBaseIriString = rdfToolkitOptions.getBaseIriString().replaceFirst(
-            rdfToolkitOptions.getIriPattern(),
-            rdfToolkitOptions.getIriReplacement());
-        rdfToolkitOptions.setBaseIriString(newBaseIriString);
-        rdfToolkitOptions.setBaseIri(valueFactory.createIRI(newBaseIriString));
-      }
-    }
-    // Infer the base URI, if requested
-    IRI inferredBaseIri = null;
-    if (rdfToolkitOptions.getInferBaseIri()) {
-      LinkedList<IRI> owlOntologyIris = new LinkedList<>();
-      for (Statement st : sourceModel) {
-        if ((Constants.RDF_TYPE.equals(st.getPredicate()))
-            && (Constants.owlOntology.equals(st.getObject()))
-            && (st.getSubject() instanceof IRI)) {
-          owlOntologyIris.add((IRI) st.getSubject());
+      case RUN_ON_FILE: {
+        // Only files are sent to a server, which cannot read this process's standard input, or write its output.
+        var sourceFile = rdfToolkitOptions.getSourceFile();
+        if ((sourceFile != null) && !rdfToolkitOptions.isShouldUseStandardOutputStream()) {
+          // The source is closed while the server formats it, as the server may also write to it.
+          rdfToolkitOptions.getSourceInputStream().close();
+          OptionalInt serverStatus = runOnServer(rdfToolkitOptions);
+          if (serverStatus.isPresent()) {
+            return serverStatus.getAsInt();
+          }
+          rdfToolkitOptions.setSourceInputStream(new FileInputStream(sourceFile));
         }
+        return runOnFile(rdfToolkitOptions);
       }
-      if (!owlOntologyIris.isEmpty()) {
-        Comparator<IRI> iriComparator = Comparator.comparing(IRI::toString);
-        owlOntologyIris.sort(iriComparator);
-        inferredBaseIri = owlOntologyIris.getFirst();
-      }
-    }
-    if (rdfToolkitOptions.getInferBaseIri() && (inferredBaseIri != null)) {
-      rdfToolkitOptions.setBaseIri(inferredBaseIri);
-    }
-
-    OutputStream outputStream = System.out;
-    if (!rdfToolkitOptions.isShouldUseStandardOutputStream()) {
-      outputStream = new FileOutputStream(rdfToolkitOptions.getTargetFile());
+      default:
+        throw new RdfToolkitOptionHandlingException(
+            "Unknown running mode: " + rdfToolkitOptions.getRunningMode());
     }
+  }
 
-    Writer targetWriter = new OutputStreamWriter(
-        outputStream,
-        StandardCharsets.UTF_8);
-    SortedRdfWriterFactory factory = new SortedRdfWriterFactory(
-        rdfToolkitOptions.getTargetFormat());
-    RDFWriter rdfWriter = factory.getWriter(targetWriter, rdfToolkitOptions.getOptions());
-    Rio.write(sourceModel, rdfWriter);
-    targetWriter.flush();
-    targetWriter.close();
+  private void runServer(RdfToolkitOptions rdfToolkitOptions) throws IOException {
+    var serverFile = Paths.get(rdfToolkitOptions.getCommandLine().getOptionValue(SERVER.getShortOpt()));
+    var server = new FormattingServer(serverFile);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        server.close();
+      } catch (IOException ex) {
+        LOGGER.warn("Unable to remove server file: {}: {}", serverFile, ex.getMessage());
+      }
+    }));
+    server.run();
   }
 
-  private Value secondPartOfLangToUpperCaseIfNotX(Value modelObject) {
-    Optional<String> lang = ((Literal) modelObject).getLanguage();
-    if (lang.isPresent() && lang.get().contains("-")) {
-      String langString = lang.get();
-      String[] langTab = langString.split("-");
-      // Convert the second part of the language string to uppercase, except if the entire second part is 'x'
-      if (!langTab[1].equals("x")) { langTab[1] = langTab[1].toUpperCase(); }
-      langString = String.join("-", langTab);
-      String label = ((Literal) modelObject).getLabel();
-      modelObject = valueFactory.createLiteral(label, langString);
+  /**
+   * Has the formatting server do the formatting, if a client option is given, and the server is running.
+   */
+  private OptionalInt runOnServer(RdfToolkitOptions rdfToolkitOptions) {
+    CommandLine line = rdfToolkitOptions.getCommandLine();
+    if (!line.hasOption(CLIENT.getShortOpt())) {
+      return OptionalInt.empty();
     }
-    return modelObject;
+    return new FormattingClient(Paths.get(line.getOptionValue(CLIENT.getShortOpt())))
+        .format(line, rdfToolkitOptions.getSourceFiles());
   }
 
-  private Model readModel(RdfToolkitOptions rdfToolkitOptions) {
-    Model sourceModel = null;
+  private int runOnFile(RdfToolkitOptions rdfToolkitOptions) throws Exception {
     try {
-      sourceModel = Rio.parse(
-          rdfToolkitOptions.getSourceInputStream(),
-          rdfToolkitOptions.getBaseIriString(),
-          rdfToolkitOptions.getRdf4jSourceFormat());
-    } catch (Exception t) {
+      if (rdfToolkitOptions.getCheck()) {
+        if (!new FileFormatter().check(rdfToolkitOptions)) {
+          LOGGER.error("Not in canonical form: {}", rdfToolkitOptions.getTargetFile());
+          return 1;
+        }
+        return 0;
+      }
+      new FileFormatter().format(rdfToolkitOptions);
+      return 0;
+    } catch (RdfToolkitFormattingException t) {
       LOGGER.error("{}: stopped by unexpected exception:", RdfFormatter.class.getSimpleName());
-      LOGGER.error("Unable to parse input file: {}",
-          rdfToolkitOptions.getSourceFile().getAbsolutePath());
+      LOGGER.error(t.getMessage());
       LOGGER.error("Command line arguments: {}", Arrays.toString(rdfToolkitOptions.getArgs()));
-      LOGGER.error("{}: {}", t.getClass().getSimpleName(), t.getMessage());
+      LOGGER.error("{}: {}", t.getCause().getClass().getSimpleName(), t.getCause().getMessage());
       StringWriter stackTraceWriter = new StringWriter();
-      t.printStackTrace(new PrintWriter(stackTraceWriter));
+      t.getCause().printStackTrace(new PrintWriter(stackTraceWriter));
       LOGGER.error(stackTraceWriter.toString());
       usage(options);
-      System.exit(1);
+      return 1;
     }
-    return sourceModel;
   }
 
-  private void runOnDirectory(CommandLine line) throws Exception {
-    // Construct list of common arguments passed on to every invocation of 'run'
-    ArrayList<String> commonArgsList = new ArrayList<>();
-    List<String> noPassArgs = Arrays.asList(
-        SOURCE_DIRECTORY.getShortOpt(),
-        SOURCE_DIRECTORY_PATTERN.getShortOpt(),
-        TARGET_DIRECTORY.getShortOpt(),
-        TARGET_DIRECTORY_PATTERN.getShortOpt());
-
-    for (Option option : line.getOptions()) {
-      if (noPassArgs.contains(option.getOpt())) {
-        continue;
-      }
-      commonArgsList.add(String.format("-%s", option.getOpt()));
-      if (option.hasArg()) {
-        commonArgsList.add(option.getValue());
-      }
-    }
+  private int runOnDirectory(RdfToolkitOptions rdfToolkitOptions) throws Exception {
+    CommandLine line = rdfToolkitOptions.getCommandLine();
 
     // Check the input & output directories
     var sourceDir = new File(line.getOptionValue(SOURCE_DIRECTORY.getShortOpt()));
     if (!sourceDir.exists()) {
       LOGGER.error("Source directory does not exist: {}", sourceDir.getAbsolutePath());
-      return;
+      return 1;
     }
     if (!sourceDir.canRead()) {
       LOGGER.error("Source directory is not readable: {}", sourceDir.getAbsolutePath());
-      return;
+      return 1;
     }
-    var sourceDirPattern = Pattern.compile(line.getOptionValue("sdp"));
+    var sourceDirPattern = Pattern.compile(line.getOptionValue(SOURCE_DIRECTORY_PATTERN.getShortOpt()));
+    var sourceDirExcludePattern = line.hasOption(SOURCE_DIRECTORY_EXCLUDE.getShortOpt())
+        ? Pattern.compile(line.getOptionValue(SOURCE_DIRECTORY_EXCLUDE.getShortOpt()))
+        : null;
 
-    final File targetDir = new File(line.getOptionValue("td"));
-    if (!targetDir.exists()) {
-      targetDir.mkdirs();
+    // When checking, the target directory is only read; a missing target file is not in canonical form.
+    final File targetDir = new File(line.getOptionValue(TARGET_DIRECTORY.getShortOpt()));
+    if (!rdfToolkitOptions.getCheck()) {
+      if (!targetDir.exists()) {
+        targetDir.mkdirs();
+      }
+      if (!targetDir.exists()) {
+        LOGGER.error("Target directory could not be created: {}", targetDir.getAbsolutePath());
+        return 1;
+      }
+      if (!targetDir.canWrite()) {
+        LOGGER.error("Target directory is not writable: {}", targetDir.getAbsolutePath());
+        return 1;
+      }
     }
-    if (!targetDir.exists()) {
-      LOGGER.error("Target directory could not be created: {}", targetDir.getAbsolutePath());
-      return;
+    final String targetDirPatternString = line.getOptionValue(TARGET_DIRECTORY_PATTERN.getShortOpt());
+
+    // Files already formatted with the same options are skipped, if a cache file is given.
+    FormattingCache formattingCache = null;
+    if (line.hasOption(CACHE_FILE.getShortOpt())) {
+      formattingCache = FormattingCache.load(Paths.get(line.getOptionValue(CACHE_FILE.getShortOpt())),
+          FormattingCache.fingerprint(line));
+    }
+
+    // Format the matching files as they are found, with the options given for the directory.
+    final DirectoryWalker dw = new DirectoryWalker(sourceDir, sourceDirPattern, sourceDirExcludePattern);
+    BatchFormatter.Result result;
+    try (Stream<DirectoryWalker.DirectoryWalkerResult> sourceResults = dw.streamMatches()) {
+      result = new BatchFormatter(rdfToolkitOptions, formattingCache).format(sourceResults.map(sourceResult -> {
+        // Construct output path.
+        final Matcher sourceMatcher = sourceDirPattern.matcher(sourceResult.getRelativePath());
+        final String targetRelativePath = sourceMatcher.replaceFirst(targetDirPatternString);
+        final File targetFile = new File(targetDir, targetRelativePath);
+        return new BatchFormatter.BatchFile(
+            sourceResult.getFile(), targetFile, sourceResult.getRelativePath(), targetRelativePath);
+      }));
     }
-    if (!targetDir.canWrite()) {
-      LOGGER.error("Target directory is not writable: {}", targetDir.getAbsolutePath());
-      return;
+    if (formattingCache != null) {
+      formattingCache.save();
     }
-    final String targetDirPatternString = line.getOptionValue("tdp");
+    return reportResult(rdfToolkitOptions, result);
+  }
 
-    // Iterate through matching files.
-    final DirectoryWalker dw = new DirectoryWalker(sourceDir, sourceDirPattern);
-    final String[] stringArray = new String[]{};
-    for (DirectoryWalker.DirectoryWalkerResult sourceResult : dw.pathMatches()) {
-      // Construct output path.
-      final Matcher sourceMatcher = sourceDirPattern.matcher(sourceResult.getRelativePath());
-      final String targetRelativePath = sourceMatcher.replaceFirst(targetDirPatternString);
-      final File targetFile = new File(targetDir, targetRelativePath);
+  private int runOnFiles(RdfToolkitOptions rdfToolkitOptions) throws Exception {
+    CommandLine line = rdfToolkitOptions.getCommandLine();
 
-      // Run serializer
-      List<String> runArgs = new ArrayList<>();
-      runArgs.addAll(commonArgsList);
-      runArgs.add("-s");
-      runArgs.add(sourceResult.getFile().getAbsolutePath());
-      runArgs.add("-t");
-      runArgs.add(targetFile.getAbsolutePath());
-      LOGGER.info("... formatting '{}' to '{}' ...", sourceResult.getRelativePath(),
-          targetRelativePath);
+    // Each target file is either the source file, or constructed from the absolute source file path.
+    boolean inPlace = line.hasOption(IN_PLACE.getShortOpt());
+    Pattern sourceFilePattern = inPlace
+        ? null
+        : Pattern.compile(line.getOptionValue(SOURCE_FILE_PATTERN.getShortOpt()));
+    String targetFilePatternString = line.getOptionValue(TARGET_FILE_PATTERN.getShortOpt());
+    List<BatchFormatter.BatchFile> batchFiles = new ArrayList<>();
+    for (File sourceFile : rdfToolkitOptions.getSourceFiles()) {
+      String sourcePath = sourceFile.getAbsolutePath();
+      File targetFile = sourceFile;
+      if (!inPlace) {
+        Matcher sourceMatcher = sourceFilePattern.matcher(sourcePath);
+        if (!sourceMatcher.matches()) {
+          throw new RdfToolkitOptionHandlingException(
+              String.format("Source file does not match the source file pattern: %s", sourcePath));
+        }
+        targetFile = new File(sourceMatcher.replaceFirst(targetFilePatternString));
+      }
+      batchFiles.add(new BatchFormatter.BatchFile(sourceFile, targetFile, sourcePath, targetFile.getAbsolutePath()));
+    }
+
+    return reportResult(rdfToolkitOptions, new BatchFormatter(rdfToolkitOptions).format(batchFiles));
+  }
 
-      run(runArgs.toArray(stringArray));
+  /**
+   * Logs the result of formatting or checking a batch of files.
+   *
+   * @return the exit status, which is 1 if any checked target file does not hold the formatted source
+   * @throws RdfToolkitFormattingException if any file could not be formatted
+   */
+  private int reportResult(RdfToolkitOptions rdfToolkitOptions, BatchFormatter.Result result)
+      throws RdfToolkitFormattingException {
+    if (rdfToolkitOptions.getCheck()) {
+      for (BatchFormatter.BatchFile differentFile : result.getDifferentFiles()) {
+        LOGGER.error("Not in canonical form: {}", differentFile.getTargetName());
+      }
+      LOGGER.info("Checked {} files ({} not in canonical form) using {} threads",
+          result.getFileCount() - result.getFailedFiles().size(), result.getDifferentFiles().size(),
+          rdfToolkitOptions.getThreadCount());
+    } else {
+      LOGGER.info("Formatted {} of {} files ({} unchanged) using {} threads",
+          result.getFileCount() - result.getUnchangedFileCount() - result.getFailedFiles().size(),
+          result.getFileCount(), result.getUnchangedFileCount(), rdfToolkitOptions.getThreadCount());
+    }
+    if (!result.getFailedFiles().isEmpty()) {
+      throw new RdfToolkitFormattingException(String.format("%d of %d files could not be formatted",
+          result.getFailedFiles().size(), result.getFileCount()));
     }
+    return result.getDifferentFiles().isEmpty() ? 0 : 1;
   }
 
   private void usage(Options options) {
@@ -24,6 +24,7 @@
 package org.edmcouncil.rdf_toolkit.runner.constant;
 
 import org.apache.commons.cli.Options;
+import org.edmcouncil.rdf_toolkit.comparator.CachedResourceComparator;
 import org.edmcouncil.rdf_toolkit.io.format.SourceFormats;
 import org.edmcouncil.rdf_toolkit.io.format.TargetFormats;
 import org.edmcouncil.rdf_toolkit.util.ShortIriPreferences;
@@ -31,20 +32,26 @@ import org.edmcouncil.rdf_toolkit.util.StringDataTypeOptions;
 
 public enum CommandLineOption {
 
-  SOURCE("s", "source", true, "source (input) RDF file to format"),
+  SOURCE("s", "source", true, "source (input) RDF file to format.  Can be repeated to format several files in one run, which are written as given by --in-place or --target-file-pattern"),
+  SOURCE_LIST("sl", "source-list", true, "file listing source (input) RDF files to format, one per line; '-' reads the list from the standard input.  This is a multiple file processing option"),
+  SOURCE_FILE_PATTERN("sfp", "source-file-pattern", true, "absolute file path pattern (regular expression) which every source file must match, used together with --target-file-pattern.  This is a multiple file processing option"),
   SOURCE_DIRECTORY("sd", "source-directory", true, "source (input) directory of RDF files to format.  This is a directory processing option"),
   SOURCE_DIRECTORY_PATTERN("sdp", "source-directory-pattern", true, "relative file path pattern (regular expression) used to select files to format in the source directory.  This is a directory processing option"),
+  SOURCE_DIRECTORY_EXCLUDE("sdx", "source-directory-exclude", true, "relative directory path pattern (regular expression) of directories not to search in the source directory, e.g. '(.*/)?\\.git'.  This is a directory processing option"),
   SOURCE_FORMAT("sfmt", "source-format", true, "source (input) RDF format; one of: " + SourceFormats.summarise()),
   TARGET("t", "target", true, "target (output) RDF file"),
   TARGET_DIRECTORY("td", "target-directory", true, "target (output) directory for formatted RDF files.  This is a directory processing option"),
   TARGET_DIRECTORY_PATTERN("tdp", "target-directory-pattern", true, "relative file path pattern (regular expression) used to construct file paths within the target directory.  This is a directory processing option"),
+  TARGET_FILE_PATTERN("tfp", "target-file-pattern", true, "file path pattern (regular expression replacement) used to construct each target file path from its source file path matched by --source-file-pattern.  This is a multiple file processing option"),
+  IN_PLACE("inp", "in-place", false, "writes each formatted file over its source file.  This is a multiple file processing option"),
+  CHECK("chk", "check", false, "checks that the target files already hold the formatted source files, without writing them; the exit status is 1 if any does not.  Without a target file, the source file is checked"),
   TARGET_FORMAT("tfmt", "target-format", true, "target (output) RDF format: one of: " + TargetFormats.summarise()),
   VERSION("v", "version", false, "print out version details"),
   HELP("h", "help", false, "print out details of the command-line arguments for the program"),
   BASE_IRI("bi", "base-iri", true, "set IRI to use as base URI"),
   SHORT_IRI_PRIORITY("sip", "short-iri-priority", true, "set what takes priority when shortening IRIs: " + ShortIriPreferences.summarise()),
-  IRI_PATTERN("ip", "iri-pattern", true, "set a pattern to replace in all IRIs (used together with --iri-replacement)"),
-  IRI_REPLACEMENT("ir", "iri-replacement", true, "set replacement text used to replace a matching pattern in all IRIs (used together with --iri-pattern)"),
+  IRI_PATTERN("ip", "iri-pattern", true, "set a pattern to replace in all IRIs (used together with --iri-replacement).  Can be repeated, paired in order with the replacements; the first matching pattern is used"),
+  IRI_REPLACEMENT("ir", "iri-replacement", true, "set replacement text used to replace a matching pattern in all IRIs (used together with --iri-pattern).  Can be repeated"),
   USE_DTD_SUBSET("dtd", "use-dtd-subset", false, "for XML, use a DTD subset in order to allow prefix-based IRI shortening"),
   INLINE_BLANK_NODES("ibn", "inline-blank-nodes", false, "use inline representation for blank nodes.  NOTE: this will fail if there are any recursive relationships involving blank nodes.  Usually OWL has no such recursion involving blank nodes.  It also will fail if any blank nodes are a triple subject but not a triple object."),
   INFER_BASE_IRI("ibi", "infer-base-iri", false, "use the OWL ontology IRI as the base URI.  Ignored if an explicit base IRI has been set"),
@@ -56,7 +63,14 @@ public enum CommandLineOption {
   LINE_END("ln", "line-end", true, "sets the end-line character(s); supported characters: \\n (LF), \\r (CR). Default is the LF character"),
   OMIT_XMLNS_NAMESPACE("oxn", "omit-xmlns-namespace", false, "omits xmlns namespace"),
   SUPPRESS_NAMED_INDIVIDUALS("sni", "suppress-named-individuals", false, "suppresses all instances of owl:NamedIndividual"),
-  USE_DEFAULT_LANGUAGE("udl", "use-default-language", true, "uses default language when a string is untyped and untagged");
+  USE_DEFAULT_LANGUAGE("udl", "use-default-language", true, "uses default language when a string is untyped and untagged"),
+  COMPARATOR_CACHE_SIZE("ccs", "comparator-cache-size", true, "sets the maximum number of resource comparisons cached while sorting, at most " + CachedResourceComparator.MAX_CACHE_SIZE + "; 0 disables the cache.  Default is " + CachedResourceComparator.DEFAULT_CACHE_SIZE),
+  COMPACT_TRIPLE_STORE("cts", "compact-triple-store", false, "stores the triples as integer IDs while sorting, which uses less memory for large inputs"),
+  THREADS("th", "threads", true, "sets the number of files formatted at the same time.  Default is the number of available processors.  This is a directory or multiple file processing option"),
+  MEMORY_BUDGET("mb", "memory-budget", true, "sets the estimated memory, in megabytes, which the files formatted at the same time may use.  Default is three quarters of the maximum heap size.  This is a directory or multiple file processing option"),
+  CACHE_FILE("cf", "cache-file", true, "file in which to keep hashes of the formatted files, so that files which have not changed since they were formatted with the same options are skipped.  This is a directory processing option"),
+  SERVER("srv", "server", true, "runs a formatting server, which formats for clients without starting a new Java virtual machine each time.  The server's port and key are written to the given server file.  The server runs until it is stopped"),
+  CLIENT("cl", "client", true, "has the formatting server with the given server file format the source files or directory, if it is running; otherwise formats in this process");
 
   private final String shortOpt;
   private final String longOpt;
@@ -28,5 +28,7 @@ public enum RunningMode {
   PRINT_AND_EXIT,
   PRINT_USAGE_AND_EXIT,
   RUN_ON_DIRECTORY,
-  RUN_ON_FILE;
+  RUN_ON_FILE,
+  RUN_ON_FILES,
+  RUN_SERVER;
 }
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Makes IRIs relative to a base IRI, with the same result as {@link URI#relativize(URI)}: an IRI with the scheme and
+ * authority of the base IRI, whose path is the base path or is below the base path taken as a directory, is made
+ * relative; any other IRI is returned as it is.
+ * <p>
+ * The base IRI is parsed once.  IRIs are matched against it on their raw strings, without parsing them into
+ * {@link URI}s, except for IRIs whose paths would be changed by normalization (empty, "." and ".." segments), for which
+ * {@link URI#relativize(URI)} itself is used.  Unlike {@link URI}, the fast path does not reject IRIs with characters
+ * which are not allowed in URIs.  The result is cached for every distinct IRI.  Not thread-safe.
+ * </p>
+ */
+public class BaseIriRelativizer {
+
+  private final URI baseUri;
+  private final boolean isRelativizable;
+  private final String baseScheme;
+  private final String baseAuthority;
+  private final String basePath;
+  private final String baseDirectory;
+  private final Map<String, String> relativeIris = new HashMap<>();
+
+  /**
+   * @throws URISyntaxException if the base IRI is not a valid URI
+   */
+  public BaseIriRelativizer(String baseIri) throws URISyntaxException {
+    baseUri = new URI(baseIri);
+    isRelativizable = !baseUri.isOpaque() && (baseUri.getScheme() != null);
+    baseScheme = baseUri.getScheme();
+    baseAuthority = baseUri.getRawAuthority();
+    basePath = baseUri.normalize().getRawPath();
+    baseDirectory = (basePath == null) || basePath.endsWith("/") ? basePath : basePath + "/";
+  }
+
+  /**
+   * Returns the IRI relative to the base IRI, which may be empty, or the IRI itself if it cannot be made relative.
+   *
+   * @throws URISyntaxException if the IRI needs parsing as a URI, but is not a valid URI
+   */
+  public String relativize(String iri) throws URISyntaxException {
+    String relativeIri = relativeIris.get(iri);
+    if (relativeIri == null) {
+      relativeIri = computeRelativeIri(iri);
+      relativeIris.put(iri, relativeIri);
+    }
+    return relativeIri;
+  }
+
+  private String computeRelativeIri(String iri) throws URISyntaxException {
+    if (!isRelativizable) {
+      return uriRelativize(iri);
+    }
+
+    // The scheme must match the base scheme, ignoring case, and be followed by a hierarchical part.
+    int schemeLength = baseScheme.length();
+    if ((iri.length() <= schemeLength) || (iri.charAt(schemeLength) != ':')
+        || !iri.regionMatches(true, 0, baseScheme, 0, schemeLength)) {
+      return iri;
+    }
+    int index = schemeLength + 1;
+    if ((index >= iri.length()) || (iri.charAt(index) != '/')) {
+      return iri; // opaque, or not a valid URI
+    }
+
+    // The authority, if any, must be the base authority.
+    String authority = null;
+    if (iri.startsWith("//", index)) {
+      int authorityEnd = indexOfAny(iri, index + 2, "/?#");
+      if (authorityEnd > index + 2) { // an empty authority is no authority
+        authority = iri.substring(index + 2, authorityEnd);
+      }
+      index = authorityEnd;
+    }
+    if ((authority == null) ? (baseAuthority != null) : !authority.equals(baseAuthority)) {
+      // Percent-encoded authorities compare their hex digits ignoring case.
+      boolean isEncoded = ((authority != null) && (authority.indexOf('%') >= 0))
+          || ((baseAuthority != null) && (baseAuthority.indexOf('%') >= 0));
+      return isEncoded ? uriRelativize(iri) : iri;
+    }
+
+    int pathEnd = indexOfAny(iri, index, "?#");
+    String path = iri.substring(index, pathEnd);
+    if (needsNormalization(path)) {
+      return uriRelativize(iri);
+    }
+    String relativePath;
+    if (path.equals(basePath)) {
+      relativePath = "";
+    } else if (path.startsWith(baseDirectory)) {
+      relativePath = path.substring(baseDirectory.length());
+    } else {
+      return iri;
+    }
+    // The query and fragment are kept as they are.
+    return relativePath + iri.substring(pathEnd);
+  }
+
+  private String uriRelativize(String iri) throws URISyntaxException {
+    return baseUri.relativize(new URI(iri)).toString();
+  }
+
+  /**
+   * Whether {@link URI#normalize()} would change the path, which it does for empty, "." and ".." segments.  The empty
+   * segment at the end of a path ending with a slash is kept.
+   */
+  private static boolean needsNormalization(String path) {
+    int length = path.length();
+    int segmentStart = 1; // paths after an authority or scheme start with a slash
+    while (segmentStart <= length) {
+      int segmentEnd = path.indexOf('/', segmentStart);
+      if (segmentEnd < 0) {
+        segmentEnd = length;
+      }
+      int segmentLength = segmentEnd - segmentStart;
+      if ((segmentLength == 0) && (segmentEnd < length)) {
+        return true;
+      }
+      if ((segmentLength == 1) && (path.charAt(segmentStart) == '.')) {
+        return true;
+      }
+      if ((segmentLength == 2) && (path.charAt(segmentStart) == '.') && (path.charAt(segmentStart + 1) == '.')) {
+        return true;
+      }
+      segmentStart = segmentEnd + 1;
+    }
+    return false;
+  }
+
+  private static int indexOfAny(String str, int fromIndex, String chars) {
+    for (int index = fromIndex; index < str.length(); index++) {
+      if (chars.indexOf(str.charAt(index)) >= 0) {
+        return index;
+      }
+    }
+    return str.length();
+  }
+}
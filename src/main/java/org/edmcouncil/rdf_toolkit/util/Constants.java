@@ -44,6 +44,9 @@ public class Constants {
   public static final String OMIT_XMLNS_NAMESPACE = "omitXmlnsNamespace";
   public static final String SUPPRESS_NAMED_INDIVIDUALS = "suppressNamedIndividuals";
   public static final String USE_DEFAULT_LANGUAGE = "useDefaultLanguage";
+  public static final String COMPARATOR_CACHE_SIZE = "comparatorCacheSize";
+  public static final String COMPARATOR_CACHE_STATISTICS = "comparatorCacheStatistics";
+  public static final String USE_COMPACT_TRIPLE_STORE = "useCompactTripleStore";
 
   /**
    * Factory for generating literal values.
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites IRIs with an ordered list of pattern/replacement rules.  The first rule whose pattern is found in an IRI
+ * replaces the first match in it, in the same way as {@link String#replaceFirst(String, String)}; later rules are not
+ * applied to the result.
+ * <p>
+ * The patterns are compiled once, and the result is cached for every distinct IRI, as most IRIs occur many times.
+ * An IRI rewriter is not thread-safe; use {@link #copy()} to get one for another thread.
+ * </p>
+ */
+public class IriRewriter {
+
+  /**
+   * Cached for IRIs which no rule matches.  A distinct instance, so that it can be told apart from an IRI rewritten to
+   * the empty string.
+   */
+  private static final String NOT_REWRITTEN = new String();
+
+  private final List<Pattern> patterns = new ArrayList<>();
+  private final List<String> replacements = new ArrayList<>();
+  private final Map<String, String> rewrittenIris = new HashMap<>();
+  private long rewriteCount = 0;
+  private int distinctRewriteCount = 0;
+
+  /**
+   * Adds a rule, which is applied after all rules added before it.
+   *
+   * @param pattern     regular expression to find in IRIs
+   * @param replacement replacement for the first match, which may refer to groups as in
+   *                    {@link Matcher#appendReplacement(StringBuilder, String)}
+   * @throws java.util.regex.PatternSyntaxException if the pattern is not a valid regular expression
+   */
+  public IriRewriter addRule(String pattern, String replacement) {
+    patterns.add(Pattern.compile(pattern));
+    replacements.add(replacement);
+    rewrittenIris.clear();
+    return this;
+  }
+
+  /**
+   * Returns a rewriter with the same rules, which shares the compiled patterns but not the cache or the counts.
+   */
+  public IriRewriter copy() {
+    var iriRewriter = new IriRewriter();
+    iriRewriter.patterns.addAll(patterns);
+    iriRewriter.replacements.addAll(replacements);
+    return iriRewriter;
+  }
+
+  public boolean hasRules() {
+    return !patterns.isEmpty();
+  }
+
+  /**
+   * Returns the rewritten IRI, or the given string itself if no rule matches it.
+   */
+  public String rewrite(String iri) {
+    String rewrittenIri = rewrittenIris.get(iri);
+    if (rewrittenIri == null) {
+      rewrittenIri = applyRules(iri);
+      if (rewrittenIri == iri) {
+        rewrittenIri = NOT_REWRITTEN;
+      } else {
+        distinctRewriteCount++;
+      }
+      rewrittenIris.put(iri, rewrittenIri);
+    }
+    if (rewrittenIri == NOT_REWRITTEN) {
+      return iri;
+    }
+    rewriteCount++;
+    return rewrittenIri;
+  }
+
+  private String applyRules(String iri) {
+    for (int index = 0; index < patterns.size(); index++) {
+      Matcher matcher = patterns.get(index).matcher(iri);
+      if (matcher.find()) {
+        StringBuilder result = new StringBuilder(iri.length() + 16);
+        matcher.appendReplacement(result, replacements.get(index));
+        matcher.appendTail(result);
+        String rewrittenIri = result.toString();
+        return rewrittenIri.equals(iri) ? iri : rewrittenIri;
+      }
+    }
+    return iri;
+  }
+
+  /**
+   * Returns the number of IRI occurrences rewritten so far.
+   */
+  public long getRewriteCount() {
+    return rewriteCount;
+  }
+
+  /**
+   * Returns the number of distinct IRIs rewritten so far.
+   */
+  public int getDistinctRewriteCount() {
+    return distinctRewriteCount;
+  }
+}
@@ -26,76 +26,114 @@ package org.edmcouncil.rdf_toolkit.util;
 
 public class TextUtils {
 
-  private TextUtils() {}
+  /**
+   * Flag from {@link #classify(String)}: the string is valid as the local part of a prefixed name.
+   */
+  public static final int LOCAL_NAME = 1;
 
   /**
-   * Whether the character is a "name character", as defined in the XML namespaces spec.  Characters above Unicode FFFF are included.
+   * Flag from {@link #classify(String)}: the string has a line break character, so Turtle writes it as a multi-line
+   * string.
    */
-  public static boolean isNameChar(char ch) {
-    if ('-' == ch) {
-      return true;
-    }
-    if ('.' == ch) {
-      return true;
-    }
-    if ('_' == ch) {
-      return true;
-    }
-    if ('\\' == ch) {
-      return true;
-    }
-    if (':' == ch) {
-      return true;
-    }
-    if (isDigit(ch)) {
-      return true;
-    }
-    if (isUpperCaseLetter(ch)) {
-      return true;
-    }
-    if (isLowerCaseLetter(ch)) {
-      return true;
-    }
-    if (('\u00C0' <= ch) && (ch <= '\u00D6')) {
-      return true;
-    }
-    if (('\u00D8' <= ch) && (ch <= '\u00F6')) {
-      return true;
-    }
-    if (('\u00F8' <= ch) && (ch <= '\u02FF')) {
-      return true;
-    }
-    if (('\u0370' <= ch) && (ch <= '\u037D')) {
-      return true;
-    }
-    if (('\u037F' <= ch) && (ch <= '\u1FFF')) {
-      return true;
-    }
-    if (('\u200C' <= ch) && (ch <= '\u200D')) {
-      return true;
-    }
-    if (('\u2070' <= ch) && (ch <= '\u218F')) {
-      return true;
-    }
-    if (('\u2C00' <= ch) && (ch <= '\u2FEF')) {
-      return true;
-    }
-    if (('\u3001' <= ch) && (ch <= '\uD7FF')) {
-      return true;
-    }
-    if (('\uF900' <= ch) && (ch <= '\uFDCF')) {
-      return true;
-    }
-    if (('\uFDF0' <= ch) && (ch <= '\uFFFD')) {
-      return true;
+  public static final int MULTILINE = 1 << 1;
+
+  /**
+   * Flag from {@link #classify(String)}: the string has a double quote character.
+   */
+  public static final int DOUBLE_QUOTE = 1 << 2;
+
+  /**
+   * Flag from {@link #classify(String)}: the string has a single quote character.
+   */
+  public static final int SINGLE_QUOTE = 1 << 3;
+
+  /**
+   * Flag from {@link #classify(String)}: the string has a backslash character.
+   */
+  public static final int BACKSLASH = 1 << 4;
+
+  /**
+   * Flag from {@link #classify(String)}: the string has a control character below space, which JSON escapes.
+   */
+  public static final int CONTROL_CHAR = 1 << 5;
+
+  /**
+   * Flag from {@link #classify(String)}: the string has a character which XML 1.0 escaping changes or removes.
+   */
+  public static final int XML_ESCAPE = 1 << 6;
+
+  /**
+   * The ranges of "name characters", as defined in the XML namespaces spec, and the backslash and colon.
+   */
+  private static final char[][] NAME_CHAR_RANGES = {
+      {'-', '.'},
+      {'0', ':'},
+      {'A', 'Z'},
+      {'\\', '\\'},
+      {'_', '_'},
+      {'a', 'z'},
+      {'\u00B7', '\u00B7'},
+      {'\u00C0', '\u00D6'},
+      {'\u00D8', '\u00F6'},
+      {'\u00F8', '\u02FF'},
+      {'\u0300', '\u036F'},
+      {'\u0370', '\u037D'},
+      {'\u037F', '\u1FFF'},
+      {'\u200C', '\u200D'},
+      {'\u203F', '\u2040'},
+      {'\u2070', '\u218F'},
+      {'\u2C00', '\u2FEF'},
+      {'\u3001', '\uD7FF'},
+      {'\uF900', '\uFDCF'},
+      {'\uFDF0', '\uFFFD'}
+  };
+
+  /**
+   * One bit for each character of the BMP, set for name characters.
+   */
+  private static final long[] NAME_CHARS = new long[(Character.MAX_VALUE + 1) >>> 6];
+
+  /**
+   * The {@link #classify(String)} flags of each character below {@code \u00A0}.
+   */
+  private static final int[] CHAR_FLAGS = new int[0xA0];
+
+  static {
+    for (char[] range : NAME_CHAR_RANGES) {
+      for (int ch = range[0]; ch <= range[1]; ch++) {
+        NAME_CHARS[ch >>> 6] |= 1L << ch;
+      }
     }
-    if ('\u00B7' == ch) {
-      return true;
+
+    for (int ch = 0; ch < ' '; ch++) {
+      CHAR_FLAGS[ch] = CONTROL_CHAR;
+      if ((ch != '\t') && (ch != '\n') && (ch != '\r')) {
+        CHAR_FLAGS[ch] |= XML_ESCAPE; // removed
+      }
     }
-    if (('\u0300' <= ch) && (ch <= '\u036F')) {
-      return true;
+    for (int ch = 0xA; ch <= 0xD; ch++) {
+      CHAR_FLAGS[ch] |= MULTILINE;
+    }
+    CHAR_FLAGS['"'] = DOUBLE_QUOTE | XML_ESCAPE;
+    CHAR_FLAGS['\''] = SINGLE_QUOTE | XML_ESCAPE;
+    CHAR_FLAGS['\\'] = BACKSLASH;
+    CHAR_FLAGS['&'] = XML_ESCAPE;
+    CHAR_FLAGS['<'] = XML_ESCAPE;
+    CHAR_FLAGS['>'] = XML_ESCAPE;
+    for (int ch = 0x7F; ch <= 0x9F; ch++) {
+      if (ch != 0x85) {
+        CHAR_FLAGS[ch] = XML_ESCAPE; // written as character references
+      }
     }
-    return ('\u203F' <= ch) && (ch <= '\u2040');
+  }
+
+  private TextUtils() {}
+
+  /**
+   * Whether the character is a "name character", as defined in the XML namespaces spec.  Characters above Unicode FFFF are included.
+   */
+  public static boolean isNameChar(char ch) {
+    return (NAME_CHARS[ch >>> 6] & (1L << ch)) != 0;
   }
 
   public static boolean isNotNameChar(char ch) {
@@ -103,21 +141,7 @@ public class TextUtils {
   }
 
   public static boolean isMultilineString(String str) {
-    if (str == null) {
-      return false;
-    }
-    for (var idx = 0; idx < str.length(); idx++) {
-      switch (str.charAt(idx)) {
-        case 0xA:
-        case 0xB:
-        case 0xC:
-        case 0xD:
-          return true;
-        default:
-          // Do nothing
-      }
-    }
-    return false;
+    return (str != null) && ((classify(str) & MULTILINE) != 0);
   }
 
   /**
@@ -125,32 +149,33 @@ public class TextUtils {
    * Doesn't check that backslash escape sequences in the name are correctly formed.
    */
   public static boolean isPrefixedNameLocalPart(String str) {
-    if (str == null) {
-      return false;
-    }
-    if (str.length() < 1) {
-      return false;
-    }
-    if ((':' != str.charAt(0)) && isNotNameChar(str.charAt(0))) {
-      return false; // cannot start with a colon
-    }
-    for (var idx = 2; idx < str.length(); idx++) {
-      if (isNotNameChar(str.charAt(idx))) {
-        return false;
-      }
-    }
-    return true;
+    return (str != null) && ((classify(str) & LOCAL_NAME) != 0);
   }
 
-  private static boolean isDigit(char ch) {
-    return '0' <= ch && ch <= '9';
-  }
-
-  private static boolean isUpperCaseLetter(char ch) {
-    return 'A' <= ch && ch <= 'Z';
-  }
-
-  private static boolean isLowerCaseLetter(char ch) {
-    return 'a' <= ch && ch <= 'z';
+  /**
+   * Classifies the characters of the string in one pass, giving the flags which apply to it: {@link #LOCAL_NAME},
+   * {@link #MULTILINE}, {@link #DOUBLE_QUOTE}, {@link #SINGLE_QUOTE}, {@link #BACKSLASH}, {@link #CONTROL_CHAR} and
+   * {@link #XML_ESCAPE}.
+   */
+  public static int classify(String str) {
+    int length = str.length();
+    if (length < 1) {
+      return 0;
+    }
+    int flags = 0;
+    boolean localName = isNameChar(str.charAt(0));
+    for (int idx = 0; idx < length; idx++) {
+      char ch = str.charAt(idx);
+      if (ch < CHAR_FLAGS.length) {
+        flags |= CHAR_FLAGS[ch];
+      } else if ((ch >= '\uD800') && ((ch <= '\uDFFF') || (ch >= '\uFFFE'))) {
+        flags |= XML_ESCAPE; // unpaired surrogates and non-characters are removed
+      }
+      // Only the first character and those from the third on are checked, as before.
+      if (localName && (idx >= 2) && !isNameChar(ch)) {
+        localName = false;
+      }
+    }
+    return localName ? (flags | LOCAL_NAME) : flags;
   }
 }
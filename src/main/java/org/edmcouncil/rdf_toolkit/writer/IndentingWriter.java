@@ -24,23 +24,65 @@
 package org.edmcouncil.rdf_toolkit.writer;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+/**
+ * Writer which indents each line by the indentation level.  Output is collected in a large buffer, and only passed on
+ * when the buffer is full or the writer is flushed, so that the wrapped writer or output stream gets a few large writes
+ * rather than one per term.  When writing to an output stream, the buffer is encoded to UTF-8 in bulk.
+ */
 public class IndentingWriter extends Writer {
 
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The wrapped writer, or null when writing to an output stream.  Output written to it directly skips the buffer, so
+   * subclasses should call {@link #flush()} before using it.
+   */
   protected final Writer out;
+  private final OutputStream outputStream;
+  private final CharsetEncoder encoder;
+  private final ByteBuffer byteBuffer;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int count = 0;
+  private boolean closed = false;
   protected int indentationLevel = 0;
   private String indentationString = "\t";
+  private char[][] indentations = new char[8][];
   private boolean indentationWritten = false;
   private String lineEnd;
   private String defaultLanguage; // TODO remove
 
   public IndentingWriter(Writer out) {
     this.out = out;
+    this.outputStream = null;
+    this.encoder = null;
+    this.byteBuffer = null;
+  }
+
+  /**
+   * Creates a writer which encodes its output to UTF-8 itself.
+   */
+  public IndentingWriter(OutputStream outputStream) {
+    this.out = null;
+    this.outputStream = outputStream;
+    this.encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
   }
 
   public void setIndentationString(String indentString) {
     this.indentationString = indentString;
+    Arrays.fill(this.indentations, null);
   }
 
   public String getIndentationString() {
@@ -85,22 +127,135 @@ public class IndentingWriter extends Writer {
   }
 
   public void close() throws IOException {
-    this.out.close();
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    if (this.outputStream != null) {
+      encodeBuffer(true);
+      writeBytes();
+      this.outputStream.close();
+    } else {
+      flushBuffer();
+      this.out.close();
+    }
   }
 
   public void flush() throws IOException {
-    this.out.flush();
+    flushBuffer();
+    if (this.outputStream != null) {
+      writeBytes();
+      this.outputStream.flush();
+    } else {
+      this.out.flush();
+    }
   }
 
   public void write(char[] charBuffer, int off, int len) throws IOException {
-    if (!this.indentationWritten) {
-      for(var i = 0; i < this.indentationLevel; ++i) {
-        this.out.write(this.indentationString);
+    writeIndentation();
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      if (this.count == this.buffer.length) {
+        flushBuffer();
       }
+      int length = Math.min(remaining, this.buffer.length - this.count);
+      System.arraycopy(charBuffer, offset, this.buffer, this.count, length);
+      this.count += length;
+      offset += length;
+      remaining -= length;
+    }
+  }
+
+  public void write(String str, int off, int len) throws IOException {
+    writeIndentation();
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      if (this.count == this.buffer.length) {
+        flushBuffer();
+      }
+      int length = Math.min(remaining, this.buffer.length - this.count);
+      str.getChars(offset, offset + length, this.buffer, this.count);
+      this.count += length;
+      offset += length;
+      remaining -= length;
+    }
+  }
+
+  public void write(int c) throws IOException {
+    writeIndentation();
+    if (this.count == this.buffer.length) {
+      flushBuffer();
+    }
+    this.buffer[this.count++] = (char) c;
+  }
 
+  private void writeIndentation() throws IOException {
+    if (!this.indentationWritten) {
       this.indentationWritten = true;
+      if (this.indentationLevel > 0) {
+        char[] indentation = indentation(this.indentationLevel);
+        write(indentation, 0, indentation.length);
+      }
     }
+  }
 
-    this.out.write(charBuffer, off, len);
+  /**
+   * Returns the indentation string repeated for the indentation level, which is only built once per level.
+   */
+  private char[] indentation(int level) {
+    if (level >= this.indentations.length) {
+      this.indentations = Arrays.copyOf(this.indentations, Math.max(level + 1, this.indentations.length * 2));
+    }
+    if (this.indentations[level] == null) {
+      this.indentations[level] = this.indentationString.repeat(level).toCharArray();
+    }
+    return this.indentations[level];
+  }
+
+  /**
+   * Passes the buffered characters on, to the writer or to the byte buffer.
+   */
+  private void flushBuffer() throws IOException {
+    if (this.outputStream != null) {
+      encodeBuffer(false);
+    } else if (this.count > 0) {
+      this.out.write(this.buffer, 0, this.count);
+      this.count = 0;
+    }
+  }
+
+  /**
+   * Encodes the buffered characters, writing the byte buffer whenever it fills up.  A high surrogate at the end of the
+   * buffer is kept until its low surrogate is written, unless this is the end of the output.
+   */
+  private void encodeBuffer(boolean endOfOutput) throws IOException {
+    CharBuffer chars = CharBuffer.wrap(this.buffer, 0, this.count);
+    while (true) {
+      CoderResult result = this.encoder.encode(chars, this.byteBuffer, endOfOutput);
+      if (result.isOverflow()) {
+        writeBytes();
+      } else if (result.isUnderflow()) {
+        break;
+      } else {
+        result.throwException();
+      }
+    }
+    if (endOfOutput) {
+      while (this.encoder.flush(this.byteBuffer).isOverflow()) {
+        writeBytes();
+      }
+    }
+    int remaining = chars.remaining();
+    System.arraycopy(this.buffer, chars.position(), this.buffer, 0, remaining);
+    this.count = remaining;
+  }
+
+  private void writeBytes() throws IOException {
+    if (this.byteBuffer.position() > 0) {
+      this.outputStream.write(this.byteBuffer.array(), 0, this.byteBuffer.position());
+      this.byteBuffer.clear();
+    }
   }
 }
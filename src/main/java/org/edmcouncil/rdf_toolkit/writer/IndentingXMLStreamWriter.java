@@ -25,6 +25,7 @@
 package org.edmcouncil.rdf_toolkit.writer;
 
 import org.apache.commons.text.StringEscapeUtils;
+import org.edmcouncil.rdf_toolkit.util.TextUtils;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
@@ -367,7 +368,7 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
 
     public void writeAttributeCharacters(String text) throws XMLStreamException {
         try {
-            String escapedText = StringEscapeUtils.escapeXml10(text);
+            String escapedText = escapeXml10(text);
             output.write(escapedText.replaceAll("\\s+"," ").trim()); // do attribute whitespace normalisation
         } catch (Exception ex) {
             throw new XMLStreamException(ex);
@@ -418,7 +419,7 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
     @Override
     public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
         try {
-            String escapedNamespaceURI = StringEscapeUtils.escapeXml10(namespaceURI);
+            String escapedNamespaceURI = escapeXml10(namespaceURI);
             writeEOL();
             output.write("xmlns:");
             output.write(prefix);
@@ -433,7 +434,7 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
     @Override
     public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
         try {
-            String escapedNamespaceURI = StringEscapeUtils.escapeXml10(namespaceURI);
+            String escapedNamespaceURI = escapeXml10(namespaceURI);
             writeEOL();
             output.write("xmlns=\"");
             output.write(escapedNamespaceURI);
@@ -529,7 +530,7 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
             output.write("<!ENTITY ");
             output.write(name);
             output.write(" \"");
-            output.write(StringEscapeUtils.escapeXml10(value));
+            output.write(escapeXml10(value));
             output.write("\">");
         } catch (Exception ex) {
             throw new XMLStreamException(ex);
@@ -577,7 +578,7 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
     public void writeCharacters(String text) throws XMLStreamException {
         try {
             finishStartElement();
-            output.write(StringEscapeUtils.escapeXml10(text));
+            output.write(escapeXml10(text));
             isAfterText = true;
         } catch (Exception ex) {
             throw new XMLStreamException(ex);
@@ -588,7 +589,7 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
     public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
         try {
             finishStartElement();
-            output.write(StringEscapeUtils.escapeXml10(String.copyValueOf(text, start, len)));
+            output.write(escapeXml10(String.copyValueOf(text, start, len)));
             isAfterText = true;
         } catch (Exception ex) {
             throw new XMLStreamException(ex);
@@ -624,4 +625,14 @@ public class IndentingXMLStreamWriter implements XMLStreamWriter {
     public Object getProperty(String name) throws IllegalArgumentException {
         return null; // no properties at present
     }
+
+    /**
+     * Escapes the text for XML 1.0, without copying it when there is nothing to escape, which is the usual case.
+     */
+    private static String escapeXml10(String text) {
+        if ((text == null) || ((TextUtils.classify(text) & TextUtils.XML_ESCAPE) == 0)) {
+            return text;
+        }
+        return StringEscapeUtils.escapeXml10(text);
+    }
 }
@@ -43,8 +43,8 @@ import org.edmcouncil.rdf_toolkit.model.SortedTurtlePredicateObjectMap;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleObjectList;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtlePredicateObjectMap;
 import org.edmcouncil.rdf_toolkit.util.Constants;
+import org.edmcouncil.rdf_toolkit.util.TextUtils;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -85,7 +85,7 @@ public class SortedJsonLdWriter extends SortedRdfWriter {
    */
   public SortedJsonLdWriter(OutputStream out) {
     super(out);
-    this.output = new IndentingWriter(new OutputStreamWriter(out));
+    this.output = new IndentingWriter(out);
     this.output.setLineEnd(DEFAULT_LINE_END);
     this.out = this.output;
   }
@@ -110,7 +110,7 @@ public class SortedJsonLdWriter extends SortedRdfWriter {
    */
   public SortedJsonLdWriter(OutputStream out, Map<String, Object> options) {
     super(out, options);
-    this.output = new IndentingWriter(new OutputStreamWriter(out));
+    this.output = new IndentingWriter(out);
     this.out = this.output;
     if (options.containsKey(INDENT)) {
       this.output.setIndentationString((String) options.get(INDENT));
@@ -160,6 +160,7 @@ public class SortedJsonLdWriter extends SortedRdfWriter {
 
     try {
       // Sort triples, etc.
+      prepareBlankNodeSortKeys(collectionClass);
       sortedOntologies = unsortedOntologies.toSorted(collectionClass, comparisonContext);
       if (sortedOntologies.size() != unsortedOntologies.size()) {
         System.err.printf("**** ontologies unexpectedly lost or gained during sorting: %d != %d%n",
@@ -741,6 +742,9 @@ public class SortedJsonLdWriter extends SortedRdfWriter {
     if (str == null) {
       return null;
     }
+    if ((TextUtils.classify(str) & (TextUtils.CONTROL_CHAR | TextUtils.DOUBLE_QUOTE | TextUtils.BACKSLASH)) == 0) {
+      return str; // nothing to escape
+    }
     StringBuilder sb = new StringBuilder();
     for (char ch : str.toCharArray()) {
       if (ch < SPACE) {
@@ -25,6 +25,8 @@
 package org.edmcouncil.rdf_toolkit.writer;
 
 import static org.edmcouncil.rdf_toolkit.util.Constants.BASE_IRI;
+import static org.edmcouncil.rdf_toolkit.util.Constants.COMPARATOR_CACHE_SIZE;
+import static org.edmcouncil.rdf_toolkit.util.Constants.COMPARATOR_CACHE_STATISTICS;
 import static org.edmcouncil.rdf_toolkit.util.Constants.INLINE_BLANK_NODES;
 import static org.edmcouncil.rdf_toolkit.util.Constants.LEADING_COMMENTS;
 import static org.edmcouncil.rdf_toolkit.util.Constants.OMIT_XMLNS_NAMESPACE;
@@ -33,6 +35,7 @@ import static org.edmcouncil.rdf_toolkit.util.Constants.SHORT_URI_PREF;
 import static org.edmcouncil.rdf_toolkit.util.Constants.STRING_DATA_TYPE_OPTION;
 import static org.edmcouncil.rdf_toolkit.util.Constants.SUPPRESS_NAMED_INDIVIDUALS;
 import static org.edmcouncil.rdf_toolkit.util.Constants.TRAILING_COMMENTS;
+import static org.edmcouncil.rdf_toolkit.util.Constants.USE_COMPACT_TRIPLE_STORE;
 import static org.edmcouncil.rdf_toolkit.util.Constants.USE_DEFAULT_LANGUAGE;
 import static org.edmcouncil.rdf_toolkit.util.Constants.USE_DTD_SUBSET;
 
@@ -45,7 +48,15 @@ import org.eclipse.rdf4j.query.algebra.If;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.helpers.AbstractRDFWriter;
+import org.edmcouncil.rdf_toolkit.comparator.BlankNodeSortKeys;
+import org.edmcouncil.rdf_toolkit.comparator.CachedResourceComparator;
+import org.edmcouncil.rdf_toolkit.comparator.CollectionIndex;
+import org.edmcouncil.rdf_toolkit.comparator.ComparatorCacheStatistics;
 import org.edmcouncil.rdf_toolkit.comparator.ComparisonContext;
+import org.edmcouncil.rdf_toolkit.model.CompactSubjectPredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.model.CompactTripleStore;
+import org.edmcouncil.rdf_toolkit.model.IriRenderingTable;
+import org.edmcouncil.rdf_toolkit.model.NamespaceRegistry;
 import org.edmcouncil.rdf_toolkit.model.ReverseNamespaceTable;
 import org.edmcouncil.rdf_toolkit.model.SortedTurtleObjectList;
 import org.edmcouncil.rdf_toolkit.model.SortedTurtlePredicateObjectMap;
@@ -56,14 +67,16 @@ import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleObjectList;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtlePredicateObjectMap;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleResourceList;
 import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.util.BaseIriRelativizer;
 import org.edmcouncil.rdf_toolkit.util.Constants;
 import org.edmcouncil.rdf_toolkit.util.ShortIriPreferences;
 import org.edmcouncil.rdf_toolkit.util.StringDataTypeOptions;
 import org.edmcouncil.rdf_toolkit.util.TextUtils;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -71,8 +84,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.TreeSet;
 import javax.xml.namespace.QName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Equivalent to Sesame's built-in RDF writer, but the triples are sorted into a consistent order. In order to do the
@@ -83,6 +99,8 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
   // TODO: add common methods for "eol and increase indent", "eol and decrease indent" and "eol with same indent" and
   //  refactor using these
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(SortedRdfWriter.class);
+
   public static final String DEFAULT_LINE_END = "\n";
 
   /**
@@ -188,16 +206,33 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
    */
   protected List<IRI> firstPredicates = null;
 
+  /**
+   * The namespace prefixes, which are also the namespace table.
+   */
+  protected NamespaceRegistry namespaceRegistry = null;
+
   /**
    * Namespace mappings created by the serializer.
    */
   protected Map<String, String> generatedNamespaceTable = null;
 
   /**
-   * Reverse namespace table used to map IRIs to prefixes.  Key is IRI string, value is prefix string.
+   * Reverse namespace table used to map IRIs to prefixes.  Key is IRI string, value is prefix string.  Kept in step with
+   * the namespace table by the namespace registry.
    */
   protected ReverseNamespaceTable reverseNamespaceTable = null;
 
+  /**
+   * QNames and rendered strings of the IRIs written so far.  Cleared whenever the namespace prefixes or the base IRI
+   * change.
+   */
+  protected final IriRenderingTable iriRenderingTable = new IriRenderingTable();
+
+  /**
+   * Makes IRIs relative to the base IRI.  Created when first needed, as the base IRI may be set while parsing.
+   */
+  private BaseIriRelativizer baseIriRelativizer = null;
+
   /**
    * If set to true, xmlns namespace is ignored
    */
@@ -214,6 +249,26 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
    */
   protected String useDefaultLanguage = null;
 
+  /**
+   * Maximum number of resource comparisons cached while sorting.
+   */
+  protected int comparatorCacheSize = CachedResourceComparator.DEFAULT_CACHE_SIZE;
+
+  /**
+   * Hit, miss and eviction counts of the resource comparison caches.
+   */
+  protected ComparatorCacheStatistics comparatorCacheStatistics = new ComparatorCacheStatistics();
+
+  /**
+   * If set to true, triples are stored in a {@link CompactTripleStore} instead of nested hash maps.
+   */
+  protected boolean useCompactTripleStore = false;
+
+  /**
+   * Compact store containing triple data, if {@link #useCompactTripleStore} is set.
+   */
+  protected CompactTripleStore compactTripleStore = null;
+
   /**
    * Output stream for this RDF writer.
    */
@@ -261,6 +316,18 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
     processOptions(options);
   }
 
+  /**
+   * Sets the base IRI for the RDF output document.  Can be called at any time before the end of the RDF data, as the
+   * base IRI is only used when the output is written.
+   *
+   * @param baseIri The base IRI, or null for none.
+   */
+  public void setBaseIri(IRI baseIri) {
+    this.baseIri = baseIri;
+    this.baseIriRelativizer = null;
+    iriRenderingTable.clear();
+  }
+
   private void processOptions(Map<String, Object> options) {
     if (options.containsKey(BASE_IRI)) {
       this.baseIri = (IRI) options.get(BASE_IRI);
@@ -296,6 +363,22 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
     if (options.containsKey(USE_DEFAULT_LANGUAGE)) {
       this.useDefaultLanguage = (String) options.get(USE_DEFAULT_LANGUAGE);
     }
+    if (options.containsKey(COMPARATOR_CACHE_SIZE)) {
+      this.comparatorCacheSize = (Integer) options.get(COMPARATOR_CACHE_SIZE);
+    }
+    if (options.containsKey(COMPARATOR_CACHE_STATISTICS)) {
+      this.comparatorCacheStatistics = (ComparatorCacheStatistics) options.get(COMPARATOR_CACHE_STATISTICS);
+    }
+    if (options.containsKey(USE_COMPACT_TRIPLE_STORE)) {
+      this.useCompactTripleStore = Boolean.parseBoolean(options.get(USE_COMPACT_TRIPLE_STORE).toString());
+    }
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts of the resource comparison caches used by this writer.
+   */
+  public ComparatorCacheStatistics getComparatorCacheStatistics() {
+    return comparatorCacheStatistics;
   }
 
   /**
@@ -315,46 +398,54 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
    * @return The equivalent QName for the IRI, or null if no equivalent.
    */
   protected QName convertIriToQName(IRI iri, boolean useGeneratedPrefixes) {
+    return iriRenderingTable.getQName(iri, useGeneratedPrefixes,
+        unconvertedIri -> findQName(unconvertedIri, useGeneratedPrefixes));
+  }
+
+  private QName findQName(IRI iri, boolean useGeneratedPrefixes) {
     String iriString = iri.stringValue();
-    for (String iriStem : reverseNamespaceTable.keySet()) {
+    // The longest namespace the IRI starts with gives the QName, unless a namespace which comes before it in the
+    // reverse namespace table has a prefix the IRI starts with, followed by a colon.
+    String iriStem = reverseNamespaceTable.getLongestNamespace(iriString);
+    int colonIndex = iriString.indexOf(':');
+    String prefixedIriStem = colonIndex < 0 ? null :
+        reverseNamespaceTable.getNamespaceWithPrefix(iriString.substring(0, colonIndex));
+    if ((iriStem != null) &&
+        ((prefixedIriStem == null) || (reverseNamespaceTable.comparator().compare(iriStem, prefixedIriStem) <= 0))) {
       String prefix = reverseNamespaceTable.get(iriStem);
-      if ((iriString.length() > iriStem.length()) && iriString.startsWith(iriStem)) {
-        String localPart = iriString.substring(iriStem.length());
-        if (TextUtils.isPrefixedNameLocalPart(localPart)) { // to be a value QName, the 'local part' has to be valid
-          if (useGeneratedPrefixes || !generatedNamespaceTable.containsKey(prefix)) {
-            return new QName(iriStem, localPart, prefix);
-          } else {
-            return null;
-          }
-        } else {
-          return null;
+      String localPart = iriString.substring(iriStem.length());
+      if (TextUtils.isPrefixedNameLocalPart(localPart)) { // to be a value QName, the 'local part' has to be valid
+        if (useGeneratedPrefixes || !generatedNamespaceTable.containsKey(prefix)) {
+          return new QName(iriStem, localPart, prefix);
         }
-      } else if (iriString.startsWith(String.format("%s:", prefix))) {
-        return new QName(iriStem, iriString.substring(iriString.indexOf(':') + 1), prefix);
       }
+      return null;
+    } else if (prefixedIriStem != null) {
+      return new QName(prefixedIriStem, iriString.substring(colonIndex + 1), reverseNamespaceTable.get(prefixedIriStem));
     }
     // Failed to find a match, return null.
     return null;
   }
 
   protected String convertIriToRelativeIri(IRI iri, boolean useTurtleQuoting) throws Exception {
+    String relativeIri = relativizeIri(iri);
+    return useTurtleQuoting ? "<" + relativeIri + ">" : relativeIri;
+  }
+
+  /**
+   * Returns the IRI relative to the base IRI, if any, otherwise the IRI itself.
+   */
+  private String relativizeIri(IRI iri) throws Exception {
     // Note: does not check that the baseIri doesn't terminate in the middle of some IRI of which it really isn't the base.
+    String iriString = iri.stringValue();
     if (baseIri != null) {
-      String iriString = iri.stringValue();
-      String baseIriString = baseIri.stringValue();
-      String relativeIriString = (new URI(baseIriString)).relativize(new URI(iriString)).toString();
-      return String.format("%s%s%s",
-          useTurtleQuoting ? "<" : "",
-          relativeIriString.length() >= 1 ? relativeIriString : iriString, // avoid zero-length relative IRIs
-          useTurtleQuoting ? ">" : ""
-      );
+      if (baseIriRelativizer == null) {
+        baseIriRelativizer = new BaseIriRelativizer(baseIri.stringValue());
+      }
+      String relativeIriString = baseIriRelativizer.relativize(iriString);
+      return relativeIriString.length() >= 1 ? relativeIriString : iriString; // avoid zero-length relative IRIs
     }
-    // Failed to find a match, return null.
-    return String.format("%s%s%s",
-        useTurtleQuoting ? "<" : "",
-        iri.stringValue(),
-        useTurtleQuoting ? ">" : ""
-    );
+    return iriString;
   }
 
   /**
@@ -365,14 +456,45 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
   @Override
   public void startRDF() throws RDFHandlerException {
     allPredicates = new HashSet<>();
-    namespaceTable = new TreeMap<>();
-    generatedNamespaceTable = new TreeMap<>();
+    namespaceRegistry = new NamespaceRegistry();
+    namespaceTable = namespaceRegistry;
+    generatedNamespaceTable = namespaceRegistry.getGeneratedNamespaces();
+    reverseNamespaceTable = namespaceRegistry.getReverseNamespaceTable();
+    iriRenderingTable.clear();
     unsortedOntologies = new UnsortedTurtleResourceList();
     unsortedBlankNodes = new UnsortedTurtleResourceList();
     blankNodeNameMap = new HashMap<>();
-    unsortedTripleMap = new UnsortedTurtleSubjectPredicateObjectMap();
+    if (useCompactTripleStore) {
+      compactTripleStore = new CompactTripleStore();
+      unsortedTripleMap = new CompactSubjectPredicateObjectMap(compactTripleStore);
+    } else {
+      unsortedTripleMap = new UnsortedTurtleSubjectPredicateObjectMap();
+    }
     objectBlankNodes = new UnsortedTurtleBNodeList();
-    comparisonContext = new ComparisonContext(inlineBlankNodes, unsortedTripleMap);
+    comparisonContext = new ComparisonContext(inlineBlankNodes, unsortedTripleMap, comparatorCacheSize,
+        comparatorCacheStatistics);
+  }
+
+  /**
+   * Precomputes which blank nodes are RDF collections, and the sort keys of all blank nodes, so that neither sorting
+   * nor writing has to walk blank nodes recursively.  Must be called once all statements have been handled, before any
+   * sorting is done.
+   *
+   * @param collectionClass all RDF collection members must be instances of this class
+   */
+  protected void prepareBlankNodeSortKeys(Class<Value> collectionClass) {
+    comparisonContext.setCollectionIndex(collectionClass, CollectionIndex.compute(comparisonContext, collectionClass));
+    if (collectionClass != Value.class) { // resource comparators always compare blank nodes this way
+      comparisonContext.setCollectionIndex(Value.class, CollectionIndex.compute(comparisonContext, Value.class));
+    }
+    LOGGER.debug("RDF collections: {}",
+        comparisonContext.getCollectionIndex(collectionClass).getCollectionCount());
+
+    comparisonContext.setBlankNodeSortKeys(collectionClass,
+        BlankNodeSortKeys.compute(comparisonContext, collectionClass));
+    if (collectionClass != Value.class) { // resource comparators always compare blank nodes this way
+      comparisonContext.setBlankNodeSortKeys(Value.class, BlankNodeSortKeys.compute(comparisonContext, Value.class));
+    }
   }
 
   /**
@@ -383,9 +505,7 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
    */
   protected void addDefaultNamespacePrefixIfMissing(String namespaceIri, String defaultPrefix) {
     if ((namespaceIri != null) && (defaultPrefix != null)) {
-      if (!namespaceTable.containsValue(namespaceIri)) {
-        namespaceTable.put(defaultPrefix, namespaceIri);
-      }
+      namespaceRegistry.putIfNamespaceMissing(defaultPrefix, namespaceIri);
     }
   }
 
@@ -395,7 +515,9 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
    * it.
    */
   protected void addNamespacePrefixesForPredicates() {
-    int namespaceIndex = 1;
+    // The prefixes are generated in namespace IRI order, so that their numbering does not depend on the order of the
+    // predicates.
+    Set<String> namespaceIris = new TreeSet<>();
     for (IRI predicate : allPredicates) {
       String predicateString = predicate.stringValue();
       int namespaceIriEndPos = Math.max(
@@ -403,16 +525,13 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
           predicateString.lastIndexOf("#")
       );
       String namespaceIri = predicateString.substring(0, namespaceIriEndPos + 1);
-      if (namespaceIri.length() >= 1) {
-        if (!namespaceTable.containsValue(namespaceIri)) {
-          String newPrefix = "zzzns" + String.format("%04d", namespaceIndex); // TODO zzzns?
-          namespaceTable.put(newPrefix, namespaceIri);
-          generatedNamespaceTable.put(newPrefix,
-              namespaceIri); // track the namespace mappings created by the serializer
-          namespaceIndex += 1;
-        }
+      if ((namespaceIri.length() >= 1) && !namespaceRegistry.containsNamespace(namespaceIri)) {
+        namespaceIris.add(namespaceIri);
       }
     }
+    for (String namespaceIri : namespaceIris) {
+      namespaceRegistry.putGeneratedPrefix(namespaceIri); // tracks the namespace mappings created by the serializer
+    }
   }
 
   /**
@@ -455,12 +574,8 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
       // Add any extra namespaces needed to make all predicates writeable as a QName.  This is especially needed for RDF/XML.
       addNamespacePrefixesForPredicates();
 
-      // Create reverse namespace table.
-      reverseNamespaceTable = new ReverseNamespaceTable();
-      for (String prefix : namespaceTable.keySet()) {
-        String iri = namespaceTable.get(prefix);
-        reverseNamespaceTable.put(iri, prefix);
-      }
+      // The namespace prefixes are now complete.
+      iriRenderingTable.clear();
 
       // Create list of imports
       SortedTurtleObjectList importList = new SortedTurtleObjectList(comparisonContext);
@@ -540,6 +655,12 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
       writeFooter(out, trailingComments);
 
       out.flush();
+
+      LOGGER.debug("Sorted predicate/object views: {} built, {} reused",
+          unsortedTripleMap.getSortedViewBuildCount(),
+          unsortedTripleMap.getSortedViewReuseCount());
+      LOGGER.debug("Resource comparison cache (size {}): {}", comparatorCacheSize, comparatorCacheStatistics);
+      LOGGER.debug("IRI renderings remembered: {}", iriRenderingTable.size());
     } catch (Throwable t) {
       throw new RDFHandlerException("unable to generate/write RDF output", t);
     }
@@ -586,6 +707,30 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
     }
 
     // Store the statement in the main 'triple map'.
+    if (compactTripleStore != null) {
+      compactTripleStore.add(st.getSubject(), st.getPredicate(), st.getObject());
+      unsortedTripleMap.invalidateSortedViews();
+    } else {
+      storeStatement(st);
+    }
+
+    // Note subjects which are OWL ontologies, as the are handled before other subjects.
+    if (st.getPredicate().equals(Constants.RDF_TYPE) &&
+        st.getObject().equals(Constants.owlOntology) &&
+        !unsortedOntologies.contains((st.getSubject()))) {
+      unsortedOntologies.add(st.getSubject());
+    }
+
+    // Note subjects & objects which are blank nodes.
+    if (st.getSubject() instanceof BNode) {
+      unsortedBlankNodes.add(st.getSubject());
+    }
+    if ((st.getObject() instanceof BNode) && !unsortedBlankNodes.contains(((BNode) st.getObject()))) {
+      unsortedBlankNodes.add((BNode) st.getObject());
+    }
+  }
+
+  private void storeStatement(Statement st) {
     UnsortedTurtlePredicateObjectMap poMap = null;
     if (unsortedTripleMap.containsKey(st.getSubject())) {
       poMap = unsortedTripleMap.get(st.getSubject());
@@ -604,21 +749,7 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
 
     if (!oList.contains(st.getObject())) {
       oList.add(st.getObject());
-    }
-
-    // Note subjects which are OWL ontologies, as the are handled before other subjects.
-    if (st.getPredicate().equals(Constants.RDF_TYPE) &&
-        st.getObject().equals(Constants.owlOntology) &&
-        !unsortedOntologies.contains((st.getSubject()))) {
-      unsortedOntologies.add(st.getSubject());
-    }
-
-    // Note subjects & objects which are blank nodes.
-    if (st.getSubject() instanceof BNode) {
-      unsortedBlankNodes.add(st.getSubject());
-    }
-    if ((st.getObject() instanceof BNode) && !unsortedBlankNodes.contains(((BNode) st.getObject()))) {
-      unsortedBlankNodes.add((BNode) st.getObject());
+      unsortedTripleMap.invalidateSortedViews();
     }
   }
 
@@ -665,41 +796,78 @@ public abstract class SortedRdfWriter extends AbstractRDFWriter {
       boolean useGeneratedPrefixes,
       boolean useTurtleQuoting,
       boolean useJsonLdQuoting) throws Exception {
+    String rendering = iriRenderingTable.getRendering(iri, useGeneratedPrefixes, useTurtleQuoting);
+    if (rendering == null) {
+      StringWriter iriWriter = new StringWriter();
+      writeIri(iriWriter, iri, useGeneratedPrefixes, useTurtleQuoting);
+      rendering = iriWriter.toString();
+      iriRenderingTable.putRendering(iri, useGeneratedPrefixes, useTurtleQuoting, rendering);
+    }
+    return rendering;
+  }
+
+  /**
+   * Writes an IRI the way {@link #convertIriToString(IRI, boolean, boolean, boolean)} renders it, but straight to the
+   * writer, without building a string for the rendered IRI or remembering it.
+   */
+  protected void writeIri(Writer out, IRI iri, boolean useGeneratedPrefixes, boolean useTurtleQuoting)
+      throws Exception {
     if (ShortIriPreferences.PREFIX.equals(shortIriPreference)) {
-      // return the IRI out as a QName if possible.
+      // write the IRI out as a QName if possible.
       QName qname = convertIriToQName(iri, useGeneratedPrefixes);
       if (qname != null) {
-        return convertQNameToString(qname, useTurtleQuoting);
-      } else { // return the IRI relative to the base IRI, if possible.
-        return convertIriToRelativeIri(iri, useTurtleQuoting);
+        writeQName(out, qname, useTurtleQuoting);
+      } else { // write the IRI relative to the base IRI, if possible.
+        writeAbsoluteOrRelativeIri(out, relativizeIri(iri), useTurtleQuoting);
       }
+      return;
     }
     if (ShortIriPreferences.BASE_IRI.equals(shortIriPreference)) {
-      // return the IRI relative to the base URI, if possible.
-      String relativeIri = convertIriToRelativeIri(iri, useTurtleQuoting);
+      // write the IRI relative to the base URI, if possible.
+      String relativeIri = relativizeIri(iri);
 
       // check if the relative URI is shortened, or not
       if (!relativeIri.contains(iri.stringValue())) {
-        return relativeIri;
+        writeAbsoluteOrRelativeIri(out, relativeIri, useTurtleQuoting);
       } else {
-        // return the IRI out as a QName if possible.
+        // write the IRI out as a QName if possible.
         QName qname = convertIriToQName(iri, useGeneratedPrefixes);
         if (qname != null) {
-          return convertQNameToString(qname, useTurtleQuoting);
-        } else { // return the absolute IRI
-          return String.format("%s%s%s",
-              useTurtleQuoting ? "<" : "",
-              iri.stringValue(),
-              useTurtleQuoting ? ">" : ""
-          );
+          writeQName(out, qname, useTurtleQuoting);
+        } else { // write the absolute IRI
+          writeAbsoluteOrRelativeIri(out, iri.stringValue(), useTurtleQuoting);
         }
       }
+      return;
+    }
+    writeAbsoluteOrRelativeIri(out, iri.stringValue(), useTurtleQuoting); // if nothing else, do this
+  }
+
+  private void writeQName(Writer out, QName qname, boolean useTurtleQuoting) throws IOException {
+    if (qname.getPrefix() != null) {
+      out.write(qname.getPrefix());
+      out.write(':');
+      out.write(qname.getLocalPart());
+    } else {
+      if (useTurtleQuoting) {
+        out.write('<');
+      }
+      out.write(qname.getNamespaceURI());
+      out.write(qname.getLocalPart());
+      if (useTurtleQuoting) {
+        out.write('>');
+      }
+    }
+  }
+
+  private void writeAbsoluteOrRelativeIri(Writer out, String iriString, boolean useTurtleQuoting) throws IOException {
+    if (useTurtleQuoting) {
+      out.write('<');
+      out.write(iriString);
+      out.write('>');
+    } else {
+      out.write(iriString);
     }
-    return String.format("%s%s%s",
-        useTurtleQuoting ? "<" : "",
-        iri.stringValue(),
-        useTurtleQuoting ? ">" : ""
-    ); // if nothing else, do this
   }
 
   /**
@@ -152,6 +152,7 @@ public class SortedRdfXmlWriter extends SortedRdfWriter {
 
     try {
       // Sort triples, etc.
+      prepareBlankNodeSortKeys(COLLECTION_CLASS);
       sortedOntologies = unsortedOntologies.toSorted(COLLECTION_CLASS, comparisonContext);
       if (sortedOntologies.size() != unsortedOntologies.size()) {
         System.err.printf("**** ontologies unexpectedly lost or gained during sorting: %d != %d%n",
@@ -247,8 +248,8 @@ public class SortedRdfXmlWriter extends SortedRdfWriter {
     }
 
     // RDF/XML sometimes uses the 'xml' prefix, e.g. xml:lang.  This prefix is never declared explicitly.
-    addDefaultNamespacePrefixIfMissing(XML_NS_URI, "xml");
-    reverseNamespaceTable.put(XML_NS_URI, "xml"); // need to update reverse namespace table manually
+    addDefaultNamespacePrefixIfMissing(XML_NS_URI, "xml"); // also updates the reverse namespace table
+    iriRenderingTable.clear(); // IRIs in the XML namespace now have QNames
 
     // NOTE: have decided I don't need to preserve whitespace in attributes as I don't produce whitespace-sensitive
     // attributes in RDF/XML.  Also, apparently some less-than-conformant XML applications have problems with it.
@@ -29,8 +29,8 @@ import static org.edmcouncil.rdf_toolkit.comparator.ComparisonUtils.isCollection
 import static org.edmcouncil.rdf_toolkit.util.Constants.INDENT;
 import static org.edmcouncil.rdf_toolkit.util.Constants.LINE_END;
 
+import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -81,7 +81,7 @@ public class SortedTurtleWriter extends SortedRdfWriter {
    */
   public SortedTurtleWriter(OutputStream out) {
     super(out);
-    this.output = new IndentingWriter(new OutputStreamWriter(out));
+    this.output = new IndentingWriter(out);
     this.output.setLineEnd(DEFAULT_LINE_END);
     this.out = this.output;
   }
@@ -106,7 +106,7 @@ public class SortedTurtleWriter extends SortedRdfWriter {
    */
   public SortedTurtleWriter(OutputStream out, Map<String, Object> options) {
     super(out, options);
-    this.output = new IndentingWriter(new OutputStreamWriter(out));
+    this.output = new IndentingWriter(out);
     this.out = this.output;
     if (options.containsKey(INDENT)) {
       this.output.setIndentationString((String) options.get(INDENT));
@@ -156,6 +156,7 @@ public class SortedTurtleWriter extends SortedRdfWriter {
 
     try {
       // Sort triples, etc.
+      prepareBlankNodeSortKeys(COLLECTION_CLASS);
       sortedOntologies = unsortedOntologies.toSorted(COLLECTION_CLASS, comparisonContext);
       if (sortedOntologies.size() != unsortedOntologies.size()) {
         System.err.printf("**** ontologies unexpectedly lost or gained during sorting: %d != %d%n",
@@ -247,7 +248,8 @@ public class SortedTurtleWriter extends SortedRdfWriter {
           out.write("[]");
         }
       } else {
-        out.write("_:" + blankNodeNameMap.get(subject));
+        out.write("_:");
+        out.write(blankNodeNameMap.get(subject));
       }
     } else {
       writeIri(out, (IRI) subject);
@@ -333,7 +335,7 @@ public class SortedTurtleWriter extends SortedRdfWriter {
     writePredicate(out, predicate);
     if (values.size() == 1) {
       out.write(" ");
-      writeObject(out, (Value) values.toArray()[0]);
+      writeObject(out, values.iterator().next());
       out.write(" ;");
       if (out instanceof IndentingWriter) {
         IndentingWriter output = (IndentingWriter) out;
@@ -376,21 +378,15 @@ public class SortedTurtleWriter extends SortedRdfWriter {
   }
 
   protected void writePredicate(Writer out, IRI predicate) throws Exception {
-    out.write(
-        convertVerbIriToString(
-            predicate,
-            USE_GENERATED_PREFIXES,
-            true,
-            false));
+    if (Constants.RDF_TYPE.equals(predicate)) {
+      out.write('a');
+    } else {
+      writeIri(out, predicate);
+    }
   }
 
   protected void writeIri(Writer out, IRI iri) throws Exception {
-    out.write(
-        convertIriToString(
-            iri,
-            USE_GENERATED_PREFIXES,
-            true,
-            false));
+    out.write(convertIriToString(iri, USE_GENERATED_PREFIXES, true, false));
   }
 
   protected void writeObject(Writer out, Value value) throws Exception {
@@ -401,7 +397,9 @@ public class SortedTurtleWriter extends SortedRdfWriter {
     } else if (value instanceof Literal) {
       writeObject(out, (Literal) value);
     } else {
-      out.write("\"" + value.stringValue() + "\"");
+      out.write('"');
+      out.write(value.stringValue());
+      out.write('"');
       out.write(" ");
     }
   }
@@ -481,7 +479,8 @@ public class SortedTurtleWriter extends SortedRdfWriter {
       }
     } else { // no inlining of blank nodes
       if (unsortedTripleMap.containsKey(bnode)) {
-        out.write("_:" + blankNodeNameMap.get(bnode));
+        out.write("_:");
+        out.write(blankNodeNameMap.get(bnode));
       } else {
         System.out.println("**** blank node not a subject: " + bnode.stringValue());
         System.out.flush();
@@ -505,13 +504,16 @@ public class SortedTurtleWriter extends SortedRdfWriter {
 
     if (overrideStringLanguage != null && (literalDatatype.equals(Constants.xsString) || languageOptional.isPresent())) {
       writeString(out, literal.stringValue());
-      out.write("@" + overrideStringLanguage);
+      out.write('@');
+      out.write(overrideStringLanguage);
     } else if (languageOptional.isPresent()) {
       writeString(out, literal.stringValue());
-      out.write("@" + languageOptional.get());
+      out.write('@');
+      out.write(languageOptional.get());
     } else if (useDefaultLanguage != null && literalDatatype.equals(Constants.xsString)) {
       writeString(out, literal.stringValue());
-      out.write("@" + useDefaultLanguage);
+      out.write('@');
+      out.write(useDefaultLanguage);
     } else if (literalDatatype != null) {
       boolean useExplicit =
           stringDataTypeOption == StringDataTypeOptions.EXPLICIT ||
@@ -530,39 +532,42 @@ public class SortedTurtleWriter extends SortedRdfWriter {
     if (str == null) {
       return;
     }
-    if (TextUtils.isMultilineString(str)) { // multi-line string
-      if (str.contains("\"")) { // string contains double quote chars
-        if (str.contains("'")) { // string contains both single and double quote chars
-          out.write("\"\"\"");
-          out.write(escapeString(str).replaceAll("\"", "\\\\\""));
-          out.write("\"\"\"");
-        } else { // string contains double quote chars but no single quote chars
-          out.write("'''");
-          out.write(escapeString(str));
-          out.write("'''");
-        }
-      } else { // string has no double quote chars
-        out.write("\"\"\"");
-        out.write(escapeString(str));
-        out.write("\"\"\"");
-      }
-    } else { // single-line string
-      if (str.contains("\"")) { // string contains double quote chars
-        if (str.contains("'")) { // string contains both single and double quote chars
-          out.write("\"");
-          out.write(escapeString(str).replaceAll("\"", "\\\\\""));
-          out.write("\"");
-        } else { // string contains double quote chars but no single quote chars
-          out.write("'");
-          out.write(escapeString(str));
-          out.write("'");
-        }
-      } else { // string has no double quote chars
-        out.write("\"");
-        out.write(escapeString(str));
-        out.write("\"");
+    int flags = TextUtils.classify(str);
+    boolean isMultiline = (flags & TextUtils.MULTILINE) != 0;
+    boolean hasDoubleQuote = (flags & TextUtils.DOUBLE_QUOTE) != 0;
+    boolean escapeDoubleQuotes = hasDoubleQuote && ((flags & TextUtils.SINGLE_QUOTE) != 0);
+    String quotes;
+    if (hasDoubleQuote && !escapeDoubleQuotes) { // string contains double quote chars but no single quote chars
+      quotes = isMultiline ? "'''" : "'";
+    } else { // double quote chars, if any, are escaped
+      quotes = isMultiline ? "\"\"\"" : "\"";
+    }
+    out.write(quotes);
+    if (escapeDoubleQuotes || ((flags & TextUtils.BACKSLASH) != 0)) {
+      writeEscapedString(out, str, escapeDoubleQuotes);
+    } else {
+      out.write(str);
+    }
+    out.write(quotes);
+  }
+
+  /**
+   * Writes the string with its backslashes escaped, and its double quote chars too if requested.  Runs of characters
+   * which need no escaping are written straight from the string.
+   */
+  private void writeEscapedString(Writer out, String str, boolean escapeDoubleQuotes) throws IOException {
+    int start = 0;
+    int length = str.length();
+    for (int index = 0; index < length; index++) {
+      char ch = str.charAt(index);
+      if ((ch == '\\') || (escapeDoubleQuotes && (ch == '"'))) {
+        out.write(str, start, index - start);
+        out.write('\\');
+        out.write(ch);
+        start = index + 1;
       }
     }
+    out.write(str, start, length - start);
   }
 
   protected void writeFooter(Writer out, String[] trailingComments) throws Exception {
@@ -579,11 +584,4 @@ public class SortedTurtleWriter extends SortedRdfWriter {
     }
   }
 
-  private String escapeString(String str) {
-    if (str == null) {
-      return null;
-    }
-    return str.replaceAll("\\\\", "\\\\\\\\");
-  }
-
 }
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.benchmark;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.edmcouncil.rdf_toolkit.comparator.BNodeComparator;
+import org.edmcouncil.rdf_toolkit.comparator.BlankNodeSortKeys;
+import org.edmcouncil.rdf_toolkit.comparator.ComparisonContext;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleObjectList;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtlePredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of comparing two blank nodes at the top of deep, nearly identical owl:Restriction chains, which
+ * only differ at the innermost restriction.
+ *
+ * <p>Run with:</p>
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *     -Dexec.args=BlankNodeComparisonBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlankNodeComparisonBenchmark {
+
+  private static final String IRI_PREFIX = "http://example.com/ont1/";
+
+  @Param({"8", "64", "256"})
+  private int depth;
+
+  private BNode chain1;
+  private BNode chain2;
+  private BNodeComparator recursiveComparator;
+  private BNodeComparator sortKeyComparator;
+
+  @Setup
+  public void setUp() {
+    var tripleMap = new UnsortedTurtleSubjectPredicateObjectMap();
+    chain1 = addRestrictionChain(tripleMap, "a", "Leaf1");
+    chain2 = addRestrictionChain(tripleMap, "b", "Leaf2");
+
+    recursiveComparator = new BNodeComparator(Value.class, new ComparisonContext(true, tripleMap));
+
+    var sortKeyContext = new ComparisonContext(true, tripleMap);
+    sortKeyContext.setBlankNodeSortKeys(Value.class, BlankNodeSortKeys.compute(sortKeyContext, Value.class));
+    sortKeyComparator = new BNodeComparator(Value.class, sortKeyContext);
+  }
+
+  @Benchmark
+  public int compareRecursively() {
+    return recursiveComparator.compare(chain1, chain2);
+  }
+
+  @Benchmark
+  public int compareWithSortKeys() {
+    return sortKeyComparator.compare(chain1, chain2);
+  }
+
+  private BNode addRestrictionChain(UnsortedTurtleSubjectPredicateObjectMap tripleMap, String chainId,
+      String leafName) {
+    var valueFactory = SimpleValueFactory.getInstance();
+    Value next = valueFactory.createIRI(IRI_PREFIX + leafName);
+    BNode restriction = null;
+    for (int level = depth; level > 0; level--) {
+      restriction = valueFactory.createBNode(chainId + level);
+      add(tripleMap, restriction, RDF.TYPE, OWL.RESTRICTION);
+      add(tripleMap, restriction, OWL.ONPROPERTY, valueFactory.createIRI(IRI_PREFIX + "property" + level));
+      add(tripleMap, restriction, OWL.SOMEVALUESFROM, next);
+      next = restriction;
+    }
+    return restriction;
+  }
+
+  private void add(UnsortedTurtleSubjectPredicateObjectMap tripleMap, Resource subject, IRI predicate, Value object) {
+    tripleMap.computeIfAbsent(subject, key -> new UnsortedTurtlePredicateObjectMap())
+        .computeIfAbsent(predicate, key -> new UnsortedTurtleObjectList())
+        .add(object);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.benchmark;
+
+import org.edmcouncil.rdf_toolkit.util.TextUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the character classification done for every local name and literal written, on local names and literals
+ * like those of FIBO.
+ *
+ * <p>Run with:</p>
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *     -Dexec.args=TextClassificationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextClassificationBenchmark {
+
+  private final String[] localNames = {
+      "LegalEntityIdentifierRegistryEntry",
+      "hasDateOfRegistration",
+      "isDomiciledIn",
+      "ISO4217-CurrencyCode",
+      "BankHoldingCompany",
+      "hasCombinedCapitalAndSurplus",
+      "FIBO-FND-ACC-CUR",
+      "MultinationalGovernmentalJurisdiction",
+      "hasLegalName",
+      "Q1-2021",
+      "isClassifiedBy",
+      "UnitedStatesDollar"};
+
+  private final String[] literals = {
+      "a legal person that is registered with some jurisdiction",
+      "The \"US dollar\" is the official currency of the United States",
+      "an identifier for a legal entity, as defined in ISO 17442\nsee also the GLEIF website",
+      "ISO 4217",
+      "Adapted from the Federal Reserve Board's definition of a bank holding company"};
+
+  @Benchmark
+  public int classifyLocalNames() {
+    int flags = 0;
+    for (String localName : localNames) {
+      flags += TextUtils.classify(localName);
+    }
+    return flags;
+  }
+
+  @Benchmark
+  public int checkLocalNames() {
+    int count = 0;
+    for (String localName : localNames) {
+      if (TextUtils.isPrefixedNameLocalPart(localName)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int classifyLiterals() {
+    int flags = 0;
+    for (String literal : literals) {
+      flags += TextUtils.classify(literal);
+    }
+    return flags;
+  }
+}
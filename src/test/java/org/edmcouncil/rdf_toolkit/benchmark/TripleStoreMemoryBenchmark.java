@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.benchmark;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.edmcouncil.rdf_toolkit.model.CompactTripleStore;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleObjectList;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtlePredicateObjectMap;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measures the heap retained by the triples of a generated ontology when they are held in the nested
+ * {@link UnsortedTurtleSubjectPredicateObjectMap} and in a {@link CompactTripleStore}.  The RDF terms themselves are
+ * created up front and are not counted, as the parsed model holds on to them in either case.
+ *
+ * <p>Run with:</p>
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.edmcouncil.rdf_toolkit.benchmark.TripleStoreMemoryBenchmark -Dexec.args=1000000
+ * </pre>
+ */
+public class TripleStoreMemoryBenchmark {
+
+  private static final String IRI_PREFIX = "http://example.com/ont1/";
+  private static final int PREDICATE_COUNT = 24;
+
+  private static Object retained; // keeps the measured structure reachable
+
+  public static void main(String[] args) {
+    int tripleCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    List<Statement> statements = generateStatements(tripleCount);
+
+    long mapBytes = retainedBytes(() -> {
+      var tripleMap = new UnsortedTurtleSubjectPredicateObjectMap();
+      for (Statement st : statements) {
+        tripleMap.computeIfAbsent(st.getSubject(), subject -> new UnsortedTurtlePredicateObjectMap())
+            .computeIfAbsent(st.getPredicate(), predicate -> new UnsortedTurtleObjectList())
+            .add(st.getObject());
+      }
+      return tripleMap;
+    });
+    long storeBytes = retainedBytes(() -> {
+      var store = new CompactTripleStore();
+      for (Statement st : statements) {
+        store.add(st.getSubject(), st.getPredicate(), st.getObject());
+      }
+      store.size(); // sorts and trims the store
+      return store;
+    });
+
+    System.out.printf("triples:                  %,d%n", statements.size());
+    System.out.printf("nested hash maps:         %,d bytes (%.1f bytes/triple)%n",
+        mapBytes, (double) mapBytes / statements.size());
+    System.out.printf("compact triple store:     %,d bytes (%.1f bytes/triple)%n",
+        storeBytes, (double) storeBytes / statements.size());
+    System.out.printf("ratio:                    %.1fx%n", (double) mapBytes / storeBytes);
+  }
+
+  /**
+   * Generates an ontology-like graph: classes with a type, a label, a comment and a few superclasses, and individuals
+   * with a handful of property values pointing at other resources.
+   */
+  private static List<Statement> generateStatements(int tripleCount) {
+    ValueFactory valueFactory = SimpleValueFactory.getInstance();
+    var predicates = new IRI[PREDICATE_COUNT];
+    for (int index = 0; index < PREDICATE_COUNT; index++) {
+      predicates[index] = valueFactory.createIRI(IRI_PREFIX + "property" + index);
+    }
+
+    var statements = new ArrayList<Statement>(tripleCount);
+    for (int subjectIndex = 0; statements.size() < tripleCount; subjectIndex++) {
+      IRI subject = valueFactory.createIRI(IRI_PREFIX + "Resource" + subjectIndex);
+      statements.add(valueFactory.createStatement(subject, RDF.TYPE, subjectIndex % 4 == 0 ? OWL.CLASS : OWL.THING));
+      statements.add(valueFactory.createStatement(subject, RDFS.LABEL,
+          valueFactory.createLiteral("resource " + subjectIndex, "en")));
+      statements.add(valueFactory.createStatement(subject, RDFS.COMMENT,
+          valueFactory.createLiteral("A generated resource, number " + subjectIndex + ".")));
+      for (int index = 1; index <= 5; index++) {
+        IRI object = valueFactory.createIRI(IRI_PREFIX + "Resource" + (subjectIndex / (index + 1)));
+        statements.add(valueFactory.createStatement(subject, predicates[(subjectIndex + index) % PREDICATE_COUNT],
+            object));
+      }
+    }
+    return statements;
+  }
+
+  private static long retainedBytes(Supplier<Object> builder) {
+    long before = usedHeap();
+    retained = builder.get();
+    long after = usedHeap();
+    retained = null;
+    return after - before;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int index = 0; index < 5; index++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.benchmark;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.edmcouncil.rdf_toolkit.writer.SortedTurtleWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast test ontologies are written as sorted Turtle, in bytes of output per second.  The ontologies are
+ * parsed once, so only the sorting and writing are measured.
+ *
+ * <p>Run with:</p>
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *     -Dexec.args=TurtleWritingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TurtleWritingBenchmark {
+
+  private static final String ONTOLOGY_DIR = "src/test/resources/ontologies/";
+
+  @Param({
+      "fibo/ontology/master/latest/FND/Accounting/ISO4217-CurrencyCodes.rdf",
+      "fibo/ontology/master/latest/IND/EconomicIndicators/EconomicIndicators.rdf",
+      "wine.rdf",
+      "other/topbraid-countries-ontology.ttl"})
+  private String ontology;
+
+  private Model model;
+
+  /**
+   * Counts the bytes written, reported by JMH as bytes per second alongside the files per second.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class WrittenBytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    File file = new File(ONTOLOGY_DIR + ontology);
+    Optional<RDFFormat> format = Rio.getParserFormatForFileName(file.getName());
+    try (InputStream inputStream = new FileInputStream(file)) {
+      model = Rio.parse(inputStream, "", format.orElse(RDFFormat.TURTLE));
+    }
+  }
+
+  @Benchmark
+  public void writeTurtle(WrittenBytes writtenBytes) {
+    var writer = new SortedTurtleWriter(new OutputStream() {
+      @Override
+      public void write(int b) {
+        writtenBytes.bytes++;
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+        writtenBytes.bytes += len;
+      }
+    });
+    writer.startRDF();
+    model.getNamespaces().forEach(namespace -> writer.handleNamespace(namespace.getPrefix(), namespace.getName()));
+    for (Statement statement : model) {
+      writer.handleStatement(statement);
+    }
+    writer.endRDF();
+  }
+}
@@ -93,12 +93,15 @@ class BNodeComparatorTest extends AbstractComparatorTest {
     var comparisonContext = prepareComparisonContext(model, true);
     var bnodeComparator = new BNodeComparator(Value.class, comparisonContext);
 
+    var guard = new ComparisonGuard();
+    guard.push(valueFactory.createBNode("bnode01"));
+
     var expectedResult = -1;
 
     int actualResult = bnodeComparator.compare(
         valueFactory.createBNode("bnode01"),
         valueFactory.createBNode("bnode02"),
-        List.of(valueFactory.createBNode("bnode01")));
+        guard);
 
     assertEquals(expectedResult, actualResult);
   }
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.util.RDFCollections;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class BlankNodeSortKeysTest extends AbstractComparatorTest {
+
+  @Test
+  void shouldOrderBlankNodesLikeRecursiveComparisonWhenInliningBlankNodes() {
+    assertSameOrderAsRecursiveComparison(true);
+  }
+
+  @Test
+  void shouldOrderBlankNodesLikeRecursiveComparisonWhenNotInliningBlankNodes() {
+    assertSameOrderAsRecursiveComparison(false);
+  }
+
+  @Test
+  void shouldNotComputeKeysForBlankNodeCycles() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var bnode1 = valueFactory.createBNode("bnode01");
+    var bnode2 = valueFactory.createBNode("bnode02");
+    var nextIri = valueFactory.createIRI(IRI_PREFIX + "next");
+    var model = new ModelBuilder()
+        .setNamespace("ex", IRI_PREFIX)
+        .add(bnode1, nextIri, bnode2)
+        .add(bnode2, nextIri, bnode1)
+        .build();
+
+    assertNull(BlankNodeSortKeys.compute(prepareComparisonContext(model, true), Value.class));
+    assertNotNull(BlankNodeSortKeys.compute(prepareComparisonContext(model, false), Value.class));
+  }
+
+  private void assertSameOrderAsRecursiveComparison(boolean shouldInlineBlankNodes) {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var model = prepareModel(valueFactory);
+    var comparisonContext = prepareComparisonContext(model, shouldInlineBlankNodes);
+    var bnodeComparator = new BNodeComparator(Value.class, comparisonContext);
+    var sortKeys = BlankNodeSortKeys.compute(comparisonContext, Value.class);
+    assertNotNull(sortKeys);
+
+    List<BNode> bnodes = model.subjects().stream()
+        .filter(BNode.class::isInstance)
+        .map(BNode.class::cast)
+        .collect(Collectors.toList());
+    for (BNode bnode1 : bnodes) {
+      for (BNode bnode2 : bnodes) {
+        assertEquals(
+            Integer.signum(bnodeComparator.compare(bnode1, bnode2)),
+            Integer.signum(sortKeys.compare(bnode1, bnode2)),
+            bnode1 + " vs " + bnode2);
+      }
+    }
+  }
+
+  private Model prepareModel(ValueFactory valueFactory) {
+    var restriction1 = valueFactory.createBNode("restriction01");
+    var restriction2 = valueFactory.createBNode("restriction02");
+    var restriction3 = valueFactory.createBNode("restriction03");
+    var nested1 = valueFactory.createBNode("nested01");
+    var nested2 = valueFactory.createBNode("nested02");
+    var union1 = valueFactory.createBNode("union01");
+    var union2 = valueFactory.createBNode("union02");
+    var hasPartIri = valueFactory.createIRI(IRI_PREFIX + "hasPart");
+    var partIri = valueFactory.createIRI(IRI_PREFIX + "Part");
+    var model = new ModelBuilder()
+        .add(restriction1, RDF.TYPE, OWL.RESTRICTION)
+        .add(restriction1, OWL.ONPROPERTY, hasPartIri)
+        .add(restriction1, OWL.SOMEVALUESFROM, nested1)
+        .add(nested1, RDF.TYPE, OWL.CLASS)
+        .add(nested1, OWL.UNIONOF, union1)
+        .add(restriction2, RDF.TYPE, OWL.RESTRICTION)
+        .add(restriction2, OWL.ONPROPERTY, hasPartIri)
+        .add(restriction2, OWL.SOMEVALUESFROM, nested2)
+        .add(nested2, RDF.TYPE, OWL.CLASS)
+        .add(nested2, OWL.UNIONOF, union2)
+        .add(restriction3, RDF.TYPE, OWL.RESTRICTION)
+        .add(restriction3, OWL.ONPROPERTY, valueFactory.createIRI(IRI_PREFIX + "hasMember"))
+        .add(restriction3, OWL.ALLVALUESFROM, OWL.THING)
+        .build();
+    RDFCollections.asRDF(List.of(partIri, restriction3), union1, model);
+    RDFCollections.asRDF(List.of(partIri, restriction3), union2, model);
+    return model;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.edmcouncil.rdf_toolkit.model.UnsortedTurtleSubjectPredicateObjectMap;
+import org.junit.jupiter.api.Test;
+
+class CachedResourceComparatorTest {
+
+  @Test
+  void shouldReuseCachedComparisonForSwappedResources() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var statistics = new ComparatorCacheStatistics();
+    var comparator = prepareComparator(16, statistics);
+    var iri1 = valueFactory.createIRI(AbstractComparatorTest.IRI_PREFIX + "a");
+    var iri2 = valueFactory.createIRI(AbstractComparatorTest.IRI_PREFIX + "b");
+
+    assertEquals(-1, comparator.compare(iri1, iri2));
+    assertEquals(1, comparator.compare(iri2, iri1));
+    assertEquals(-1, comparator.compare(valueFactory.createIRI(iri1.stringValue()), iri2));
+
+    assertEquals(2, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(0, statistics.getEvictionCount());
+  }
+
+  @Test
+  void shouldEvictComparisonsWhenCacheIsFull() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var statistics = new ComparatorCacheStatistics();
+    var comparator = prepareComparator(1, statistics);
+    var iri1 = valueFactory.createIRI(AbstractComparatorTest.IRI_PREFIX + "a");
+    var iri2 = valueFactory.createIRI(AbstractComparatorTest.IRI_PREFIX + "b");
+    var iri3 = valueFactory.createIRI(AbstractComparatorTest.IRI_PREFIX + "c");
+
+    comparator.compare(iri1, iri2);
+    comparator.compare(iri1, iri3);
+    assertEquals(1, comparator.compare(iri3, iri1));
+
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(2, statistics.getMissCount());
+    assertEquals(1, statistics.getEvictionCount());
+  }
+
+  @Test
+  void shouldNotCacheWhenCacheSizeIsZero() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var statistics = new ComparatorCacheStatistics();
+    var comparator = prepareComparator(0, statistics);
+    var iri1 = valueFactory.createIRI(AbstractComparatorTest.IRI_PREFIX + "a");
+    var iri2 = valueFactory.createIRI(AbstractComparatorTest.IRI_PREFIX + "b");
+
+    comparator.compare(iri1, iri2);
+    comparator.compare(iri1, iri2);
+
+    assertEquals(0, statistics.getHitCount());
+    assertEquals(0, statistics.getMissCount());
+  }
+
+  @Test
+  void shouldLimitTableCapacityToMaximumCacheSize() {
+    assertEquals(CachedResourceComparator.MAX_CACHE_SIZE,
+        CachedResourceComparator.tableCapacity(CachedResourceComparator.MAX_CACHE_SIZE));
+    assertEquals(CachedResourceComparator.MAX_CACHE_SIZE,
+        CachedResourceComparator.tableCapacity(CachedResourceComparator.MAX_CACHE_SIZE - 1));
+    assertEquals(CachedResourceComparator.MAX_CACHE_SIZE,
+        CachedResourceComparator.tableCapacity(CachedResourceComparator.MAX_CACHE_SIZE + 1));
+    assertEquals(CachedResourceComparator.MAX_CACHE_SIZE, CachedResourceComparator.tableCapacity(Integer.MAX_VALUE));
+    assertEquals(1024, CachedResourceComparator.tableCapacity(1000));
+  }
+
+  private CachedResourceComparator prepareComparator(int cacheSize, ComparatorCacheStatistics statistics) {
+    var comparisonContext = new ComparisonContext(false, new UnsortedTurtleSubjectPredicateObjectMap(), cacheSize,
+        statistics);
+    return new CachedResourceComparator(Value.class, comparisonContext);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.util.RDFCollections;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+class CollectionIndexTest extends AbstractComparatorTest {
+
+  @Test
+  void shouldFindSameCollectionsAsComparisonUtils() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var nameIri = valueFactory.createIRI(IRI_PREFIX + "name");
+    var cycle1 = valueFactory.createBNode("cycle01");
+    var cycle2 = valueFactory.createBNode("cycle02");
+    var notAList = valueFactory.createBNode("notAList");
+    var model = new ModelBuilder()
+        .setNamespace("ex", IRI_PREFIX)
+        .add(cycle1, RDF.FIRST, valueFactory.createLiteral("one"))
+        .add(cycle1, RDF.REST, cycle2)
+        .add(cycle2, RDF.FIRST, valueFactory.createLiteral("two"))
+        .add(cycle2, RDF.REST, cycle1)
+        .add(notAList, RDF.FIRST, valueFactory.createLiteral("one"))
+        .add(notAList, RDF.REST, RDF.NIL)
+        .add(notAList, nameIri, valueFactory.createLiteral("not a list"))
+        .build();
+    var innerList = valueFactory.createBNode("innerList");
+    RDFCollections.asRDF(List.of(valueFactory.createLiteral("a"), valueFactory.createLiteral("b")), innerList, model);
+    RDFCollections.asRDF(List.of(valueFactory.createIRI(IRI_PREFIX, "Punk"), innerList, notAList),
+        valueFactory.createBNode("outerList"), model);
+    RDFCollections.asRDF(List.of(valueFactory.createIRI(IRI_PREFIX, "Kitty"), cycle1),
+        valueFactory.createBNode("listOfCycle"), model);
+
+    var indexedContext = prepareComparisonContext(model, true);
+    var collectionIndex = CollectionIndex.compute(indexedContext, Value.class);
+    indexedContext.setCollectionIndex(Value.class, collectionIndex);
+    var recursiveContext = prepareComparisonContext(model, true);
+
+    int collectionCount = 0;
+    for (Resource subject : model.subjects()) {
+      if (subject instanceof BNode) {
+        var bnode = (BNode) subject;
+        boolean isCollection = ComparisonUtils.isCollection(recursiveContext, bnode, Value.class);
+        assertEquals(isCollection, collectionIndex.isCollection(bnode), bnode.getID());
+        assertEquals(
+            ComparisonUtils.getCollectionMembers(recursiveContext.getUnsortedTripleMap(), bnode, Value.class,
+                recursiveContext),
+            ComparisonUtils.getCollectionMembers(indexedContext.getUnsortedTripleMap(), bnode, Value.class,
+                indexedContext),
+            bnode.getID());
+        collectionCount += isCollection ? 1 : 0;
+      }
+    }
+    assertEquals(collectionCount, collectionIndex.getCollectionCount());
+    assertFalse(collectionIndex.isCollection(cycle1));
+    assertFalse(collectionIndex.isCollection(notAList));
+  }
+
+  @Test
+  void shouldHandleLongListsWithoutRecursion() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    List<Value> members = new ArrayList<>();
+    for (int index = 0; index < 10000; index++) {
+      members.add(valueFactory.createLiteral(index));
+    }
+    var head = valueFactory.createBNode("head");
+    Model model = RDFCollections.asRDF(members, head, new ModelBuilder().build());
+    var second = (BNode) Models.object(model.filter(head, RDF.REST, null)).orElseThrow();
+
+    var comparisonContext = prepareComparisonContext(model, true);
+    assertTrue(ComparisonUtils.isCollection(comparisonContext, head, Value.class));
+    var collectionIndex = CollectionIndex.compute(comparisonContext, Value.class);
+
+    assertTrue(collectionIndex.isCollection(head));
+    assertEquals(members.size(), collectionIndex.getCollectionCount());
+    assertEquals(members.subList(1, members.size()), collectionIndex.getCollectionMembers(second));
+    assertEquals(members, collectionIndex.getCollectionMembers(head));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+class ComparisonGuardTest {
+
+  @Test
+  void shouldOnlyContainEntriesOnTheCurrentComparisonPath() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var guard = new ComparisonGuard();
+
+    guard.push(valueFactory.createBNode("bnode01"));
+    guard.push(valueFactory.createBNode("bnode02"));
+    guard.pop();
+
+    assertTrue(guard.contains(valueFactory.createBNode("bnode01")));
+    assertFalse(guard.contains(valueFactory.createBNode("bnode02")));
+    assertEquals(1, guard.getDepth());
+  }
+
+  @Test
+  void shouldTrackListsAndMapsByIdentity() {
+    var guard = new ComparisonGuard();
+    List<String> list = new ArrayList<>(List.of("Foo"));
+
+    guard.push(list);
+
+    assertTrue(guard.contains(list));
+    assertFalse(guard.contains(new ArrayList<>(List.of("Foo"))));
+  }
+
+  @Test
+  void shouldKeepEntryPushedTwiceUntilBothArePopped() {
+    var valueFactory = SimpleValueFactory.getInstance();
+    var guard = new ComparisonGuard();
+
+    guard.push(valueFactory.createBNode("bnode01"));
+    guard.push(valueFactory.createBNode("bnode01"));
+    guard.popTo(1);
+
+    assertTrue(guard.contains(valueFactory.createBNode("bnode01")));
+    guard.pop();
+    assertFalse(guard.contains(valueFactory.createBNode("bnode01")));
+    assertThrows(IllegalStateException.class, guard::pop);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.io;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ComparingOutputStreamTest {
+
+  private static final byte[] CONTENT = "@prefix ex: <http://example.com/> .\n".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir
+  Path tempDir;
+
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    file = Files.write(tempDir.resolve("target.ttl"), CONTENT);
+  }
+
+  @Test
+  void shouldFindTheSameContent() throws Exception {
+    var out = new ComparingOutputStream(file.toFile());
+    out.write(CONTENT, 0, 10);
+    out.write(CONTENT[10]);
+    out.write(CONTENT, 11, CONTENT.length - 11);
+    out.close();
+
+    assertFalse(out.isDifferent());
+    assertTrue(Files.exists(file));
+  }
+
+  @Test
+  void shouldStopAtTheFirstDifferentByte() throws Exception {
+    byte[] changed = CONTENT.clone();
+    changed[5] = 'X';
+    var out = new ComparingOutputStream(file.toFile());
+
+    assertThrows(IOException.class, () -> out.write(changed));
+    assertTrue(out.isDifferent());
+    assertThrows(IOException.class, () -> out.write('x'));
+    out.close();
+    assertTrue(out.isDifferent());
+  }
+
+  @Test
+  void shouldFindShorterOutputDifferentWhenClosed() throws Exception {
+    var out = new ComparingOutputStream(file.toFile());
+    out.write(CONTENT, 0, CONTENT.length - 1);
+    assertFalse(out.isDifferent());
+
+    out.close();
+    assertTrue(out.isDifferent());
+  }
+
+  @Test
+  void shouldFindLongerOutputDifferent() throws Exception {
+    var out = new ComparingOutputStream(file.toFile());
+    out.write(CONTENT);
+
+    assertThrows(IOException.class, () -> out.write('\n'));
+    assertTrue(out.isDifferent());
+    out.close();
+  }
+
+  @Test
+  void shouldFindMissingFileDifferent() throws Exception {
+    var out = new ComparingOutputStream(tempDir.resolve("missing.ttl").toFile());
+
+    assertThrows(IOException.class, () -> out.write(CONTENT));
+    assertTrue(out.isDifferent());
+    out.close();
+    assertFalse(Files.exists(tempDir.resolve("missing.ttl")));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryWalkerTest {
+
+  private static final Pattern TURTLE_FILES = Pattern.compile("(.*)\\.ttl");
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    for (String file : new String[] {
+        "a.ttl", "b.rdf", "nested/c.ttl", "nested/deeper/d.ttl", ".git/objects/e.ttl", "nested/.git/f.ttl"}) {
+      Path path = tempDir.resolve(file);
+      Files.createDirectories(path.getParent());
+      Files.write(path, new byte[0]);
+    }
+  }
+
+  @Test
+  void shouldFindMatchingFilesInAllDirectories() {
+    var walker = new DirectoryWalker(tempDir.toFile(), TURTLE_FILES);
+
+    assertEquals(
+        relativePaths("a.ttl", "nested/c.ttl", "nested/deeper/d.ttl", ".git/objects/e.ttl", "nested/.git/f.ttl"),
+        walker.pathMatches().stream().map(DirectoryWalker.DirectoryWalkerResult::getRelativePath)
+            .collect(Collectors.toSet()));
+    for (var match : walker.pathMatches()) {
+      assertEquals(tempDir.resolve(match.getRelativePath()).toFile(), match.getFile());
+    }
+  }
+
+  @Test
+  void shouldNotSearchExcludedDirectories() {
+    var walker = new DirectoryWalker(tempDir.toFile(), TURTLE_FILES, Pattern.compile("(.*/)?\\.git"));
+
+    assertEquals(
+        relativePaths("a.ttl", "nested/c.ttl", "nested/deeper/d.ttl"),
+        walker.pathMatches().stream().map(DirectoryWalker.DirectoryWalkerResult::getRelativePath)
+            .collect(Collectors.toSet()));
+  }
+
+  @Test
+  void shouldStopFindingFilesWhenTheStreamIsClosed() {
+    var walker = new DirectoryWalker(tempDir.toFile(), TURTLE_FILES);
+
+    try (var matches = walker.streamMatches()) {
+      var iterator = matches.iterator();
+      assertTrue(iterator.hasNext());
+      iterator.next();
+      matches.close();
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  private static Set<String> relativePaths(String... paths) {
+    return Set.of(paths).stream().map(path -> path.replace('/', File.separatorChar)).collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+class InterningValueFactoryTest {
+
+  private static final String IRI_PREFIX = "http://example.com/ont1/";
+
+  private InterningValueFactory valueFactory;
+
+  @BeforeEach
+  void setUp() {
+    valueFactory = new InterningValueFactory();
+  }
+
+  @Test
+  void shouldShareEqualTerms() {
+    assertSame(valueFactory.createIRI(IRI_PREFIX + "Person"), valueFactory.createIRI(IRI_PREFIX, "Person"));
+    assertSame(valueFactory.createBNode("node1"), valueFactory.createBNode("node1"));
+    assertSame(valueFactory.createLiteral("person", "en"), valueFactory.createLiteral("person", "en"));
+    assertSame(valueFactory.createLiteral("42", XSD.INTEGER), valueFactory.createLiteral("42", XSD.INTEGER));
+    assertEquals(5, valueFactory.getDictionary().size()); // including the xsd:integer data type
+  }
+
+  @Test
+  void shouldShareTermsBeyondTheInitialDictionaryCapacity() {
+    for (int index = 0; index < 1000; index++) {
+      String iri = IRI_PREFIX + "Class" + index;
+      assertSame(valueFactory.createIRI(iri), valueFactory.createIRI(iri));
+    }
+    assertEquals(1000, valueFactory.getDictionary().size());
+  }
+
+  @Test
+  void shouldNumberNewBlankNodesInCreationOrder() {
+    var previous = valueFactory.createBNode();
+    for (int index = 0; index < 200; index++) {
+      var next = valueFactory.createBNode();
+      assertTrue(previous.getID().compareTo(next.getID()) < 0);
+      previous = next;
+    }
+  }
+
+  @Test
+  void shouldShareDatatypesOfLiterals() {
+    var datatype = valueFactory.createIRI(IRI_PREFIX + "code");
+    Literal literal = valueFactory.createLiteral("A-1", valueFactory.createIRI(IRI_PREFIX + "code"));
+
+    assertSame(datatype, literal.getDatatype());
+  }
+
+  @Test
+  void shouldKeepTheCaseOfLanguageTags() {
+    valueFactory.createLiteral("Septante", "fr-be");
+
+    assertEquals("fr-BE", valueFactory.createLiteral("Septante", "fr-BE").getLanguage().orElseThrow());
+  }
+
+  @Test
+  void shouldNotInternLongLiterals() {
+    String label = "x".repeat(InterningValueFactory.MAX_INTERNED_LITERAL_LENGTH + 1);
+
+    var literal1 = valueFactory.createLiteral(label);
+    var literal2 = valueFactory.createLiteral(label);
+
+    assertEquals(literal1, literal2);
+    assertNotSame(literal1, literal2);
+    assertEquals(0, valueFactory.getDictionary().size());
+  }
+
+  @Test
+  void shouldShareTermsOfParsedStatements() throws Exception {
+    String turtle = "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+        + "<" + IRI_PREFIX + "A> a owl:Class .\n"
+        + "<" + IRI_PREFIX + "B> a owl:Class .\n";
+    var reader = new RdfModelReader(RDFFormat.TURTLE);
+
+    Model model = reader.read(new ByteArrayInputStream(turtle.getBytes(StandardCharsets.UTF_8)), IRI_PREFIX);
+
+    Statement[] statements = model.toArray(new Statement[0]);
+    assertEquals(2, statements.length);
+    assertEquals(RDF.TYPE, statements[0].getPredicate());
+    assertEquals(OWL.CLASS, statements[0].getObject());
+    assertSame(statements[0].getPredicate(), statements[1].getPredicate());
+    assertSame(statements[0].getObject(), statements[1].getObject());
+  }
+}
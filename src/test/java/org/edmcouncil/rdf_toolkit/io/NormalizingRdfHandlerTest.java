@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.edmcouncil.rdf_toolkit.util.IriRewriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicReference;
+
+class NormalizingRdfHandlerTest {
+
+  private static final String TURTLE = "@prefix ex: <http://example.com/ont1/> .\n" +
+      "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n" +
+      "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n" +
+      "<http://example.com/ont2> a owl:Ontology .\n" +
+      "ex:Person rdfs:label \"person\"@en-gb, \"persoon\"@nl-x-informal .\n" +
+      "<http://example.com/ont1> a owl:Ontology .\n" +
+      "@prefix ex: <http://example.com/other/> .\n";
+
+  private ValueFactory valueFactory;
+  private StatementCollector collector;
+  private AtomicReference<IRI> ontologyIri;
+
+  @BeforeEach
+  void setUp() {
+    valueFactory = new InterningValueFactory();
+    collector = new StatementCollector();
+    ontologyIri = new AtomicReference<>();
+  }
+
+  private void parse(IriRewriter iriRewriter) throws Exception {
+    var parser = Rio.createParser(RDFFormat.TURTLE, valueFactory);
+    parser.setRDFHandler(
+        new NormalizingRdfHandler(collector, valueFactory, iriRewriter, ontologyIri::set));
+    parser.parse(new StringReader(TURTLE), "");
+  }
+
+  @Test
+  void shouldUppercaseSecondPartOfLanguageTagUnlessX() throws Exception {
+    parse(null);
+
+    IRI person = valueFactory.createIRI("http://example.com/ont1/Person");
+    assertTrue(collector.getStatements().contains(
+        valueFactory.createStatement(person, RDFS.LABEL, valueFactory.createLiteral("person", "en-GB"))));
+    assertTrue(collector.getStatements().stream()
+        .map(Statement::getObject)
+        .anyMatch(object -> object.toString().equals("\"persoon\"@nl-x-informal")));
+  }
+
+  @Test
+  void shouldReplaceIrisInStatementsAndNamespaces() throws Exception {
+    parse(new IriRewriter().addRule("^http://example\\.com/", "https://example.org/"));
+
+    assertEquals(4, collector.getStatements().size());
+    assertTrue(collector.getStatements().stream()
+        .allMatch(st -> st.getSubject().stringValue().startsWith("https://example.org/")));
+    assertEquals("https://example.org/ont1/", collector.getNamespaces().get("ex")); // the first 'ex' is kept
+    assertEquals("https://example.org/ont1", ontologyIri.get().stringValue());
+  }
+
+  @Test
+  void shouldReportLexicographicallyFirstOntologyIri() throws Exception {
+    parse(null);
+
+    assertEquals(valueFactory.createIRI("http://example.com/ont1"), ontologyIri.get());
+    assertTrue(collector.getStatements().contains(
+        valueFactory.createStatement(valueFactory.createIRI("http://example.com/ont2"), RDF.TYPE, OWL.ONTOLOGY)));
+  }
+
+  @Test
+  void shouldNotReportOntologyIriIfThereIsNone() throws Exception {
+    var parser = Rio.createParser(RDFFormat.TURTLE, valueFactory);
+    parser.setRDFHandler(new NormalizingRdfHandler(collector, valueFactory, null, ontologyIri::set));
+    parser.parse(new StringReader("<http://example.com/a> <http://example.com/b> <http://example.com/c> ."), "");
+
+    assertEquals(1, collector.getStatements().size());
+    assertNull(ontologyIri.get());
+  }
+}
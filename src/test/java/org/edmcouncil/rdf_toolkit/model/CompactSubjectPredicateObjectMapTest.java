@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.edmcouncil.rdf_toolkit.comparator.ComparisonContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+
+class CompactSubjectPredicateObjectMapTest {
+
+  private static final String IRI_PREFIX = "http://example.com/ont1/";
+
+  private final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+  private final IRI city = valueFactory.createIRI(IRI_PREFIX + "city");
+  private final IRI person = valueFactory.createIRI(IRI_PREFIX + "person");
+  private CompactSubjectPredicateObjectMap tripleMap;
+
+  @BeforeEach
+  void setUp() {
+    var store = new CompactTripleStore();
+    store.add(person, city, valueFactory.createLiteral("Paris"));
+    store.add(valueFactory.createBNode("office"), city, valueFactory.createLiteral("Berlin"));
+    tripleMap = new CompactSubjectPredicateObjectMap(store);
+  }
+
+  @Test
+  void shouldRejectEveryMutator() {
+    var poMap = new UnsortedTurtlePredicateObjectMap();
+
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.put(person, poMap));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.putAll(Map.of(person, poMap)));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.putIfAbsent(person, poMap));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.computeIfAbsent(person, subject -> poMap));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.compute(person, (subject, old) -> poMap));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.merge(person, poMap, (old, added) -> poMap));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.replace(person, poMap));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.remove(person));
+    assertThrows(UnsupportedOperationException.class, () -> tripleMap.clear());
+    assertEquals(2, tripleMap.size());
+    assertEquals(1, tripleMap.get(person).fullSize());
+  }
+
+  @Test
+  void shouldReadSortedPredicateObjectMapsThroughValuesAndEntries() {
+    var sortedMap = tripleMap.toSorted(Value.class, new ComparisonContext(false, tripleMap));
+
+    assertEquals(2, sortedMap.values().size());
+    assertFalse(sortedMap.values().contains(null));
+    for (var entry : sortedMap.entrySet()) {
+      assertEquals(tripleMap.get(entry.getKey()).fullSize(), entry.getValue().fullSize());
+    }
+    assertEquals(1, sortedMap.get(person).fullSize());
+    assertThrows(UnsupportedOperationException.class, () -> sortedMap.put(person, null));
+    assertThrows(UnsupportedOperationException.class, () -> sortedMap.computeIfAbsent(person, subject -> null));
+    assertThrows(UnsupportedOperationException.class, () -> sortedMap.remove(person));
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Set;
+
+class CompactTripleStoreTest {
+
+  private static final String IRI_PREFIX = "http://example.com/ont1/";
+
+  private final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+  private final IRI city = valueFactory.createIRI(IRI_PREFIX + "city");
+  private final IRI name = valueFactory.createIRI(IRI_PREFIX + "name");
+  private CompactTripleStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new CompactTripleStore();
+  }
+
+  @Test
+  void shouldGroupTriplesBySubjectAndPredicate() {
+    var person = valueFactory.createIRI(IRI_PREFIX + "person");
+    var office = valueFactory.createBNode("office");
+    store.add(person, city, valueFactory.createLiteral("Paris"));
+    store.add(office, city, valueFactory.createLiteral("Berlin"));
+    store.add(person, name, valueFactory.createLiteral("Ann"));
+    store.add(person, city, valueFactory.createLiteral("London"));
+
+    var expected = new UnsortedTurtlePredicateObjectMap();
+    expected.put(city, new UnsortedTurtleObjectList());
+    expected.get(city).add(valueFactory.createLiteral("Paris"));
+    expected.get(city).add(valueFactory.createLiteral("London"));
+    expected.put(name, new UnsortedTurtleObjectList());
+    expected.get(name).add(valueFactory.createLiteral("Ann"));
+
+    assertEquals(4, store.size());
+    assertEquals(2, store.getSubjectCount());
+    assertEquals(expected, store.getPredicateObjectMap(person));
+    assertEquals(Set.of(person, office), store.subjects());
+  }
+
+  @Test
+  void shouldRemoveDuplicateTriples() {
+    var person = valueFactory.createIRI(IRI_PREFIX + "person");
+    for (int index = 0; index < 3; index++) {
+      store.add(person, city, valueFactory.createLiteral("Paris"));
+    }
+
+    assertEquals(1, store.size());
+    assertEquals(1, store.getPredicateObjectMap(person).fullSize());
+  }
+
+  @Test
+  void shouldOnlyContainSubjectsWithTriples() {
+    var person = valueFactory.createIRI(IRI_PREFIX + "person");
+    var friend = valueFactory.createIRI(IRI_PREFIX + "friend");
+    store.add(person, valueFactory.createIRI(IRI_PREFIX + "knows"), friend);
+
+    assertTrue(store.containsSubject(person));
+    assertFalse(store.containsSubject(friend)); // only used as an object
+    assertNull(store.getPredicateObjectMap(friend));
+
+    store.add(friend, name, valueFactory.createLiteral("Bob")); // adding after reading sorts the store again
+
+    assertTrue(store.containsSubject(friend));
+    assertEquals(2, store.size());
+  }
+}
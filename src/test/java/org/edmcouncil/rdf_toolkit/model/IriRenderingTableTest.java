@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.namespace.QName;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.Test;
+
+class IriRenderingTableTest {
+
+  private static final IRI IRI = SimpleValueFactory.getInstance().createIRI("http://example.com/ns#term");
+
+  private final IriRenderingTable table = new IriRenderingTable();
+
+  @Test
+  void shouldConvertEachIriToAQNameOnce() {
+    var conversions = new AtomicInteger();
+    QName qname = new QName("http://example.com/ns#", "term", "ex");
+
+    assertSame(qname, table.getQName(IRI, false, iri -> {
+      conversions.incrementAndGet();
+      return qname;
+    }));
+    assertSame(qname, table.getQName(IRI, false, iri -> {
+      conversions.incrementAndGet();
+      return qname;
+    }));
+    assertEquals(1, conversions.get());
+  }
+
+  @Test
+  void shouldRememberIrisWithoutAQName() {
+    var conversions = new AtomicInteger();
+
+    assertNull(table.getQName(IRI, true, iri -> {
+      conversions.incrementAndGet();
+      return null;
+    }));
+    assertNull(table.getQName(IRI, true, iri -> {
+      conversions.incrementAndGet();
+      return null;
+    }));
+    assertEquals(1, conversions.get());
+  }
+
+  @Test
+  void shouldKeepRenderingsApartByQuotingAndGeneratedPrefixes() {
+    table.putRendering(IRI, false, true, "<http://example.com/ns#term>");
+    table.putRendering(IRI, true, false, "ex:term");
+
+    assertEquals("<http://example.com/ns#term>", table.getRendering(IRI, false, true));
+    assertEquals("ex:term", table.getRendering(IRI, true, false));
+    assertNull(table.getRendering(IRI, false, false));
+    assertNull(table.getRendering(IRI, true, true));
+  }
+
+  @Test
+  void shouldForgetEverythingWhenCleared() {
+    table.putRendering(IRI, false, true, "<http://example.com/ns#term>");
+    table.getQName(IRI, false, iri -> null);
+    assertEquals(2, table.size());
+
+    table.clear();
+
+    assertEquals(0, table.size());
+    assertNull(table.getRendering(IRI, false, true));
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NamespaceRegistryTest {
+
+  private NamespaceRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new NamespaceRegistry();
+    registry.put("ex", "http://example.com/");
+    registry.put("skos", "http://www.w3.org/2004/02/skos/core#");
+  }
+
+  @Test
+  void shouldKeepTheReverseTableInStep() {
+    registry.put("example", "http://example.com/");
+    registry.put("skos", "http://www.w3.org/2008/05/skos#");
+
+    assertTrue(registry.containsNamespace("http://example.com/"));
+    assertTrue(registry.containsNamespace("http://www.w3.org/2008/05/skos#"));
+    assertFalse(registry.containsNamespace("http://www.w3.org/2004/02/skos/core#"));
+    // Of several prefixes, the last in order is used, as when the reverse table is built from the prefixes.
+    assertEquals(Map.of("http://example.com/", "example", "http://www.w3.org/2008/05/skos#", "skos"),
+        registry.getReverseNamespaceTable());
+
+    registry.remove("example");
+
+    assertEquals("ex", registry.getReverseNamespaceTable().get("http://example.com/"));
+  }
+
+  @Test
+  void shouldOnlyAddMissingNamespaces() {
+    registry.putIfNamespaceMissing("example", "http://example.com/");
+    registry.putIfNamespaceMissing("owl", "http://www.w3.org/2002/07/owl#");
+
+    assertNull(registry.get("example"));
+    assertEquals("http://www.w3.org/2002/07/owl#", registry.get("owl"));
+  }
+
+  @Test
+  void shouldNumberGeneratedPrefixesSkippingTakenOnes() {
+    registry.put("zzzns0002", "http://example.org/taken/");
+
+    assertEquals("zzzns0001", registry.putGeneratedPrefix("http://example.org/a/"));
+    assertNull(registry.putGeneratedPrefix("http://example.org/a/"));
+    assertEquals("zzzns0003", registry.putGeneratedPrefix("http://example.org/b/"));
+
+    assertEquals(Map.of("zzzns0001", "http://example.org/a/", "zzzns0003", "http://example.org/b/"),
+        registry.getGeneratedNamespaces());
+    assertEquals("zzzns0003", registry.getReverseNamespaceTable().get("http://example.org/b/"));
+  }
+
+  @Test
+  void shouldForgetEverythingWhenCleared() {
+    registry.putGeneratedPrefix("http://example.org/a/");
+
+    registry.clear();
+
+    assertTrue(registry.getReverseNamespaceTable().isEmpty());
+    assertTrue(registry.getGeneratedNamespaces().isEmpty());
+    assertEquals("zzzns0001", registry.putGeneratedPrefix("http://example.org/a/"));
+  }
+}
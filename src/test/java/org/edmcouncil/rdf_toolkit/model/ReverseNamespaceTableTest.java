@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReverseNamespaceTableTest {
+
+  private ReverseNamespaceTable table;
+
+  @BeforeEach
+  void setUp() {
+    table = new ReverseNamespaceTable();
+    table.put("http://example.com/", "ex");
+    table.put("http://example.com/ontology/", "ont");
+    table.put("http://example.com/ontology#", "onth");
+  }
+
+  @Test
+  void shouldFindTheLongestNamespace() {
+    assertEquals("http://example.com/ontology/", table.getLongestNamespace("http://example.com/ontology/Term"));
+    assertEquals("http://example.com/ontology#", table.getLongestNamespace("http://example.com/ontology#Term"));
+    assertEquals("http://example.com/", table.getLongestNamespace("http://example.com/ontologyTerm"));
+    assertNull(table.getLongestNamespace("http://example.org/Term"));
+  }
+
+  @Test
+  void shouldOnlyFindNamespacesShorterThanTheIri() {
+    assertEquals("http://example.com/", table.getLongestNamespace("http://example.com/ontology/"));
+    assertNull(table.getLongestNamespace("http://example.com/"));
+  }
+
+  @Test
+  void shouldFindNamespacesByPrefix() {
+    assertEquals("http://example.com/ontology/", table.getNamespaceWithPrefix("ont"));
+    assertNull(table.getNamespaceWithPrefix("xml"));
+  }
+
+  @Test
+  void shouldFindNamespacesAddedAfterALookup() {
+    assertNull(table.getLongestNamespace("http://www.w3.org/XML/1998/namespace#lang"));
+
+    table.put("http://www.w3.org/XML/1998/namespace#", "xml");
+
+    assertEquals("http://www.w3.org/XML/1998/namespace#",
+        table.getLongestNamespace("http://www.w3.org/XML/1998/namespace#lang"));
+    assertEquals("http://www.w3.org/XML/1998/namespace#", table.getNamespaceWithPrefix("xml"));
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SortedHashMapTest {
+
+  private SortedHashMap<String, Integer> map;
+
+  @BeforeEach
+  void setUp() {
+    map = new SortedHashMap<>(Comparator.<String>naturalOrder());
+    map.put("c", 3);
+    map.put("a", 1);
+    map.put("b", 2);
+  }
+
+  @Test
+  void shouldReturnTheSameSnapshotUntilTheKeysChange() {
+    var first = map.sortedKeys();
+    map.put("a", 10); // replaces a value, so the snapshot is rebuilt but keeps its order
+    var second = map.sortedKeys();
+
+    assertEquals(List.of("a", "b", "c"), first);
+    assertEquals(first, second);
+    assertSame(second, map.sortedKeys());
+  }
+
+  @Test
+  void shouldResortAfterEveryKindOfMutation() {
+    var before = map.sortedKeys();
+
+    map.remove("b");
+    assertEquals(List.of("a", "c"), map.sortedKeys());
+    map.computeIfAbsent("aa", key -> 0);
+    assertEquals(List.of("a", "aa", "c"), map.sortedKeys());
+    map.merge("0", 0, Integer::sum);
+    assertEquals(List.of("0", "a", "aa", "c"), map.sortedKeys());
+    map.keySet().remove("aa");
+    assertEquals(List.of("0", "a", "c"), map.sortedKeys());
+    map.clear();
+    assertEquals(List.of(), map.sortedKeys());
+
+    assertNotSame(before, map.sortedKeys());
+    assertEquals(List.of("a", "b", "c"), before); // earlier snapshots are never modified
+  }
+
+  @Test
+  void shouldReturnReadOnlyKeys() {
+    var sortedKeys = map.sortedKeys();
+
+    assertThrows(UnsupportedOperationException.class, () -> sortedKeys.remove("a"));
+    assertThrows(UnsupportedOperationException.class, () -> sortedKeys.set(0, "z"));
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.edmcouncil.rdf_toolkit.comparator.ComparisonContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UnsortedTurtleSubjectPredicateObjectMapTest {
+
+  private static final String IRI_PREFIX = "http://example.com/ont1/";
+
+  private final ValueFactory valueFactory = SimpleValueFactory.getInstance();
+  private UnsortedTurtleSubjectPredicateObjectMap tripleMap;
+  private ComparisonContext comparisonContext;
+
+  @BeforeEach
+  void setUp() {
+    tripleMap = new UnsortedTurtleSubjectPredicateObjectMap();
+    comparisonContext = new ComparisonContext(false, tripleMap);
+
+    var objectList = new UnsortedTurtleObjectList();
+    objectList.add(valueFactory.createLiteral("Paris"));
+    var poMap = new UnsortedTurtlePredicateObjectMap();
+    poMap.put(valueFactory.createIRI(IRI_PREFIX + "city"), objectList);
+    tripleMap.put(valueFactory.createBNode("bnode01"), poMap);
+  }
+
+  @Test
+  void shouldReuseSortedViewOfTheSameSubject() {
+    var subject = valueFactory.createBNode("bnode01");
+
+    var firstView = tripleMap.getSorted(subject, Value.class, comparisonContext);
+    var secondView = tripleMap.getSorted(subject, Value.class, comparisonContext);
+
+    assertSame(firstView, secondView);
+    assertEquals(1, tripleMap.getSortedViewBuildCount());
+    assertEquals(1, tripleMap.getSortedViewReuseCount());
+  }
+
+  @Test
+  void shouldRebuildSortedViewAfterInvalidation() {
+    var subject = valueFactory.createBNode("bnode01");
+
+    var firstView = tripleMap.getSorted(subject, Value.class, comparisonContext);
+    tripleMap.get(subject).get(valueFactory.createIRI(IRI_PREFIX + "city"))
+        .add(valueFactory.createLiteral("Berlin"));
+    tripleMap.invalidateSortedViews();
+    var secondView = tripleMap.getSorted(subject, Value.class, comparisonContext);
+
+    assertNotSame(firstView, secondView);
+    assertEquals(2, secondView.fullSize());
+    assertEquals(2, tripleMap.getSortedViewBuildCount());
+    assertEquals(0, tripleMap.getSortedViewReuseCount());
+  }
+
+  @Test
+  void shouldRebuildSortedViewAfterComputeIfAbsent() {
+    var subject = valueFactory.createBNode("bnode01");
+    var otherSubject = valueFactory.createBNode("bnode02");
+
+    var firstView = tripleMap.getSorted(subject, Value.class, comparisonContext);
+    tripleMap.computeIfAbsent(otherSubject, key -> new UnsortedTurtlePredicateObjectMap());
+    var secondView = tripleMap.getSorted(subject, Value.class, comparisonContext);
+
+    assertNotSame(firstView, secondView);
+    assertEquals(2, tripleMap.getSortedViewBuildCount());
+    assertEquals(0, tripleMap.getSortedViewReuseCount());
+  }
+
+  @Test
+  void shouldNotReturnStaleSortedViewAfterReplace() {
+    var subject = valueFactory.createBNode("bnode01");
+    var objectList = new UnsortedTurtleObjectList();
+    objectList.add(valueFactory.createLiteral("Berlin"));
+    objectList.add(valueFactory.createLiteral("Paris"));
+    var poMap = new UnsortedTurtlePredicateObjectMap();
+    poMap.put(valueFactory.createIRI(IRI_PREFIX + "city"), objectList);
+
+    assertEquals(1, tripleMap.getSorted(subject, Value.class, comparisonContext).fullSize());
+    tripleMap.replace(subject, poMap);
+
+    assertEquals(2, tripleMap.getSorted(subject, Value.class, comparisonContext).fullSize());
+  }
+
+  @Test
+  void shouldReturnNullForUnknownSubject() {
+    assertNull(tripleMap.getSorted(valueFactory.createBNode("unknown"), Value.class, comparisonContext));
+    assertEquals(0, tripleMap.getSortedViewBuildCount());
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+import org.edmcouncil.rdf_toolkit.RdfFormatter;
+import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitFormattingException;
+import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitOptionHandlingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchFormatterTest {
+
+  private static final File SOURCE_DIR = new File("src/test/resources/ontologies/other");
+  private static final String[] SOURCE_FILES = {
+      "allemang-test-a.ttl", "allemang-test-b.ttl", "allemang-test-a-trimmed.ttl", "allemang-test-b-trimmed.ttl"};
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldFormatDirectoryOnSeveralThreadsLikeSingleFiles() throws Exception {
+    Path sourceDir = Files.createDirectories(tempDir.resolve("source"));
+    for (String sourceFile : SOURCE_FILES) {
+      Files.copy(new File(SOURCE_DIR, sourceFile).toPath(), sourceDir.resolve(sourceFile));
+    }
+    Path targetDir = tempDir.resolve("target");
+
+    RdfFormatter.run(new String[] {
+        "-sd", sourceDir.toString(),
+        "-sdp", "^(.*)\\.ttl$",
+        "-sfmt", "turtle",
+        "-td", targetDir.toString(),
+        "-tdp", "$1.fmt.ttl",
+        "-tfmt", "turtle",
+        "-th", "3"
+    });
+
+    for (String sourceFile : SOURCE_FILES) {
+      Path singleTarget = tempDir.resolve(sourceFile);
+      RdfFormatter.run(new String[] {
+          "-s", sourceDir.resolve(sourceFile).toString(),
+          "-t", singleTarget.toString(),
+          "-tfmt", "turtle"
+      });
+      assertArrayEquals(Files.readAllBytes(singleTarget),
+          Files.readAllBytes(targetDir.resolve(sourceFile.replace(".ttl", ".fmt.ttl"))),
+          "directory output differs for " + sourceFile);
+    }
+  }
+
+  @Test
+  void shouldFormatRepeatedSourcesToPatternTargetsLikeSingleFiles() throws Exception {
+    Path sourceDir = Files.createDirectories(tempDir.resolve("source"));
+    List<String> args = new ArrayList<>(List.of(
+        "-sfp", "^(.*)[/\\\\]source[/\\\\](.*)\\.ttl$",
+        "-tfp", "$1/target/$2.fmt.ttl",
+        "-th", "2"));
+    for (String sourceFile : SOURCE_FILES) {
+      Files.copy(new File(SOURCE_DIR, sourceFile).toPath(), sourceDir.resolve(sourceFile));
+      args.add("-s");
+      args.add(sourceDir.resolve(sourceFile).toString());
+    }
+    Path targetDir = tempDir.resolve("target");
+
+    RdfFormatter.run(args.toArray(new String[0]));
+
+    for (String sourceFile : SOURCE_FILES) {
+      Path singleTarget = tempDir.resolve(sourceFile);
+      RdfFormatter.run(new String[] {"-s", sourceDir.resolve(sourceFile).toString(), "-t", singleTarget.toString()});
+      assertArrayEquals(Files.readAllBytes(singleTarget),
+          Files.readAllBytes(targetDir.resolve(sourceFile.replace(".ttl", ".fmt.ttl"))),
+          "multiple file output differs for " + sourceFile);
+    }
+  }
+
+  @Test
+  void shouldFormatSourceListInPlace() throws Exception {
+    List<String> sourceList = new ArrayList<>();
+    for (String sourceFile : SOURCE_FILES) {
+      Path source = Files.copy(new File(SOURCE_DIR, sourceFile).toPath(), tempDir.resolve(sourceFile));
+      sourceList.add(source.toString());
+    }
+    sourceList.add("");
+    Path sourceListFile = Files.write(tempDir.resolve("sources.txt"), sourceList, StandardCharsets.UTF_8);
+
+    RdfFormatter.run(new String[] {"-sl", sourceListFile.toString(), "-inp"});
+
+    for (String sourceFile : SOURCE_FILES) {
+      Path singleTarget = tempDir.resolve(sourceFile + ".single");
+      RdfFormatter.run(new String[] {"-s", new File(SOURCE_DIR, sourceFile).getPath(), "-t", singleTarget.toString()});
+      assertArrayEquals(Files.readAllBytes(singleTarget), Files.readAllBytes(tempDir.resolve(sourceFile)),
+          "in-place output differs for " + sourceFile);
+    }
+  }
+
+  @Test
+  void shouldRejectSourceNotMatchingTheSourceFilePattern() {
+    assertThrows(RdfToolkitOptionHandlingException.class, () -> RdfFormatter.run(new String[] {
+        "-s", new File(SOURCE_DIR, SOURCE_FILES[0]).getPath(),
+        "-s", new File(SOURCE_DIR, SOURCE_FILES[1]).getPath(),
+        "-sfp", "^(.*)\\.rdf$",
+        "-tfp", "$1.ttl"
+    }));
+  }
+
+  @Test
+  void shouldCheckDirectoryWithoutWriting() throws Exception {
+    Path sourceDir = Files.createDirectories(tempDir.resolve("source"));
+    for (String sourceFile : SOURCE_FILES) {
+      Files.copy(new File(SOURCE_DIR, sourceFile).toPath(), sourceDir.resolve(sourceFile));
+    }
+    Path targetDir = tempDir.resolve("target");
+    String[] args = {
+        "-sd", sourceDir.toString(),
+        "-sdp", "^(.*)\\.ttl$",
+        "-sfmt", "turtle",
+        "-td", targetDir.toString(),
+        "-tdp", "$1.fmt.ttl",
+        "-tfmt", "turtle",
+        "-th", "2"
+    };
+    RdfFormatter.run(args);
+    List<String> checkArgs = new ArrayList<>(List.of(args));
+    checkArgs.add("--check");
+
+    RdfFormatter.run(checkArgs.toArray(new String[0]));
+
+    Path changedTarget = targetDir.resolve(SOURCE_FILES[1].replace(".ttl", ".fmt.ttl"));
+    byte[] changedContent = (new String(Files.readAllBytes(changedTarget), StandardCharsets.UTF_8) + "\n")
+        .getBytes(StandardCharsets.UTF_8);
+    Files.write(changedTarget, changedContent);
+    assertThrows(RdfToolkitFormattingException.class, () -> RdfFormatter.run(checkArgs.toArray(new String[0])));
+    assertArrayEquals(changedContent, Files.readAllBytes(changedTarget));
+  }
+
+  @Test
+  void shouldCheckSingleFile() throws Exception {
+    String source = new File(SOURCE_DIR, SOURCE_FILES[0]).getPath();
+    Path target = tempDir.resolve("target.ttl");
+
+    assertThrows(RdfToolkitFormattingException.class,
+        () -> RdfFormatter.run(new String[] {"-s", source, "-t", target.toString(), "--check"}));
+    assertFalse(Files.exists(target));
+
+    RdfFormatter.run(new String[] {"-s", source, "-t", target.toString()});
+    RdfFormatter.run(new String[] {"-s", source, "-t", target.toString(), "--check"});
+  }
+
+  @Test
+  void shouldStartLargestEstimatedMemoryFirst() throws Exception {
+    var small = batchFile("small.ttl", 1000);
+    var largeTurtle = batchFile("large.ttl", 10000);
+    var largeRdfXml = batchFile("large.rdf", 10000); // fewer triples than the same size of Turtle
+    var alsoSmall = batchFile("also-small.ttl", 1000);
+    var batchFormatter = new RecordingBatchFormatter(new CountDownLatch(0));
+
+    var result = batchFormatter.format(List.of(small, largeRdfXml, alsoSmall, largeTurtle));
+
+    assertEquals(4, result.getFileCount());
+    assertEquals(List.of(largeTurtle, largeRdfXml, small, alsoSmall), batchFormatter.startedFiles);
+    assertTrue(small.getEstimatedMemory() >= BatchFormatter.MINIMUM_MEMORY_PER_FILE);
+  }
+
+  @Test
+  void shouldStartLargestFileFoundOnceThreadIsFree() throws Exception {
+    var first = batchFile("a.ttl", 1000);
+    var foundFiles = List.of(
+        first, batchFile("b.ttl", 3000), batchFile("c.ttl", 10000), batchFile("d.ttl", 2000), batchFile("e.ttl", 5000));
+    var allFound = new CountDownLatch(1);
+    var batchFormatter = new RecordingBatchFormatter(allFound);
+    var foundFileIterator = new Iterator<BatchFormatter.BatchFile>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (index < foundFiles.size()) {
+          return true;
+        }
+        allFound.countDown();
+        return false;
+      }
+
+      @Override
+      public BatchFormatter.BatchFile next() {
+        if (index > 0) {
+          // find the other files slowly, once the first file has started, so that they can each be started on arrival
+          try {
+            assertTrue(batchFormatter.firstFileStarted.await(10, TimeUnit.SECONDS));
+            Thread.sleep(20);
+          } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+          }
+        }
+        return foundFiles.get(index++);
+      }
+    };
+
+    var result = batchFormatter.format(
+        StreamSupport.stream(Spliterators.spliteratorUnknownSize(foundFileIterator, Spliterator.ORDERED), false));
+
+    // the thread only becomes free once all files have been found, and then starts them largest first
+    assertEquals(5, result.getFileCount());
+    List<BatchFormatter.BatchFile> expectedOrder = new ArrayList<>(foundFiles.subList(1, foundFiles.size()));
+    expectedOrder.sort(Comparator.comparingLong(BatchFormatter.BatchFile::getEstimatedMemory).reversed());
+    expectedOrder.add(0, first);
+    assertEquals(expectedOrder, batchFormatter.startedFiles);
+  }
+
+  private BatchFormatter.BatchFile batchFile(String name, int size) throws Exception {
+    Path sourceFile = Files.write(tempDir.resolve(name), new byte[size]);
+    return new BatchFormatter.BatchFile(sourceFile.toFile(), tempDir.resolve(name + ".out").toFile(), name, name);
+  }
+
+  @Test
+  void shouldFormatOtherFilesWhenOneCannotBeParsed() throws Exception {
+    Path sourceDir = Files.createDirectories(tempDir.resolve("source"));
+    Files.copy(new File(SOURCE_DIR, SOURCE_FILES[0]).toPath(), sourceDir.resolve("good.ttl"));
+    Files.write(sourceDir.resolve("bad.ttl"),
+        "<http://example.com/a> <http://example.com/b> \"unterminated .\n".getBytes(StandardCharsets.UTF_8));
+    Path targetDir = tempDir.resolve("target");
+
+    var ex = assertThrows(RdfToolkitFormattingException.class, () -> RdfFormatter.run(new String[] {
+        "-sd", sourceDir.toString(),
+        "-sdp", "^(.*)\\.ttl$",
+        "-sfmt", "turtle",
+        "-td", targetDir.toString(),
+        "-tdp", "$1.fmt.ttl",
+        "-tfmt", "turtle",
+        "-th", "2"
+    }));
+
+    assertEquals("1 of 2 files could not be formatted", ex.getMessage());
+    assertTrue(Files.exists(targetDir.resolve("good.fmt.ttl")));
+    assertFalse(Files.exists(targetDir.resolve("bad.fmt.ttl")));
+  }
+
+  /**
+   * Records the order in which files are started on a single thread, without formatting them.  The first file waits
+   * until the latch is released.
+   */
+  private static class RecordingBatchFormatter extends BatchFormatter {
+    private final List<BatchFile> startedFiles = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch firstFileStarted = new CountDownLatch(1);
+    private final CountDownLatch firstFileLatch;
+
+    private RecordingBatchFormatter(CountDownLatch firstFileLatch) {
+      super(singleThreadOptions());
+      this.firstFileLatch = firstFileLatch;
+    }
+
+    private static RdfToolkitOptions singleThreadOptions() {
+      var rdfToolkitOptions = new RdfToolkitOptions(new String[0]);
+      rdfToolkitOptions.setThreadCount(1);
+      return rdfToolkitOptions;
+    }
+
+    @Override
+    Outcome formatFile(BatchFile batchFile) {
+      startedFiles.add(batchFile);
+      if (startedFiles.size() == 1) {
+        firstFileStarted.countDown();
+        try {
+          assertTrue(firstFileLatch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return Outcome.FAILED;
+        }
+      }
+      return Outcome.FORMATTED;
+    }
+  }
+}
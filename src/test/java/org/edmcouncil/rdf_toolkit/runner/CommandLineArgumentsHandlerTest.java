@@ -24,6 +24,7 @@
 package org.edmcouncil.rdf_toolkit.runner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.FileNotFoundException;
 import java.lang.reflect.Field;
@@ -32,6 +33,8 @@ import java.util.Collections;
 import java.util.List;
 import org.apache.commons.cli.ParseException;
 import org.edmcouncil.rdf_toolkit.runner.exception.RdfToolkitOptionHandlingException;
+import org.edmcouncil.rdf_toolkit.comparator.CachedResourceComparator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -51,6 +54,15 @@ class CommandLineArgumentsHandlerTest {
     assertEquals(testParam.getExpectedValue(), fieldValue);
   }
 
+  @Test
+  void shouldRejectComparatorCacheSizeAboveMaximum() {
+    var commandLineArgumentsHandler = new CommandLineArgumentsHandler();
+    var allArgs = getArgsWithRequired(new String[]{
+        "--comparator-cache-size", Integer.toString(CachedResourceComparator.MAX_CACHE_SIZE + 1)});
+
+    assertThrows(RdfToolkitOptionHandlingException.class, () -> commandLineArgumentsHandler.handleArguments(allArgs));
+  }
+
   private String[] getArgsWithRequired(String[] args) {
     int finalLength = REQUIRED_ARGS.length + args.length;
     List<String> argsList = new ArrayList<>(finalLength);
@@ -66,7 +78,16 @@ class CommandLineArgumentsHandlerTest {
         new TestParam(new String[]{"--omit-xmlns-namespace"}, "omitXmlnsNamespace", true),
         new TestParam(new String[]{""}, "omitXmlnsNamespace", false),
         new TestParam(new String[]{"--suppress-named-individuals"}, "suppressNamedIndividuals", true),
-        new TestParam(new String[]{""}, "suppressNamedIndividuals", false)
+        new TestParam(new String[]{""}, "suppressNamedIndividuals", false),
+        new TestParam(new String[]{"--comparator-cache-size", "1024"}, "comparatorCacheSize", 1024),
+        new TestParam(new String[]{""}, "comparatorCacheSize", 65536),
+        new TestParam(new String[]{"--comparator-cache-size", "16777216"}, "comparatorCacheSize", 16777216),
+        new TestParam(new String[]{"--compact-triple-store"}, "useCompactTripleStore", true),
+        new TestParam(new String[]{""}, "useCompactTripleStore", false),
+        new TestParam(new String[]{"--threads", "4"}, "threadCount", 4),
+        new TestParam(new String[]{""}, "threadCount", Runtime.getRuntime().availableProcessors()),
+        new TestParam(new String[]{"--memory-budget", "512"}, "memoryBudget", 512L * 1024L * 1024L),
+        new TestParam(new String[]{""}, "memoryBudget", Runtime.getRuntime().maxMemory() / 4 * 3)
     );
   }
 
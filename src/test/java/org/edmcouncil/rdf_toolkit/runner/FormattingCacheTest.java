@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.cli.DefaultParser;
+import org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FormattingCacheTest {
+
+  private static final File SOURCE_DIR = new File("src/test/resources/ontologies/other");
+  private static final String[] SOURCE_FILES = {"allemang-test-a.ttl", "allemang-test-b.ttl"};
+  private static final String FINGERPRINT = "options";
+
+  @TempDir
+  Path tempDir;
+
+  private Path manifestFile;
+  private List<BatchFormatter.BatchFile> batchFiles;
+  private RdfToolkitOptions rdfToolkitOptions;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    manifestFile = tempDir.resolve("cache/manifest.txt");
+    batchFiles = new ArrayList<>();
+    for (String sourceFile : SOURCE_FILES) {
+      Path source = Files.copy(new File(SOURCE_DIR, sourceFile).toPath(), tempDir.resolve(sourceFile));
+      batchFiles.add(new BatchFormatter.BatchFile(
+          source.toFile(), tempDir.resolve("target").resolve(sourceFile).toFile(), sourceFile, sourceFile));
+    }
+    // The directory options only select the formatting options; the files to format are given directly.
+    rdfToolkitOptions = new CommandLineArgumentsHandler().handleArguments(new String[] {
+        "-sd", tempDir.toString(), "-sdp", "(.*)", "-sfmt", "turtle",
+        "-td", tempDir.toString(), "-tdp", "$1", "-tfmt", "turtle",
+        "-th", "2"});
+  }
+
+  @Test
+  void shouldSkipFilesFormattedBefore() throws Exception {
+    assertEquals(0, formatWithCache(FINGERPRINT).getUnchangedFileCount());
+    assertEquals(2, formatWithCache(FINGERPRINT).getUnchangedFileCount());
+  }
+
+  @Test
+  void shouldFormatFilesWhoseSourceChanged() throws Exception {
+    formatWithCache(FINGERPRINT);
+    Files.write(batchFiles.get(0).getSourceFile().toPath(), "\n".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    assertEquals(1, formatWithCache(FINGERPRINT).getUnchangedFileCount());
+  }
+
+  @Test
+  void shouldFormatFilesWhoseTargetChanged() throws Exception {
+    formatWithCache(FINGERPRINT);
+    Files.write(batchFiles.get(1).getTargetFile().toPath(), "edited".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(1, formatWithCache(FINGERPRINT).getUnchangedFileCount());
+    assertNotEquals("edited", Files.readString(batchFiles.get(1).getTargetFile().toPath()));
+  }
+
+  @Test
+  void shouldFormatAllFilesWhenTheOptionsChanged() throws Exception {
+    formatWithCache(FINGERPRINT);
+
+    assertEquals(0, formatWithCache("other options").getUnchangedFileCount());
+  }
+
+  @Test
+  void shouldSkipFilesFormattedInPlace() throws Exception {
+    var inPlaceFiles = new ArrayList<BatchFormatter.BatchFile>();
+    for (var batchFile : batchFiles) {
+      inPlaceFiles.add(new BatchFormatter.BatchFile(batchFile.getSourceFile(), batchFile.getSourceFile(),
+          batchFile.getSourceName(), batchFile.getTargetName()));
+    }
+    batchFiles = inPlaceFiles;
+
+    formatWithCache(FINGERPRINT);
+    formatWithCache(FINGERPRINT); // the sources are now formatted, and so their own output
+    assertEquals(2, formatWithCache(FINGERPRINT).getUnchangedFileCount());
+  }
+
+  @Test
+  void shouldFingerprintOnlyTheOptionsWhichChangeTheOutput() throws Exception {
+    var parser = new DefaultParser();
+    var options = CommandLineOption.prepareOptions();
+    String fingerprint = FormattingCache.fingerprint(parser.parse(options, new String[] {
+        "-sd", "a", "-tfmt", "turtle", "-lc", "first", "-lc", "second", "-th", "2"}));
+
+    assertEquals(fingerprint, FormattingCache.fingerprint(parser.parse(options, new String[] {
+        "-lc", "first", "-sd", "b", "-lc", "second", "-tfmt", "turtle", "-th", "4", "-cf", "cache"})));
+    assertNotEquals(fingerprint, FormattingCache.fingerprint(parser.parse(options, new String[] {
+        "-sd", "a", "-tfmt", "turtle", "-lc", "second", "-lc", "first", "-th", "2"})));
+  }
+
+  @Test
+  void shouldFingerprintTheSameOptionsWithOrWithoutTheServer() throws Exception {
+    var parser = new DefaultParser();
+    var options = CommandLineOption.prepareOptions();
+    String fingerprint = FormattingCache.fingerprint(parser.parse(options, new String[] {
+        "-sd", "a", "-tfmt", "turtle", "-cf", "cache"}));
+
+    assertEquals(fingerprint, FormattingCache.fingerprint(parser.parse(options, new String[] {
+        "-sd", "a", "-tfmt", "turtle", "-cf", "cache", "-cl", "server.properties"})));
+  }
+
+  private BatchFormatter.Result formatWithCache(String fingerprint) throws Exception {
+    var formattingCache = FormattingCache.load(manifestFile, fingerprint);
+    var result = new BatchFormatter(rdfToolkitOptions, formattingCache).format(batchFiles);
+    formattingCache.save();
+    assertEquals(batchFiles.size(), result.getFileCount());
+    assertEquals(0, result.getFailedFiles().size());
+    return result;
+  }
+}
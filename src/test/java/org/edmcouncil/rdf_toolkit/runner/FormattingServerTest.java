@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Properties;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.edmcouncil.rdf_toolkit.RdfFormatter;
+import org.edmcouncil.rdf_toolkit.runner.constant.CommandLineOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FormattingServerTest {
+
+  private static final File SOURCE_FILE = new File("src/test/resources/ontologies/other/allemang-test-a.ttl");
+
+  @TempDir
+  Path tempDir;
+
+  private Path serverFile;
+  private FormattingServer server;
+  private Thread serverThread;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    serverFile = tempDir.resolve("server/rdf-toolkit.server");
+    server = new FormattingServer(serverFile);
+    serverThread = new Thread(() -> {
+      try {
+        server.run();
+      } catch (Exception ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    serverThread.start();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    server.close();
+    serverThread.join();
+    assertFalse(Files.exists(serverFile));
+  }
+
+  @Test
+  void shouldFormatOnTheServerLikeInProcess() throws Exception {
+    Path inProcessTarget = tempDir.resolve("in-process.ttl");
+    RdfFormatter.run(new String[] {"-s", SOURCE_FILE.getPath(), "-t", inProcessTarget.toString(), "-tfmt", "turtle"});
+
+    Path serverTarget = tempDir.resolve("server.ttl");
+    OptionalInt status = client(serverFile).format(commandLine(
+        "-s", SOURCE_FILE.getPath(), "-t", serverTarget.toString(), "-tfmt", "turtle", "-cl", serverFile.toString()));
+
+    assertEquals(OptionalInt.of(0), status);
+    assertArrayEquals(Files.readAllBytes(inProcessTarget), Files.readAllBytes(serverTarget));
+  }
+
+  @Test
+  void shouldReturnTheFailureStatusFromTheServer() throws Exception {
+    Path badSource = Files.writeString(tempDir.resolve("bad.ttl"), "this is not turtle");
+
+    OptionalInt status = client(serverFile).format(commandLine(
+        "-s", badSource.toString(), "-t", tempDir.resolve("bad.out.ttl").toString()));
+
+    assertEquals(OptionalInt.of(1), status);
+  }
+
+  @Test
+  void shouldRejectRequestsWithTheWrongKey() throws Exception {
+    var properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(serverFile)) {
+      properties.load(inputStream);
+    }
+    properties.setProperty(FormattingServer.KEY_PROPERTY, "wrong");
+    Path wrongServerFile = tempDir.resolve("wrong.server");
+    try (OutputStream outputStream = Files.newOutputStream(wrongServerFile)) {
+      properties.store(outputStream, null);
+    }
+
+    Path target = tempDir.resolve("target.ttl");
+    OptionalInt status = client(wrongServerFile).format(commandLine(
+        "-s", SOURCE_FILE.getPath(), "-t", target.toString()));
+
+    assertEquals(OptionalInt.of(1), status);
+    assertFalse(Files.exists(target));
+  }
+
+  @Test
+  void shouldRejectRequestsWithAnInvalidArgumentCount() throws Exception {
+    var properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(serverFile)) {
+      properties.load(inputStream);
+    }
+    for (int argumentCount : new int[] {-1, FormattingServer.MAX_ARGUMENT_COUNT + 1, Integer.MAX_VALUE}) {
+      try (var socket = new Socket(InetAddress.getLoopbackAddress(),
+          Integer.parseInt(properties.getProperty(FormattingServer.PORT_PROPERTY)))) {
+        var output = new DataOutputStream(socket.getOutputStream());
+        output.writeInt(FormattingServer.PROTOCOL_VERSION);
+        output.writeUTF(properties.getProperty(FormattingServer.KEY_PROPERTY));
+        output.writeInt(argumentCount);
+        output.flush();
+
+        var input = new DataInputStream(socket.getInputStream());
+        assertEquals(1, input.readInt());
+        assertFalse(input.readUTF().isEmpty());
+      }
+    }
+
+    // the server still handles requests
+    Path target = tempDir.resolve("target.ttl");
+    assertEquals(OptionalInt.of(0), client(serverFile).format(commandLine(
+        "-s", SOURCE_FILE.getPath(), "-t", target.toString())));
+  }
+
+  @Test
+  void shouldFormatInProcessWithoutServer() throws Exception {
+    Path target = tempDir.resolve("target.ttl");
+    Path missingServerFile = tempDir.resolve("missing.server");
+
+    assertEquals(OptionalInt.empty(), client(missingServerFile).format(commandLine(
+        "-s", SOURCE_FILE.getPath(), "-t", target.toString())));
+
+    RdfFormatter.run(new String[] {
+        "-s", SOURCE_FILE.getPath(), "-t", target.toString(), "-cl", missingServerFile.toString()});
+    assertTrue(Files.size(target) > 0);
+  }
+
+  @Test
+  void shouldSendAbsolutePathsWithoutTheClientOption() throws Exception {
+    List<String> args = FormattingClient.serverArguments(commandLine(
+        "-s", "source.ttl", "-lc", "-- comment", "-ibn", "-cl", "client.server"), null);
+
+    assertEquals(List.of(
+        "--source=" + new File("source.ttl").getAbsolutePath(),
+        "--leading-comment=-- comment",
+        "--inline-blank-nodes"), args);
+  }
+
+  @Test
+  void shouldSendSourceFilesInsteadOfTheSourceList() throws Exception {
+    List<String> args = FormattingClient.serverArguments(commandLine(
+        "-sl", "-", "-inp", "-cl", "client.server"), List.of(new File("a.ttl"), new File("b.ttl")));
+
+    assertEquals(List.of(
+        "--in-place",
+        "--source=" + new File("a.ttl").getAbsolutePath(),
+        "--source=" + new File("b.ttl").getAbsolutePath()), args);
+  }
+
+  private static FormattingClient client(Path serverFile) {
+    return new FormattingClient(serverFile);
+  }
+
+  private static CommandLine commandLine(String... args) throws Exception {
+    return new DefaultParser().parse(CommandLineOption.prepareOptions(), args);
+  }
+}
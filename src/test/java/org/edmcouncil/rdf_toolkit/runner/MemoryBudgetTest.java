@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class MemoryBudgetTest {
+
+  @Test
+  void shouldWaitUntilEnoughMemoryIsReleased() throws Exception {
+    var memoryBudget = new MemoryBudget(100);
+    long first = memoryBudget.acquire(60);
+
+    var acquired = new CountDownLatch(1);
+    var second = new AtomicLong();
+    var thread = new Thread(() -> {
+      try {
+        second.set(memoryBudget.acquire(50));
+        acquired.countDown();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+
+    assertFalse(acquired.await(100, TimeUnit.MILLISECONDS), "acquired more memory than available");
+    memoryBudget.release(first);
+    assertTrue(acquired.await(5, TimeUnit.SECONDS), "did not acquire released memory");
+    assertEquals(50, second.get());
+    thread.join();
+  }
+
+  @Test
+  void shouldReduceAmountLargerThanBudget() throws Exception {
+    var memoryBudget = new MemoryBudget(100);
+
+    assertEquals(100, memoryBudget.acquire(1000));
+    memoryBudget.release(100);
+    assertEquals(100, memoryBudget.acquire(100));
+  }
+
+  @Test
+  void shouldRejectBudgetWhichIsNotPositive() {
+    assertThrows(IllegalArgumentException.class, () -> new MemoryBudget(0));
+  }
+}
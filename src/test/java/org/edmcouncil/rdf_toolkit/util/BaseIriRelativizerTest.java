@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Random;
+
+class BaseIriRelativizerTest {
+
+  private static final String[] SCHEMES = {"http", "HTTP", "https", "file", "urn"};
+  private static final String[] AUTHORITIES = {
+      "//example.com", "//Example.com", "//example.com:80", "", "//", "//a%2Fb", "//a%2fb"};
+  private static final String[] SEGMENTS = {"a", "b", "fibo", "ontology", "", ".", "..", "x.ttl", "a%20b", "é"};
+  private static final String[] ENDINGS = {"", "?q", "#frag", "?q#f", "#", "?", "/"};
+
+  @Test
+  void shouldRelativizeIrisBelowTheBaseIri() throws Exception {
+    var relativizer = new BaseIriRelativizer("http://example.com/ontology/");
+
+    assertEquals("Person", relativizer.relativize("http://example.com/ontology/Person"));
+    assertEquals("sub/Person#name", relativizer.relativize("http://example.com/ontology/sub/Person#name"));
+    assertEquals("", relativizer.relativize("http://example.com/ontology/"));
+    assertEquals("http://example.com/other/Person", relativizer.relativize("http://example.com/other/Person"));
+    assertEquals("https://example.com/ontology/Person", relativizer.relativize("https://example.com/ontology/Person"));
+  }
+
+  @Test
+  void shouldTakeTheBasePathAsADirectory() throws Exception {
+    var relativizer = new BaseIriRelativizer("http://example.com/ontology");
+
+    assertEquals("#Person", relativizer.relativize("http://example.com/ontology#Person"));
+    assertEquals("Person", relativizer.relativize("http://example.com/ontology/Person"));
+    assertEquals("http://example.com/ontologyPerson", relativizer.relativize("http://example.com/ontologyPerson"));
+  }
+
+  /**
+   * Checks the relativizer against {@link URI#relativize(URI)} for many generated pairs of base IRIs and IRIs, many of
+   * which share the scheme, authority and path of the base IRI.
+   */
+  @Test
+  void shouldMakeTheSameIrisAsUriRelativize() throws Exception {
+    var random = new Random(20241017);
+    for (int pair = 0; pair < 20000; pair++) {
+      String baseIri = randomIri(random);
+      String iri = randomIri(random);
+      if (random.nextInt(3) == 0) {
+        iri = baseIri + SEGMENTS[random.nextInt(SEGMENTS.length)] + ENDINGS[random.nextInt(ENDINGS.length)];
+      }
+      String expected;
+      try {
+        expected = new URI(baseIri).relativize(new URI(iri)).toString();
+      } catch (URISyntaxException ex) {
+        continue; // only IRIs which are valid URIs can be compared
+      }
+      assertEquals(expected, new BaseIriRelativizer(baseIri).relativize(iri), baseIri + " relativizing " + iri);
+    }
+  }
+
+  private String randomIri(Random random) {
+    var iri = new StringBuilder(SCHEMES[random.nextInt(SCHEMES.length)]).append(':');
+    if (random.nextInt(10) == 0) {
+      return iri.append("opaque:part").toString();
+    }
+    iri.append(AUTHORITIES[random.nextInt(AUTHORITIES.length)]);
+    int segmentCount = random.nextInt(4);
+    for (int segment = 0; segment < segmentCount; segment++) {
+      iri.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+    }
+    if (random.nextBoolean()) {
+      iri.append('/');
+    }
+    return iri.append(ENDINGS[random.nextInt(ENDINGS.length)]).toString();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import java.util.regex.PatternSyntaxException;
+
+class IriRewriterTest {
+
+  @Test
+  void shouldReplaceFirstMatchLikeStringReplaceFirst() {
+    var iriRewriter = new IriRewriter().addRule("/(ont)(\\d)/", "/$1-v$2/");
+    String iri = "http://example.com/ont1/ont2/Person";
+
+    assertEquals(iri.replaceFirst("/(ont)(\\d)/", "/$1-v$2/"), iriRewriter.rewrite(iri));
+  }
+
+  @Test
+  void shouldApplyOnlyTheFirstMatchingRule() {
+    var iriRewriter = new IriRewriter()
+        .addRule("^http://old\\.example\\.com/", "http://example.com/")
+        .addRule("^http://example\\.com/", "http://new.example.com/");
+
+    assertEquals("http://example.com/Person", iriRewriter.rewrite("http://old.example.com/Person"));
+    assertEquals("http://new.example.com/Person", iriRewriter.rewrite("http://example.com/Person"));
+  }
+
+  @Test
+  void shouldReturnSameStringIfNoRuleMatches() {
+    var iriRewriter = new IriRewriter().addRule("^http://old\\.example\\.com/", "http://example.com/");
+    String iri = new String("http://example.com/Person"); // not the cached instance the second time round
+
+    assertSame(iri, iriRewriter.rewrite(iri));
+    String equalIri = new String(iri);
+    assertSame(equalIri, iriRewriter.rewrite(equalIri));
+    assertEquals(0, iriRewriter.getRewriteCount());
+  }
+
+  @Test
+  void shouldCountRewrittenIris() {
+    var iriRewriter = new IriRewriter().addRule("^http://old\\.example\\.com/", "http://example.com/");
+    for (int index = 0; index < 10; index++) {
+      iriRewriter.rewrite("http://old.example.com/Person");
+      iriRewriter.rewrite("http://old.example.com/Organization");
+      iriRewriter.rewrite("http://example.com/Place");
+    }
+
+    assertEquals(20, iriRewriter.getRewriteCount());
+    assertEquals(2, iriRewriter.getDistinctRewriteCount());
+  }
+
+  @Test
+  void shouldRejectInvalidPattern() {
+    var iriRewriter = new IriRewriter();
+
+    assertThrows(PatternSyntaxException.class, () -> iriRewriter.addRule("(unclosed", "x"));
+    assertFalse(iriRewriter.hasRules());
+  }
+}
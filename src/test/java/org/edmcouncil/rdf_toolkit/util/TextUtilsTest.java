@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.edmcouncil.rdf_toolkit.util;
+
+import static org.edmcouncil.rdf_toolkit.util.TextUtils.BACKSLASH;
+import static org.edmcouncil.rdf_toolkit.util.TextUtils.CONTROL_CHAR;
+import static org.edmcouncil.rdf_toolkit.util.TextUtils.DOUBLE_QUOTE;
+import static org.edmcouncil.rdf_toolkit.util.TextUtils.LOCAL_NAME;
+import static org.edmcouncil.rdf_toolkit.util.TextUtils.MULTILINE;
+import static org.edmcouncil.rdf_toolkit.util.TextUtils.SINGLE_QUOTE;
+import static org.edmcouncil.rdf_toolkit.util.TextUtils.XML_ESCAPE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class TextUtilsTest {
+
+  @Test
+  void shouldClassifyNameChars() {
+    for (char ch : "-._\\:09AZaz·À̀‿、ﷰ".toCharArray()) {
+      assertTrue(TextUtils.isNameChar(ch), "name char " + (int) ch);
+    }
+    for (char ch : " /#?\"'×÷; \uD800￾".toCharArray()) {
+      assertFalse(TextUtils.isNameChar(ch), "not a name char " + (int) ch);
+    }
+  }
+
+  @Test
+  void shouldRecognisePrefixedNameLocalParts() {
+    assertTrue(TextUtils.isPrefixedNameLocalPart("hasLegalName"));
+    assertTrue(TextUtils.isPrefixedNameLocalPart("ISO4217-CurrencyCode"));
+    assertFalse(TextUtils.isPrefixedNameLocalPart(""));
+    assertFalse(TextUtils.isPrefixedNameLocalPart(null));
+    assertFalse(TextUtils.isPrefixedNameLocalPart("/path"));
+    assertFalse(TextUtils.isPrefixedNameLocalPart("has name"));
+  }
+
+  @Test
+  void shouldClassifyStringsInOnePass() {
+    assertEquals(LOCAL_NAME, TextUtils.classify("LegalEntity"));
+    assertEquals(0, TextUtils.classify(""));
+    assertEquals(MULTILINE | CONTROL_CHAR, TextUtils.classify("first line\nsecond line"));
+    assertEquals(DOUBLE_QUOTE | SINGLE_QUOTE | XML_ESCAPE, TextUtils.classify("the \"entity's\" name"));
+    assertEquals(LOCAL_NAME | BACKSLASH, TextUtils.classify("a\\-b"));
+    assertEquals(XML_ESCAPE, TextUtils.classify("a < b"));
+    assertEquals(CONTROL_CHAR | XML_ESCAPE, TextUtils.classify("bell \u0007"));
+    assertEquals(0, TextUtils.classify("café au lait"));
+  }
+
+  @Test
+  void shouldRecogniseMultilineStrings() {
+    assertTrue(TextUtils.isMultilineString("a\r\nb"));
+    assertFalse(TextUtils.isMultilineString("a\tb"));
+    assertFalse(TextUtils.isMultilineString(null));
+  }
+}
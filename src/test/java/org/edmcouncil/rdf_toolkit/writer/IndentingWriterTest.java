@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Enterprise Data Management Council
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.edmcouncil.rdf_toolkit.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class IndentingWriterTest {
+
+  @Test
+  void shouldIndentEachLineByItsLevel() throws Exception {
+    var stringWriter = new StringWriter();
+    var writer = new IndentingWriter(stringWriter);
+    writer.setIndentationString("  ");
+    writer.setLineEnd("\n");
+
+    writer.write("a");
+    writer.writeEOL();
+    writer.setIndentationLevel(2);
+    writer.write("b");
+    writer.write(' ');
+    writer.write("c");
+    writer.writeEOL();
+    writer.setIndentationLevel(1);
+    writer.write("d");
+    writer.close();
+
+    assertEquals("a\n    b c\n  d", stringWriter.toString());
+  }
+
+  @Test
+  void shouldWriteTheSameToAStreamAsToAWriter() throws Exception {
+    var stringWriter = new StringWriter();
+    var bytes = new ByteArrayOutputStream();
+    var writers = new IndentingWriter[] {new IndentingWriter(stringWriter), new IndentingWriter(bytes)};
+    for (var writer : writers) {
+      writer.setIndentationString("\t");
+      writer.setLineEnd("\r\n");
+    }
+
+    // Several times the buffer size, with characters outside the BMP crossing the buffer boundaries.
+    for (int line = 0; line < 3 * IndentingWriter.BUFFER_SIZE / 10; line++) {
+      for (var writer : writers) {
+        writer.setIndentationLevel(line % 4);
+        writer.write(line % 3 == 0 ? "é😀" : "x" + line);
+        writer.write('.');
+        writer.writeEOL();
+      }
+    }
+    for (var writer : writers) {
+      writer.close();
+    }
+
+    assertEquals(stringWriter.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+  }
+}
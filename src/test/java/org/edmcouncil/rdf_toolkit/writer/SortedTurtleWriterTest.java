@@ -39,8 +39,12 @@ import static org.edmcouncil.rdf_toolkit.TestConstants.IBI_EXCLUSION_SET;
 import static org.edmcouncil.rdf_toolkit.TestConstants.TURTLE_INLINE_BLANK_NODES_EXCLUSION_SET;
 import static org.edmcouncil.rdf_toolkit.TestConstants.XS_STRING;
 import static org.edmcouncil.rdf_toolkit.util.Constants.BASE_IRI;
+import static org.edmcouncil.rdf_toolkit.util.Constants.COMPARATOR_CACHE_SIZE;
+import static org.edmcouncil.rdf_toolkit.util.Constants.COMPARATOR_CACHE_STATISTICS;
 import static org.edmcouncil.rdf_toolkit.util.Constants.INDENT;
+import static org.edmcouncil.rdf_toolkit.util.Constants.INLINE_BLANK_NODES;
 import static org.edmcouncil.rdf_toolkit.util.Constants.SHORT_URI_PREF;
+import static org.edmcouncil.rdf_toolkit.util.Constants.USE_COMPACT_TRIPLE_STORE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -48,12 +52,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.turtle.TurtleWriterFactory;
 import org.edmcouncil.rdf_toolkit.FileSystemUtils;
 import org.edmcouncil.rdf_toolkit.RdfFormatter;
+import org.edmcouncil.rdf_toolkit.comparator.ComparatorCacheStatistics;
 import org.edmcouncil.rdf_toolkit.io.format.TargetFormats;
 import org.edmcouncil.rdf_toolkit.util.ShortIriPreferences;
 import org.junit.jupiter.api.BeforeEach;
@@ -69,6 +75,7 @@ import java.io.FileReader;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
@@ -184,6 +191,55 @@ class SortedTurtleWriterTest extends AbstractSortedWriterTest {
         String.format("File '%s' should exists after writing.", outputFile2.getAbsolutePath()));
   }
 
+  @Test
+  void shouldProduceSameTurtleFileWithSmallComparatorCache() throws Exception {
+    // blank nodes in a cycle have no precomputed sort keys, so they are sorted with the cached comparator
+    var knows = valueFactory.createIRI("http://xmlns.com/foaf/0.1/knows");
+    var name = valueFactory.createIRI("http://xmlns.com/foaf/0.1/name");
+    var inputModel = new LinkedHashModel();
+    for (int index = 0; index < 40; index++) {
+      var person = valueFactory.createBNode("person" + index);
+      inputModel.add(person, knows, valueFactory.createBNode("person" + ((index + 1) % 40)));
+      inputModel.add(person, name, valueFactory.createLiteral("Person " + (index % 7)));
+    }
+    var factory = new SortedRdfWriterFactory(TargetFormats.TURTLE);
+
+    var expectedOutput = new StringWriter();
+    Rio.write(inputModel, factory.getWriter(expectedOutput, Map.of(INLINE_BLANK_NODES, true)));
+
+    var statistics = new ComparatorCacheStatistics();
+    var actualOutput = new StringWriter();
+    Map<String, Object> turtleWriterOptions = Map.of(
+        INLINE_BLANK_NODES, true,
+        COMPARATOR_CACHE_SIZE, 16,
+        COMPARATOR_CACHE_STATISTICS, statistics);
+    Rio.write(inputModel, factory.getWriter(actualOutput, turtleWriterOptions));
+
+    assertEquals(expectedOutput.toString(), actualOutput.toString());
+    assertTrue(statistics.getMissCount() > 0, "comparator cache should be used");
+    assertTrue(statistics.getEvictionCount() > 0, "small comparator cache should evict comparisons");
+  }
+
+  @Test
+  void shouldProduceSameTurtleFileWithCompactTripleStore() throws Exception {
+    var inputFile = new File(getRawRdfDirectory().getPath() + "/other/topquadrant-extended-turtle-example.ttl");
+    var inputModel = Rio.parse(new FileReader(inputFile), "", RDFFormat.TURTLE);
+    var factory = new SortedRdfWriterFactory(TargetFormats.TURTLE);
+
+    for (boolean inlineBlankNodes : new boolean[]{false, true}) {
+      var expectedOutput = new StringWriter();
+      Rio.write(inputModel, factory.getWriter(expectedOutput, Map.of(INLINE_BLANK_NODES, inlineBlankNodes)));
+
+      var actualOutput = new StringWriter();
+      Map<String, Object> turtleWriterOptions = Map.of(
+          INLINE_BLANK_NODES, inlineBlankNodes,
+          USE_COMPACT_TRIPLE_STORE, true);
+      Rio.write(inputModel, factory.getWriter(actualOutput, turtleWriterOptions));
+
+      assertEquals(expectedOutput.toString(), actualOutput.toString());
+    }
+  }
+
   @Test
   void shouldBeAbleToProduceSortedTurtleFileWithBlankObjectNodes() throws Exception {
     var rawRdfDirectory = getRawRdfDirectory();
@@ -877,6 +933,32 @@ class SortedTurtleWriterTest extends AbstractSortedWriterTest {
         "IRI replacement seems to have failed");
   }
 
+  @Test
+  void shouldBeAbleToDoSeveralPatternBasedIriReplacements() throws Exception {
+    var rawRdfDirectory = getRawRdfDirectory();
+    var outputDir1 = createTempDir(rootOutputDir1, TURTLE_PREFIX);
+    var inputFile = new File(rawRdfDirectory.getPath() + "/other/topbraid-countries-ontology.ttl");
+    var outputFile = FileSystemUtils.constructTargetPath(inputFile, rawRdfDirectory, outputDir1, "_replaced2.ttl");
+    RdfFormatter.run(
+        new String[] {
+            "-s", inputFile.getAbsolutePath(),
+            "-t", outputFile.getAbsolutePath(),
+            "-tfmt", "turtle",
+            "-ip", "^http://topbraid.org/countries",
+            "-ir", "http://replaced.example.org/countries",
+            "-ip", "^http://topbraid.org/",
+            "-ir", "http://other.example.org/"
+        }
+    );
+    var content = getFileContents(outputFile, StandardCharsets.UTF_8.name());
+    assertTrue(
+        content.contains("@prefix countries: <http://replaced.example.org/countries#> ."),
+        "first IRI replacement seems to have failed");
+    assertTrue(
+        content.contains("@prefix sm: <http://other.example.org/sparqlmotion#> ."),
+        "second IRI replacement seems to have failed");
+  }
+
   @Test
   void shouldBeAbleToAddSingleLineLeadingAndTrailingComments() throws Exception {
     var rawRdfDirectory = getRawRdfDirectory();